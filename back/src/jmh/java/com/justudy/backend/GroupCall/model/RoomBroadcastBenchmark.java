@@ -0,0 +1,55 @@
+package com.justudy.backend.GroupCall.model;
+
+import com.google.gson.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * RoomBroadcastBenchmark : 채팅 한 줄을 방 전체에 보낼 때의 직렬화 비용 비교
+ * <p>
+ * perRecipient 는 기존 transferChatMessage 루프(참가자마다 JsonObject 생성 + toString)를, serializeOnce 는
+ * Room.broadcast 방식(한번 직렬화 후 같은 문자열 공유)을 흉내낸다. 송신 큐 대신 Blackhole 에 넣는다.
+ * <p>
+ * 할당량 비교는 gc 프로파일러의 gc.alloc.rate.norm (B/op) 값을 본다.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoomBroadcastBenchmark {
+
+  @Param({"5", "30"})
+  private int participants;
+
+  private final String personName = "justudy";
+  private final String message = "오늘 스터디는 9시에 시작합니다. 늦지 마세요!";
+
+  @Benchmark
+  public void perRecipient(Blackhole blackhole) {
+    for (int i = 0; i < participants; i++) {
+      final JsonObject sender = new JsonObject();
+      sender.addProperty("id", "receiveChatMessage");
+      sender.addProperty("name", personName);
+      sender.addProperty("message", message);
+      blackhole.consume(sender.toString());
+    }
+  }
+
+  @Benchmark
+  public void serializeOnce(Blackhole blackhole) {
+    final JsonObject chat = new JsonObject();
+    chat.addProperty("id", "receiveChatMessage");
+    chat.addProperty("name", personName);
+    chat.addProperty("message", message);
+    final String text = chat.toString();
+    for (int i = 0; i < participants; i++) {
+      blackhole.consume(text);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.justudy.backend.GroupCall.cluster;
+
+import java.util.Collection;
+
+/**
+ * InMemoryRoomDirectory : 인스턴스가 하나뿐이라 모든 방을 이 인스턴스가 가진다.
+ **/
+public class InMemoryRoomDirectory implements RoomDirectory {
+
+  @Override
+  public boolean claim(String roomName) {
+    return true;
+  }
+
+  @Override
+  public void renew(Collection<String> roomNames) {
+  }
+
+  @Override
+  public void release(String roomName) {
+  }
+}
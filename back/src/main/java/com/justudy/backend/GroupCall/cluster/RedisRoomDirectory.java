@@ -0,0 +1,64 @@
+package com.justudy.backend.GroupCall.cluster;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * RedisRoomDirectory : 방마다 키 하나(prefix + 방 이름)에 소유 인스턴스 id 를 ttl 동안 저장한다.
+ **/
+public class RedisRoomDirectory implements RoomDirectory {
+
+  //값이 같을 때만 기간을 늘린다. (GET + PEXPIRE 를 한번에)
+  private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+          + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0", Long.class);
+
+  //값이 같을 때만 지운다. (GET + DEL 을 한번에)
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+          + "return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final StringRedisTemplate redisTemplate;
+  private final String keyPrefix;
+  private final Duration ttl;
+
+  public RedisRoomDirectory(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.keyPrefix = keyPrefix;
+    this.ttl = ttl;
+  }
+
+  @Override
+  public boolean claim(String roomName) {
+    final String key = keyPrefix + roomName;
+    if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, instanceId, ttl))) {
+      return true;
+    }
+    //이 인스턴스가 방을 닫았다가 기간이 끝나기 전에 다시 만드는 경우
+    return renew(key);
+  }
+
+  @Override
+  public void renew(Collection<String> roomNames) {
+    for (final String roomName : roomNames) {
+      renew(keyPrefix + roomName);
+    }
+  }
+
+  @Override
+  public void release(String roomName) {
+    redisTemplate.execute(RELEASE, Collections.singletonList(keyPrefix + roomName), instanceId);
+  }
+
+  private boolean renew(String key) {
+    final Long renewed = redisTemplate.execute(RENEW, Collections.singletonList(key), instanceId,
+        String.valueOf(ttl.toMillis()));
+    return renewed != null && renewed > 0;
+  }
+}
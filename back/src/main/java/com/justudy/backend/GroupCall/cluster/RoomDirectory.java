@@ -0,0 +1,21 @@
+package com.justudy.backend.GroupCall.cluster;
+
+import java.util.Collection;
+
+/**
+ * RoomDirectory : 방 이름 -> 그 방의 파이프라인을 가진 인스턴스
+ * <p>
+ * 방은 한 인스턴스에 고정된다(sticky). 참가자 목록과 WebRtcEndpoint 가 그 인스턴스의 메모리에만 있으므로 시그널링을 다른 인스턴스로 넘기지 않고,
+ * 로드밸런서가 같은 방을 같은 인스턴스로 보내야 한다. (연결 주소 /groupcall?room= 의 room 으로 해시) 잘못 온 입장이 같은 이름의 방을 하나 더 만들지 않도록 방을 만들 때 여기서 먼저 차지한다.
+ **/
+public interface RoomDirectory {
+
+  //이미 다른 인스턴스가 가진 방이면 false
+  boolean claim(String roomName);
+
+  //이 인스턴스가 가진 방의 소유 기간을 늘린다. (인스턴스가 죽으면 기간이 지나 풀린다)
+  void renew(Collection<String> roomNames);
+
+  //이 인스턴스가 가진 경우에만 놓는다.
+  void release(String roomName);
+}
@@ -0,0 +1,51 @@
+package com.justudy.backend.GroupCall.config;
+
+import com.justudy.backend.GroupCall.cluster.InMemoryRoomDirectory;
+import com.justudy.backend.GroupCall.cluster.RedisRoomDirectory;
+import com.justudy.backend.GroupCall.cluster.RoomDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.redis.RedisHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * ClusterConfig : 시그널링 서버 여러 대를 띄우기 위한 설정
+ * <p>
+ * 방은 한 인스턴스에 고정된다(sticky). 시그널링 메시지는 인스턴스끼리 주고받지 않으므로 로드밸런서가 같은 방을 같은 인스턴스로 보내야 한다.
+ * groupcall.cluster.mode = memory(기본값) 면 인스턴스 하나, redis 면 Redis 에 방 -> 인스턴스를 기록해서 잘못 온 입장을 거절한다.
+ **/
+@Configuration
+public class ClusterConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "groupcall.cluster.mode", havingValue = "memory", matchIfMissing = true)
+    static class InMemoryCluster {
+
+        @Bean
+        public RoomDirectory roomDirectory() {
+            return new InMemoryRoomDirectory();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "groupcall.cluster.mode", havingValue = "redis")
+    static class RedisCluster {
+
+        @Bean
+        public RoomDirectory roomDirectory(StringRedisTemplate redisTemplate,
+                @Value("${groupcall.cluster.room-ttl:90s}") Duration roomTtl) {
+            return new RedisRoomDirectory(redisTemplate, "groupcall:room:", roomTtl);
+        }
+
+        //management.health.redis.enabled 는 꺼두고 Redis 를 쓸 때만 health 에 넣는다.
+        @Bean
+        public RedisHealthIndicator redisHealthIndicator(RedisConnectionFactory connectionFactory) {
+            return new RedisHealthIndicator(connectionFactory);
+        }
+    }
+}
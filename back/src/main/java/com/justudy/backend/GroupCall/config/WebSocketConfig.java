@@ -1,8 +1,15 @@
 package com.justudy.backend.GroupCall.config;
 
+import com.justudy.backend.GroupCall.model.MediaPipelinePool;
+import com.justudy.backend.GroupCall.model.MediaServer;
+import com.justudy.backend.GroupCall.model.MediaServerPool;
 import com.justudy.backend.GroupCall.model.RoomManager;
 import com.justudy.backend.GroupCall.model.UserRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.kurento.client.KurentoClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
@@ -24,9 +31,25 @@ public class WebSocketConfig {
         return new UserRegistry();
     }
 //    "ws://kurento:8888/kurento"
+    //groupcall.media-servers 에 적힌 KMS 마다 KurentoClient 를 만든다. 비어있으면 기본 KMS(kms.url) 한 대만 쓴다.
+    //방이 닫혀도 파이프라인을 바로 해제하지 않고 서버마다 idle-ttl 동안 max-idle 개까지 재사용한다.
     @Bean
-    public KurentoClient kurentoClient() {
-        return KurentoClient.create();
+    public MediaServerPool mediaServerPool(
+            @Value("${groupcall.media-servers:}") List<String> mediaServerUris,
+            @Value("${groupcall.pipeline-pool.max-idle:4}") int maxIdle,
+            @Value("${groupcall.pipeline-pool.idle-ttl:10m}") Duration idleTtl) {
+        List<MediaServer> servers = new ArrayList<>();
+        for (String uri : mediaServerUris) {
+            if (!uri.isBlank()) {
+                KurentoClient kurento = KurentoClient.create(uri.trim());
+                servers.add(new MediaServer(uri.trim(), kurento, new MediaPipelinePool(kurento, maxIdle, idleTtl)));
+            }
+        }
+        if (servers.isEmpty()) {
+            KurentoClient kurento = KurentoClient.create();
+            servers.add(new MediaServer("default", kurento, new MediaPipelinePool(kurento, maxIdle, idleTtl)));
+        }
+        return new MediaServerPool(servers);
     }
 
     @Bean
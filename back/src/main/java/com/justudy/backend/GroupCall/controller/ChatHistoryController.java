@@ -0,0 +1,42 @@
+package com.justudy.backend.GroupCall.controller;
+
+import com.justudy.backend.GroupCall.dto.response.ChatHistoryResponse;
+import com.justudy.backend.GroupCall.dto.response.ChatMessageResponse;
+import com.justudy.backend.GroupCall.repository.ChatMessageRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/study-room")
+public class ChatHistoryController {
+
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final ChatMessageRepository chatMessageRepository;
+
+  /**
+   * 방 채팅 기록을 최신순으로 size 개씩 준다. 다음 페이지는 응답의 nextCursor 를 cursor 로 넘긴다.
+   */
+  @Transactional(readOnly = true)
+  @GetMapping("/{room}/chats")
+  public ResponseEntity<ChatHistoryResponse> readChatHistory(@PathVariable String room,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "30") int size) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    List<ChatMessageResponse> messages = chatMessageRepository.findPageByRoom(room, cursor,
+        pageSize);
+    Long nextCursor = messages.size() < pageSize ? null
+        : messages.get(messages.size() - 1).getSequence();
+    return ResponseEntity.status(HttpStatus.OK)
+        .body(new ChatHistoryResponse(messages, nextCursor));
+  }
+}
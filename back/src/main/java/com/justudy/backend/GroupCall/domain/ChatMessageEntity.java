@@ -0,0 +1,60 @@
+package com.justudy.backend.GroupCall.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * ChatMessageEntity : 스터디 방 채팅 기록 (추가만 한다)
+ **/
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "chat_message", indexes = @Index(name = "idx_chat_message_room_seq",
+    columnList = "chat_message_room, chat_message_seq"))
+@Entity
+public class ChatMessageEntity {
+
+  public static final int MAX_MESSAGE_LENGTH = 1000;
+
+  //hibernate_sequence 를 다른 엔티티와 같이 쓰지 않고 키를 50개씩(jdbc.batch_size 와 같게) 미리 받아서, 모아서 저장할 때 키를 한 번만 읽는다.
+  //IDENTITY 는 insert 마다 키를 돌려받아야 해서 batch insert 가 꺼진다. MySQL 에서는 chat_message_sequence 테이블(V6)로 대신한다.
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_message_sequence")
+  @SequenceGenerator(name = "chat_message_sequence", sequenceName = "chat_message_sequence",
+      allocationSize = 50)
+  @Column(name = "chat_message_seq")
+  private Long sequence;
+
+  //시그널링의 방 이름 (스터디 seq)
+  @Column(name = "chat_message_room", nullable = false, length = 64)
+  private String room;
+
+  @Column(name = "chat_message_name", nullable = false)
+  private String name;
+
+  @Column(name = "chat_message_content", nullable = false, length = MAX_MESSAGE_LENGTH)
+  private String message;
+
+  @Column(name = "chat_message_created_time", nullable = false)
+  private LocalDateTime createdTime;
+
+  @Builder
+  public ChatMessageEntity(Long sequence, String room, String name, String message,
+      LocalDateTime createdTime) {
+    this.sequence = sequence;
+    this.room = room;
+    this.name = name;
+    this.message = message;
+    this.createdTime = createdTime;
+  }
+}
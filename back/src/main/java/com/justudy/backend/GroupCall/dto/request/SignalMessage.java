@@ -0,0 +1,117 @@
+package com.justudy.backend.GroupCall.dto.request;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import lombok.Getter;
+import org.kurento.client.IceCandidate;
+
+/**
+ * SignalMessage : 시그널링 서버로 들어오는 메시지
+ * <p>
+ * JsonObject 트리를 만들지 않고 JsonReader 로 필요한 필드만 읽어서 채운다. 모르는 필드는 skipValue 로 건너뛴다. 방 입장 때 몰려오는
+ * onIceCandidate 메시지를 처리할 때 가비지를 줄이기 위함이다.
+ **/
+@Getter
+public class SignalMessage {
+
+  private String id;
+  private String name;
+  private String room;
+  private String sender;
+  private String sdpOffer;
+  private String message;
+  private String value;
+
+  //onIceCandidate 의 candidate 객체
+  private String candidate;
+  private String sdpMid;
+  private int sdpMLineIndex;
+
+  private SignalMessage() {
+  }
+
+  public static SignalMessage from(String json) throws IOException {
+    final SignalMessage signal = new SignalMessage();
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "id":
+            signal.id = readString(reader);
+            break;
+          case "name":
+            signal.name = readString(reader);
+            break;
+          case "room":
+            signal.room = readString(reader);
+            break;
+          case "sender":
+            signal.sender = readString(reader);
+            break;
+          case "sdpOffer":
+            signal.sdpOffer = readString(reader);
+            break;
+          case "message":
+            signal.message = readString(reader);
+            break;
+          case "value":
+            signal.value = readString(reader);
+            break;
+          case "candidate":
+            signal.readCandidate(reader);
+            break;
+          default:
+            reader.skipValue();
+            break;
+        }
+      }
+      reader.endObject();
+    } catch (IllegalStateException | NumberFormatException e) {
+      throw new IOException("Malformed signaling message", e);
+    }
+    return signal;
+  }
+
+  private void readCandidate(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      return;
+    }
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "candidate":
+          candidate = readString(reader);
+          break;
+        case "sdpMid":
+          sdpMid = readString(reader);
+          break;
+        case "sdpMLineIndex":
+          sdpMLineIndex = reader.nextInt();
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endObject();
+  }
+
+  private static String readString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+
+  public boolean hasCandidate() {
+    return candidate != null;
+  }
+
+  public IceCandidate toIceCandidate() {
+    return new IceCandidate(candidate, sdpMid, sdpMLineIndex);
+  }
+}
@@ -0,0 +1,18 @@
+package com.justudy.backend.GroupCall.dto.response;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class ChatHistoryResponse {
+
+  //최신순
+  private List<ChatMessageResponse> messages;
+  //다음 페이지를 받을 때 cursor 로 넘길 값. 더 없으면 null
+  private Long nextCursor;
+
+  public ChatHistoryResponse(List<ChatMessageResponse> messages, Long nextCursor) {
+    this.messages = messages;
+    this.nextCursor = nextCursor;
+  }
+}
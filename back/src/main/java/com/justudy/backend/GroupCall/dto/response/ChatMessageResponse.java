@@ -0,0 +1,22 @@
+package com.justudy.backend.GroupCall.dto.response;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+
+@Getter
+public class ChatMessageResponse {
+
+  //아직 저장되지 않은(최근 버퍼에만 있는) 메시지는 null
+  private Long sequence;
+  private String name;
+  private String message;
+  private LocalDateTime createdTime;
+
+  public ChatMessageResponse(Long sequence, String name, String message,
+      LocalDateTime createdTime) {
+    this.sequence = sequence;
+    this.name = name;
+    this.message = message;
+    this.createdTime = createdTime;
+  }
+}
@@ -0,0 +1,17 @@
+package com.justudy.backend.GroupCall.exception;
+
+import com.justudy.backend.exception.CustomException;
+
+public class RoomUnavailable extends CustomException {
+
+    private static final String MESSAGE = "다른 서버에서 진행 중인 방입니다.";
+
+    public RoomUnavailable(String roomName) {
+        super(MESSAGE + " (" + roomName + ")");
+    }
+
+    @Override
+    public int getStatusCode() {
+        return 409;
+    }
+}
@@ -0,0 +1,42 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.kurento.client.Continuation;
+
+/**
+ * KurentoFutures : Kurento 비동기(Continuation) API 를 CompletableFuture 로 바꿔주는 유틸
+ * <p>
+ * KMS 호출 결과는 Kurento 클라이언트 스레드에서 돌아오므로, 이어지는 작업도 그 스레드에서 실행된다. 웹소켓 스레드는 KMS 응답을 기다리지 않는다.
+ **/
+public final class KurentoFutures {
+
+  private KurentoFutures() {
+  }
+
+  /**
+   * 비동기 호출을 시작하고 그 결과를 future 로 돌려준다.
+   * <pre>
+   *   KurentoFutures.&lt;String&gt;call(c -&gt; endpoint.processOffer(sdpOffer, c))
+   * </pre>
+   */
+  public static <T> CompletableFuture<T> call(Consumer<Continuation<T>> asyncCall) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      asyncCall.accept(new Continuation<T>() {
+        @Override
+        public void onSuccess(T result) {
+          future.complete(result);
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+          future.completeExceptionally(cause);
+        }
+      });
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+}
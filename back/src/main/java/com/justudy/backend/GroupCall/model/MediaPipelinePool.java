@@ -0,0 +1,202 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MediaPipelinePool : 비어있는 MediaPipeline 을 재사용하기 위한 풀
+ * <p>
+ * 스터디 방은 정해진 시간에 매일 다시 열리고, 사람들이 들어왔다 나갔다 하면서 방이 비었다 다시 생긴다. 방이 빌 때마다 파이프라인을 해제하고 다음 입장 때 새로
+ * 만드는 대신, 일정 시간(idleTtl) 동안 최대 maxIdle 개까지 들고 있다가 다음 방에 넘겨준다.
+ **/
+public class MediaPipelinePool {
+
+  private static final Logger log = LoggerFactory.getLogger(MediaPipelinePool.class);
+  //해제 요청에 KMS 가 이 시간 안에 답하지 않으면 새어나간(leaked) 것으로 보고 스위퍼가 다시 해제한다.
+  static final long RELEASE_TIMEOUT_SECONDS = 10;
+
+  private final KurentoClient kurento;
+  private final int maxIdle;
+  private final Duration idleTtl;
+  private final Clock clock;
+
+  //가장 최근에 반납된 파이프라인이 앞에 온다. (오래된 것부터 만료)
+  private final Deque<IdlePipeline> idle = new ArrayDeque<>();
+  //해제에 실패한 파이프라인
+  private final Set<MediaPipeline> leaked = ConcurrentHashMap.newKeySet();
+
+  public MediaPipelinePool(KurentoClient kurento, int maxIdle, Duration idleTtl) {
+    this(kurento, maxIdle, idleTtl, Clock.systemUTC());
+  }
+
+  MediaPipelinePool(KurentoClient kurento, int maxIdle, Duration idleTtl, Clock clock) {
+    this.kurento = kurento;
+    this.maxIdle = maxIdle;
+    this.idleTtl = idleTtl;
+    this.clock = clock;
+  }
+
+  //놀고 있는 파이프라인이 있으면 꺼내주고, 없으면 새로 만든다.
+  public MediaPipeline acquire() {
+    synchronized (idle) {
+      final IdlePipeline warm = idle.pollFirst();
+      if (warm != null) {
+        log.debug("Reusing pooled pipeline ({} left idle)", idle.size());
+        return warm.pipeline;
+      }
+    }
+    return kurento.createMediaPipeline();
+  }
+
+  //방이 닫힐 때 파이프라인을 돌려받는다. 풀이 가득 차 있으면 바로 해제한다.
+  public void release(MediaPipeline pipeline) {
+    synchronized (idle) {
+      if (idle.size() < maxIdle) {
+        idle.offerFirst(new IdlePipeline(pipeline, clock.instant()));
+        return;
+      }
+    }
+    dispose(pipeline);
+  }
+
+  /**
+   * 예정된 스터디 시작 전에 미리 파이프라인을 만들어 둔다.
+   *
+   * @param expected 곧 열릴 방의 수
+   * @return 새로 만든 파이프라인 수
+   */
+  public int prewarm(int expected) {
+    int created = 0;
+    while (true) {
+      synchronized (idle) {
+        if (idle.size() >= Math.min(expected, maxIdle)) {
+          break;
+        }
+      }
+      final MediaPipeline pipeline;
+      try {
+        pipeline = kurento.createMediaPipeline();
+      } catch (RuntimeException e) {
+        log.warn("Could not pre-warm media pipeline", e);
+        break;
+      }
+      release(pipeline);
+      created++;
+    }
+    if (created > 0) {
+      log.info("Pre-warmed {} media pipelines", created);
+    }
+    return created;
+  }
+
+  //idleTtl 보다 오래 놀고 있는 파이프라인을 해제한다.
+  public int evictExpired() {
+    final Instant deadline = clock.instant().minus(idleTtl);
+    final List<MediaPipeline> expired = new ArrayList<>();
+    synchronized (idle) {
+      final Iterator<IdlePipeline> oldestFirst = idle.descendingIterator();
+      while (oldestFirst.hasNext()) {
+        final IdlePipeline candidate = oldestFirst.next();
+        if (!candidate.idleSince.isBefore(deadline)) {
+          break;
+        }
+        oldestFirst.remove();
+        expired.add(candidate.pipeline);
+      }
+    }
+    expired.forEach(this::dispose);
+    return expired.size();
+  }
+
+  /**
+   * 놀고 있는 파이프라인 중 자식(엔드포인트)이 남아있는 것을 해제한다. 방을 닫을 때 엔드포인트 해제가 실패하면 다음 방이 그 엔드포인트를 물려받지 않도록 하기
+   * 위함이다. KMS 에 동기 호출을 하므로 스케줄러에서만 부른다.
+   *
+   * @return 해제한 수
+   */
+  public int reclaimDirty() {
+    final List<IdlePipeline> snapshot;
+    synchronized (idle) {
+      snapshot = new ArrayList<>(idle);
+    }
+    int reclaimed = 0;
+    for (final IdlePipeline candidate : snapshot) {
+      final boolean dirty;
+      try {
+        dirty = !candidate.pipeline.getChildren().isEmpty();
+      } catch (RuntimeException e) {
+        log.debug("Could not inspect pooled pipeline", e);
+        continue;
+      }
+      if (!dirty) {
+        continue;
+      }
+      final boolean removed;
+      synchronized (idle) {
+        removed = idle.remove(candidate);
+      }
+      if (removed) {
+        dispose(candidate.pipeline);
+        reclaimed++;
+      }
+    }
+    return reclaimed;
+  }
+
+  //해제에 실패했던 파이프라인을 다시 해제한다.
+  public int retryLeaked() {
+    final List<MediaPipeline> retry = new ArrayList<>(leaked);
+    for (final MediaPipeline pipeline : retry) {
+      leaked.remove(pipeline);
+      dispose(pipeline);
+    }
+    return retry.size();
+  }
+
+  public int leakedCount() {
+    return leaked.size();
+  }
+
+  public int idleCount() {
+    synchronized (idle) {
+      return idle.size();
+    }
+  }
+
+  private void dispose(MediaPipeline pipeline) {
+    KurentoFutures.<Void>call(pipeline::release)
+        .orTimeout(RELEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .whenComplete((ignored, error) -> {
+          if (error != null) {
+            log.warn("Could not release pooled pipeline, will retry", error);
+            leaked.add(pipeline);
+          } else {
+            log.trace("Released pooled pipeline");
+          }
+        });
+  }
+
+  private static final class IdlePipeline {
+
+    private final MediaPipeline pipeline;
+    private final Instant idleSince;
+
+    private IdlePipeline(MediaPipeline pipeline, Instant idleSince) {
+      this.pipeline = pipeline;
+      this.idleSince = idleSince;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.justudy.backend.GroupCall.model;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+
+/**
+ * MediaServer : KMS(Kurento Media Server) 한 대
+ * <p>
+ * 서버마다 KurentoClient 와 MediaPipelinePool 을 따로 가진다. 방 배치에 쓰기 위해 지금 쓰고 있는 파이프라인 수와 엔드포인트 수를 센다.
+ **/
+public class MediaServer {
+
+  //방 하나는 곧 엔드포인트 여러 개를 만들기 때문에 파이프라인 하나를 엔드포인트 몇 개 정도의 부하로 본다.
+  static final int PIPELINE_WEIGHT = 4;
+
+  private final String uri;
+  private final KurentoClient kurento;
+  private final MediaPipelinePool pipelinePool;
+
+  private final AtomicInteger pipelines = new AtomicInteger();
+  private final AtomicInteger endpoints = new AtomicInteger();
+
+  //GroupCallMetrics 가 bindMetrics 를 부르기 전까지는 기록하지 않는다.
+  private volatile Timer processOfferTimer;
+  private volatile Timer endpointCreateTimer;
+
+  public MediaServer(String uri, KurentoClient kurento, MediaPipelinePool pipelinePool) {
+    this.uri = uri;
+    this.kurento = kurento;
+    this.pipelinePool = pipelinePool;
+  }
+
+  public String getUri() {
+    return uri;
+  }
+
+  public KurentoClient getKurento() {
+    return kurento;
+  }
+
+  public MediaPipelinePool getPipelinePool() {
+    return pipelinePool;
+  }
+
+  //방 배치가 정해지는 순간 파이프라인 하나를 예약한다. (KMS 응답 전에 다른 방이 같은 서버로 몰리지 않도록)
+  void reservePipeline() {
+    pipelines.incrementAndGet();
+  }
+
+  public MediaPipeline acquirePipeline() {
+    return pipelinePool.acquire();
+  }
+
+  //pipeline 이 null 이면 만들기 전에 실패한 경우라 예약만 취소한다.
+  public void releasePipeline(MediaPipeline pipeline) {
+    pipelines.decrementAndGet();
+    if (pipeline != null) {
+      pipelinePool.release(pipeline);
+    }
+  }
+
+  //UserSession 이 엔드포인트를 만들기 시작할 때 / 해제할 때 호출한다.
+  public void endpointCreated() {
+    endpoints.incrementAndGet();
+  }
+
+  public void endpointReleased() {
+    endpoints.decrementAndGet();
+  }
+
+  public void bindMetrics(MeterRegistry meterRegistry) {
+    this.processOfferTimer = Timer.builder("groupcall.kms.process.offer")
+        .description("Time for KMS to answer an SDP offer")
+        .tag("server", uri)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(10))
+        .register(meterRegistry);
+    this.endpointCreateTimer = Timer.builder("groupcall.kms.endpoint.create")
+        .description("Time to create a WebRtcEndpoint and subscribe to its ICE candidates")
+        .tag("server", uri)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(10))
+        .register(meterRegistry);
+  }
+
+  public void recordProcessOffer(long nanos) {
+    final Timer timer = processOfferTimer;
+    if (timer != null) {
+      timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public void recordEndpointCreate(long nanos) {
+    final Timer timer = endpointCreateTimer;
+    if (timer != null) {
+      timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public int getPipelineCount() {
+    return pipelines.get();
+  }
+
+  public int getEndpointCount() {
+    return endpoints.get();
+  }
+
+  public int load() {
+    return endpoints.get() + pipelines.get() * PIPELINE_WEIGHT;
+  }
+
+  @Override
+  public String toString() {
+    return uri;
+  }
+}
@@ -0,0 +1,135 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.kurento.client.MediaPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MediaServerPool : 여러 KMS 에 방을 나눠 배치하는 클래스
+ * <p>
+ * N:N 화상회의는 방마다 엔드포인트가 N² 개씩 생기므로 KMS 한 대로는 금방 한계가 온다. 새 방은 부하(파이프라인 + 엔드포인트 수)가 가장 적은 서버에
+ * 만들고, 방이 살아있는 동안은 같은 서버를 계속 쓴다.
+ **/
+public class MediaServerPool {
+
+  private static final Logger log = LoggerFactory.getLogger(MediaServerPool.class);
+
+  private final List<MediaServer> servers;
+  //방 이름 -> 그 이름으로 가장 최근에 연 방의 배치
+  private final ConcurrentMap<String, Placement> placements = new ConcurrentHashMap<>();
+
+  public MediaServerPool(List<MediaServer> servers) {
+    if (servers.isEmpty()) {
+      throw new IllegalArgumentException("At least one media server is required");
+    }
+    this.servers = Collections.unmodifiableList(new ArrayList<>(servers));
+  }
+
+  public List<MediaServer> getServers() {
+    return servers;
+  }
+
+  /**
+   * 방 하나를 배치하고 그 방 몫의 파이프라인을 예약한다. 같은 이름의 방이 아직 닫히는 중이면 같은 서버에 두지만 예약은 따로 한다.
+   *
+   * @return 이 방의 배치. 방이 닫힐 때 release 에 그대로 넘긴다.
+   */
+  public Placement place(String roomName) {
+    return placements.compute(roomName, (name, current) -> {
+      if (current != null) {
+        current.server.reservePipeline();
+        return new Placement(name, current.server);
+      }
+      final MediaServer server = reserveLeastLoaded();
+      log.info("Room {} placed on media server {} (load {})", name, server, server.load());
+      return new Placement(name, server);
+    });
+  }
+
+  public MediaServer findPlacement(String roomName) {
+    final Placement placement = placements.get(roomName);
+    return placement == null ? null : placement.server;
+  }
+
+  //방이 닫힐 때 그 방의 예약만 돌려준다. 같은 이름의 새 방이 배치를 이어받았으면 배치 정보는 남긴다. 방을 만들다 실패했으면 pipeline 은 null
+  public void release(Placement placement, MediaPipeline pipeline) {
+    placements.remove(placement.roomName, placement);
+    placement.server.releasePipeline(pipeline);
+  }
+
+  //서로 다른 방이 동시에 배치될 때 같은 서버를 고르지 않도록 고르기와 예약을 한번에 한다.
+  private synchronized MediaServer reserveLeastLoaded() {
+    MediaServer best = servers.get(0);
+    for (final MediaServer server : servers) {
+      if (server.load() < best.load()) {
+        best = server;
+      }
+    }
+    best.reservePipeline();
+    return best;
+  }
+
+  //곧 열릴 방 수를 서버 수로 나눠서 서버마다 미리 만들어 둔다.
+  public int prewarm(int expected) {
+    final int perServer = (expected + servers.size() - 1) / servers.size();
+    int created = 0;
+    for (final MediaServer server : servers) {
+      created += server.getPipelinePool().prewarm(perServer);
+    }
+    return created;
+  }
+
+  //방 하나가 서버에 예약한 몫 (같은 값인지는 인스턴스로 본다)
+  public static final class Placement {
+
+    private final String roomName;
+    private final MediaServer server;
+
+    private Placement(String roomName, MediaServer server) {
+      this.roomName = roomName;
+      this.server = server;
+    }
+
+    public MediaServer getServer() {
+      return server;
+    }
+  }
+
+  //빈이 내려갈 때 KMS 연결을 끊는다.
+  public void close() {
+    for (final MediaServer server : servers) {
+      server.getKurento().destroy();
+    }
+  }
+
+  //해제에 실패한 파이프라인을 다시 해제하고, 엔드포인트가 남아있는 빈 파이프라인을 버린다.
+  public int reclaim() {
+    int reclaimed = 0;
+    for (final MediaServer server : servers) {
+      reclaimed += server.getPipelinePool().retryLeaked();
+      reclaimed += server.getPipelinePool().reclaimDirty();
+    }
+    return reclaimed;
+  }
+
+  public int leakedPipelineCount() {
+    int leaked = 0;
+    for (final MediaServer server : servers) {
+      leaked += server.getPipelinePool().leakedCount();
+    }
+    return leaked;
+  }
+
+  public int evictExpired() {
+    int evicted = 0;
+    for (final MediaServer server : servers) {
+      evicted += server.getPipelinePool().evictExpired();
+    }
+    return evicted;
+  }
+}
@@ -0,0 +1,136 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OutboundMessageQueue : 세션별 송신 큐
+ * <p>
+ * 메시지를 보내는 쪽은 큐에 넣기만 하고, 실제 전송은 getAsyncRemote 로 한 건씩 비동기 처리한다. 느린 브라우저 하나 때문에 방 전체 브로드캐스트가
+ * 막히지 않도록 하기 위함이다. 큐가 가득 차거나 전송이 실패/타임아웃 되면 해당 세션을 느린 소비자로 보고 연결을 끊는다. 연결 끊기(close)도
+ * 네트워크를 기다릴 수 있어서 보내던 스레드가 아니라 closer 에서 한다.
+ **/
+public class OutboundMessageQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboundMessageQueue.class);
+
+  //세션 하나가 쌓아둘 수 있는 최대 메시지 수 (ICE 후보가 몰려도 넉넉한 크기)
+  static final int MAX_PENDING_MESSAGES = 512;
+  //한 건의 비동기 전송이 끝나기를 기다리는 최대 시간(ms)
+  static final long SEND_TIMEOUT_MILLIS = 10_000L;
+
+  //모든 세션이 같이 쓰는 연결 끊기 스레드
+  private static final Executor CLOSER = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "outbound-closer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Session session;
+  private final String owner;
+  private final Executor closer;
+  private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AtomicBoolean sending = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  public OutboundMessageQueue(String owner, Session session) {
+    this(owner, session, CLOSER);
+  }
+
+  OutboundMessageQueue(String owner, Session session, Executor closer) {
+    this.owner = owner;
+    this.session = session;
+    this.closer = closer;
+    session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * 메시지를 송신 큐에 넣는다. 네트워크 전송을 기다리지 않는다.
+   *
+   * @throws IOException 이미 닫혔거나 큐가 가득 차서 받을 수 없는 경우
+   */
+  public void enqueue(String text) throws IOException {
+    if (closed.get()) {
+      throw new IOException("USER " + owner + ": outbound queue is closed");
+    }
+    if (pending.incrementAndGet() > MAX_PENDING_MESSAGES) {
+      pending.decrementAndGet();
+      evict("outbound queue overflow");
+      throw new IOException("USER " + owner + ": outbound queue is full");
+    }
+    queue.offer(text);
+    drain();
+  }
+
+  //한번에 하나의 비동기 전송만 진행되도록 sending 플래그를 잡은 스레드만 다음 메시지를 보낸다.
+  private void drain() {
+    while (!closed.get() && !queue.isEmpty() && sending.compareAndSet(false, true)) {
+      final String next = queue.poll();
+      if (next == null) {
+        sending.set(false);
+        continue;
+      }
+      try {
+        session.getAsyncRemote().sendText(next, this::onSendResult);
+        return;
+      } catch (RuntimeException e) {
+        sending.set(false);
+        pending.decrementAndGet();
+        evict("send failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void onSendResult(SendResult result) {
+    pending.decrementAndGet();
+    sending.set(false);
+    if (!result.isOK()) {
+      log.debug("USER {}: async send failed", owner, result.getException());
+      evict("send failed");
+      return;
+    }
+    drain();
+  }
+
+  public int size() {
+    return pending.get();
+  }
+
+  //느린 소비자 처리 : 큐를 비우고 연결을 끊으면 OnClose 에서 방 퇴장 처리가 진행된다.
+  private void evict(String reason) {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    log.warn("USER {}: evicting slow consumer ({}, {} pending)", owner, reason, pending.get());
+    queue.clear();
+    closer.execute(this::closeSession);
+  }
+
+  private void closeSession() {
+    try {
+      if (session.isOpen()) {
+        session.close(new CloseReason(CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+      }
+    } catch (IOException | RuntimeException e) {
+      log.debug("USER {}: could not close session", owner, e);
+    }
+  }
+
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      queue.clear();
+    }
+  }
+}
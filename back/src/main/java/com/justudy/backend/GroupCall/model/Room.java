@@ -23,7 +23,6 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import org.kurento.client.Continuation;
 import org.kurento.client.MediaPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +36,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
 *
@@ -51,8 +51,17 @@ public class Room implements Closeable {
 
   private final ConcurrentMap<String, UserSession> participants = new ConcurrentHashMap<>();
   private final MediaPipeline pipeline;
+  //이 방이 배치된 KMS
+  private final MediaServer server;
+  //선택 전달 모드일 때만 있다. null 이면 모두가 모두의 영상을 받는 N:N 모드
+  private final SelectiveForwarding forwarding;
   private final String name;
   private LocalDateTime startTime;
+  //입장과 "비었으면 닫기" 가 엇갈리지 않도록 잡는 락. 한번 닫힌 방에는 더 들어올 수 없다.
+  private final Object lifecycle = new Object();
+  private boolean closed;
+  //removeRoom 이 한번만 정리(기록, 파이프라인 반납)하도록
+  private final AtomicBoolean removed = new AtomicBoolean();
 
   public String getName() {
     return name;
@@ -60,10 +69,19 @@ public class Room implements Closeable {
 
 
   //무조건 두 정보를 받아야하기 때문에 생성자를 다음과 같이 설정했다.
-  public Room(String roomName, MediaPipeline pipeline) {
+  public Room(String roomName, MediaServer server, MediaPipeline pipeline) {
+    this(roomName, server, pipeline, 0);
+  }
+
+  //maxForwardedSenders 가 0 보다 크면 참가자마다 그 수만큼의 영상만 받는 선택 전달 모드로 만든다.
+  public Room(String roomName, MediaServer server, MediaPipeline pipeline,
+      int maxForwardedSenders) {
     this.name = roomName;
+    this.server = server;
     this.pipeline = pipeline;
-    log.info("ROOM {} has been created", roomName);
+    this.forwarding =
+        maxForwardedSenders > 0 ? new SelectiveForwarding(maxForwardedSenders) : null;
+    log.info("ROOM {} has been created on {}", roomName, server);
     startTime = LocalDateTime.now();
   }
 
@@ -71,26 +89,135 @@ public class Room implements Closeable {
     return startTime;
   }
 
+  public MediaPipeline getPipeline() {
+    return pipeline;
+  }
+
+  public MediaServer getServer() {
+    return server;
+  }
+
+  public boolean isSelectiveForwarding() {
+    return forwarding != null;
+  }
+
   //컨테이너에서 해당 객체가 삭제되기전에 동작한다. 해당 기능으로 인해 close함수를 자동으로 들어가서 auto close까지 가능해진다.
   @PreDestroy
   private void shutdown() {
     this.close();
   }
 
+  /**
+   * @return 이미 닫힌 방이면 null (RoomManager 가 새 방을 만들어 다시 넣는다)
+   */
   public UserSession join(String userName, Session session) throws IOException {
-    log.info("ROOM {}: adding participant {}", this.name, userName);
-    UserSession participant = new UserSession(userName, this.name, session, this.pipeline);
+    synchronized (lifecycle) {
+      if (closed) {
+        log.debug("ROOM {}: already closed, {} will retry", this.name, userName);
+        return null;
+      }
+      log.info("ROOM {}: adding participant {}", this.name, userName);
+      UserSession participant = new UserSession(userName, this.name, session, this.pipeline,
+          this.server);
+
+      joinRoom(participant);
+      participants.put(participant.getName(), participant);
+      sendParticipantNames(participant);
+      if (forwarding != null) {
+        forwarding.join(participant.getName());
+        applyForwarding();
+      }
+      return participant;
+    }
+  }
+
+  //마지막 참가자가 나갔으면 방을 닫힘 상태로 바꾸고 true. 이 메서드가 true 를 준 쪽만 방을 지운다.
+  public boolean retireIfEmpty() {
+    synchronized (lifecycle) {
+      if (closed || !participants.isEmpty()) {
+        return false;
+      }
+      closed = true;
+      return true;
+    }
+  }
 
-    joinRoom(participant);
-    participants.put(participant.getName(), participant);
-    sendParticipantNames(participant);
-    return participant;
+  //처음 호출한 쪽만 true
+  public boolean markRemoved() {
+    return removed.compareAndSet(false, true);
+  }
+
+  public boolean isClosed() {
+    synchronized (lifecycle) {
+      return closed;
+    }
   }
 
   public void leave(UserSession user) throws IOException {
     log.debug("PARTICIPANT {}: Leaving room {}", user.getName(), this.name);
     this.removeParticipant(user.getName());
     user.close();
+    if (forwarding != null) {
+      forwarding.leave(user.getName());
+      applyForwarding();
+    }
+  }
+
+  //N:N 모드에서는 항상 true. 선택 전달 모드에서는 전달 목록에 있는 송신자만 받을 수 있다.
+  public boolean isForwarded(UserSession viewer, String senderName) {
+    return forwarding == null || forwarding.isForwarded(viewer.getName(), senderName);
+  }
+
+  //말하기 시작 / 음소거 해제 / 고정은 선택 전달 모드에서만 의미가 있다.
+  public void onSpeaking(UserSession user) {
+    if (forwarding != null && forwarding.speaking(user.getName())) {
+      applyForwarding();
+    }
+  }
+
+  public void onUnmuted(UserSession user) {
+    if (forwarding != null) {
+      forwarding.unmuted(user.getName());
+      applyForwarding();
+    }
+  }
+
+  public void pin(UserSession viewer, String senderName) {
+    if (forwarding != null) {
+      forwarding.pin(viewer.getName(), senderName);
+      applyForwarding();
+    }
+  }
+
+  //바뀐 목록만 보낸다. 목록에서 빠진 송신자의 수신 엔드포인트는 바로 해제하고, 새로 들어온 송신자는 클라이언트가 receiveVideoFrom 을 보낼 때 만든다.
+  private void applyForwarding() {
+    //계산과 전송을 한번에 해서 forwardingSet 이 순서대로 나가게 한다. (전송은 송신 큐에 넣기만 하므로 오래 잡지 않는다)
+    synchronized (forwarding) {
+      sendForwardingUpdates(forwarding.recompute());
+    }
+  }
+
+  private void sendForwardingUpdates(List<SelectiveForwarding.Update> updates) {
+    for (final SelectiveForwarding.Update update : updates) {
+      final UserSession viewer = participants.get(update.getViewer());
+      if (viewer == null) {
+        continue;
+      }
+      for (final String dropped : update.getDropped()) {
+        viewer.cancelVideoFrom(dropped);
+      }
+
+      final JsonArray senders = new JsonArray();
+      update.getSenders().forEach(senders::add);
+      final JsonObject forwardingSet = new JsonObject();
+      forwardingSet.addProperty("id", "forwardingSet");
+      forwardingSet.add("names", senders);
+      try {
+        viewer.sendMessage(forwardingSet);
+      } catch (IOException e) {
+        log.debug("ROOM {}: could not send forwarding set to {}", this.name, viewer.getName(), e);
+      }
+    }
   }
 
   private Collection<String> joinRoom(UserSession newParticipant) throws IOException {
@@ -98,13 +225,14 @@ public class Room implements Closeable {
     newParticipantMsg.addProperty("id", "newParticipantArrived");
     newParticipantMsg.addProperty("name", newParticipant.getName());
 
+    final String newParticipantText = newParticipantMsg.toString();
     final List<String> participantsList = new ArrayList<>(participants.values().size());
     log.debug("ROOM {}: notifying other participants of new participant {}", name,
         newParticipant.getName());
 
     for (final UserSession participant : participants.values()) {
       try {
-        participant.sendMessage(newParticipantMsg);
+        participant.sendText(newParticipantText);
       } catch (final IOException e) {
         log.debug("ROOM {}: participant {} could not be notified", name, participant.getName(), e);
       }
@@ -123,10 +251,11 @@ public class Room implements Closeable {
     final JsonObject participantLeftJson = new JsonObject();
     participantLeftJson.addProperty("id", "participantLeft");
     participantLeftJson.addProperty("name", name);
+    final String participantLeftText = participantLeftJson.toString();
     for (final UserSession participant : participants.values()) {
       try {
         participant.cancelVideoFrom(name);
-        participant.sendMessage(participantLeftJson);
+        participant.sendText(participantLeftText);
       } catch (final IOException e) {
         unnotifiedParticipants.add(participant.getName());
       }
@@ -152,22 +281,54 @@ public class Room implements Closeable {
     final JsonObject existingParticipantsMsg = new JsonObject();
     existingParticipantsMsg.addProperty("id", "existingParticipants");
     existingParticipantsMsg.add("data", participantsArray);
+    //선택 전달 모드면 클라이언트는 바로 뒤에 오는 forwardingSet 의 사람만 받는다.
+    existingParticipantsMsg.addProperty("selective", forwarding != null);
     log.debug("PARTICIPANT {}: sending a list of {} participants", user.getName(),
         participantsArray.size());
     user.sendMessage(existingParticipantsMsg);
   }
 
 
+  /**
+   * 방 전체에 같은 메시지를 보낸다. 메시지는 한번만 직렬화하고, 모든 참가자의 송신 큐에 같은 문자열을 넣는다.
+   *
+   * @return 메시지를 받지 못한 참가자 이름 목록
+   */
+  public List<String> broadcast(JsonObject message) {
+    final String text = message.toString();
+    final List<String> unnotifiedParticipants = new ArrayList<>();
+    for (final UserSession participant : participants.values()) {
+      try {
+        participant.sendText(text);
+      } catch (final IOException e) {
+        unnotifiedParticipants.add(participant.getName());
+      }
+    }
+
+    if (!unnotifiedParticipants.isEmpty()) {
+      log.debug("ROOM {}: The users {} could not be notified of {}", this.name,
+          unnotifiedParticipants, message.get("id"));
+    }
+    return unnotifiedParticipants;
+  }
+
   public Collection<UserSession> getParticipants() {
     return participants.values();
   }
 
+  //이름으로 참가자를 바로 찾는다. 없는 이름(null 포함)이면 null
   public UserSession getParticipant(String name) {
+    if (name == null) {
+      return null;
+    }
     return participants.get(name);
   }
 
   @Override
   public void close() {
+    synchronized (lifecycle) {
+      closed = true;
+    }
     for (final UserSession user : participants.values()) {
       try {
         user.close();
@@ -179,19 +340,7 @@ public class Room implements Closeable {
 
     participants.clear();
 
-    pipeline.release(new Continuation<Void>() {
-
-      @Override
-      public void onSuccess(Void result) throws Exception {
-        log.trace("ROOM {}: Released Pipeline", Room.this.name);
-      }
-
-      @Override
-      public void onError(Throwable cause) throws Exception {
-        log.warn("PARTICIPANT {}: Could not release Pipeline", Room.this.name);
-      }
-    });
-
+    //파이프라인은 해제하지 않는다. RoomManager 가 MediaServerPool 을 통해 돌려준다.
     log.debug("Room {} closed", this.name);
   }
 
@@ -17,23 +17,23 @@
 
 package com.justudy.backend.GroupCall.model;
 
-import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
-import com.justudy.backend.GroupCall.service.StudyRoomService;
-import com.justudy.backend.study.dto.response.StudyDetailResponse;
-import com.justudy.backend.study.dto.response.StudyResponse;
-import com.justudy.backend.study.service.StudyService;
-import com.justudy.backend.timer.dto.request.ActivityRequest;
-import com.justudy.backend.timer.service.RoomActivityService;
-import java.sql.Date;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import com.justudy.backend.GroupCall.cluster.RoomDirectory;
+import com.justudy.backend.GroupCall.exception.RoomUnavailable;
+import com.justudy.backend.timer.service.StudySessionTimer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import org.kurento.client.KurentoClient;
+import javax.websocket.Session;
+import org.kurento.client.MediaPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
  * RoomManager :  방관리 클래스
@@ -44,57 +44,176 @@ public class RoomManager {
 
   private final Logger log = LoggerFactory.getLogger(RoomManager.class);
 
-  //kurento 라이브러리를 쓰기 위함
+  //방은 가장 한가한 KMS 에 배치하고, 파이프라인은 그 서버의 풀에서 빌려오고 방이 닫히면 돌려준다.
   @Autowired
-  private KurentoClient kurento;
+  private MediaServerPool mediaServers;
 
+  //0 이면 N:N, 0 보다 크면 참가자마다 이 수만큼의 영상만 받는 선택 전달 모드로 방을 만든다.
+  @Value("${groupcall.forwarding.max-senders:0}")
+  private int maxForwardedSenders;
+
+  //방은 한 인스턴스에만 있다. 다른 인스턴스가 가진 방은 여기서 만들지 않는다.
   @Autowired
-  private RoomActivityService roomActivityService;
-  @Autowired
-  private StudyRoomService studyRoomService;
+  private RoomDirectory roomDirectory;
+
+  //입장/퇴장으로 방과 참가자의 공부 시간을 잰다.
   @Autowired
-  private StudyService studyService;
+  private StudySessionTimer studySessionTimer;
 
 
   //HashMap  +  Multi-Thread 기능이 가능한 ConcurrentHashMap를 사용함.
   private final ConcurrentMap<String, Room> rooms = new ConcurrentHashMap<>();
+  //지금 만들어지고 있는 방. 같은 방에 동시에 입장해도 MediaPipeline 은 한번만 만든다.
+  private final ConcurrentMap<String, CompletableFuture<Room>> creatingRooms = new ConcurrentHashMap<>();
+  //방마다 자기 배치. 닫히는 방과 같은 이름의 새 방이 잠깐 같이 있을 수 있어서 이름이 아니라 방 객체로 찾는다.
+  private final ConcurrentMap<Room, MediaServerPool.Placement> placements = new ConcurrentHashMap<>();
 
   //방이 없으면 방을 새로 만들고, 해당 방의 객체를 보내준다. Room 이름 정보와 MediaPipeline를 보내준다.(같은 미디어 파이프 라인끼리 N:N화상회의를 하기위함
+  //입장(joinRoom)에서만 사용한다. 다른 명령은 findRoom 을 사용해야 파이프라인이 새로 생기지 않는다.
   public Room getRoom(String roomName) {
     log.debug("Searching for room {}", roomName);
     Room room = rooms.get(roomName);
+    if (room != null) {
+      log.debug("Room {} found!", roomName);
+      return room;
+    }
 
-    if (room == null) {
-      log.debug("Room {} not existent. Will create now!", roomName);
+    final CompletableFuture<Room> creation = new CompletableFuture<>();
+    final CompletableFuture<Room> inFlight = creatingRooms.putIfAbsent(roomName, creation);
+    if (inFlight != null) {
+      //다른 스레드가 만들고 있으면 그 결과를 같이 쓴다. (KMS 호출을 맵 락 밖에서 하기 위해 computeIfAbsent 를 쓰지 않음)
+      try {
+        return inFlight.join();
+      } catch (CompletionException e) {
+        //만들던 쪽과 같은 예외(RoomUnavailable 등)를 받게 한다.
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    try {
+      room = rooms.get(roomName);
+      if (room == null) {
+        log.debug("Room {} not existent. Will create now!", roomName);
+        room = createRoom(roomName);
+        rooms.put(roomName, room);
+      }
+      creation.complete(room);
+      return room;
+    } catch (RuntimeException e) {
+      creation.completeExceptionally(e);
+      throw e;
+    } finally {
+      creatingRooms.remove(roomName, creation);
+    }
+  }
 
-      room = new Room(roomName, kurento.createMediaPipeline());
-      rooms.put(roomName, room);
+  private Room createRoom(String roomName) {
+    if (!roomDirectory.claim(roomName)) {
+      throw new RoomUnavailable(roomName);
+    }
+    try {
+      return openRoom(roomName);
+    } catch (RuntimeException e) {
+      roomDirectory.release(roomName);
+      throw e;
+    }
+  }
 
+  private Room openRoom(String roomName) {
+    final MediaServerPool.Placement placement = mediaServers.place(roomName);
+    final MediaPipeline pipeline;
+    try {
+      pipeline = placement.getServer().acquirePipeline();
+    } catch (RuntimeException e) {
+      //파이프라인을 못 만들었으면 배치 예약을 취소해야 다음 입장에서 다시 고른다.
+      mediaServers.release(placement, null);
+      throw e;
     }
-    log.debug("Room {} found!", roomName);
+    final Room room = new Room(roomName, placement.getServer(), pipeline, maxForwardedSenders);
+    placements.put(room, placement);
+    studySessionTimer.roomOpened(roomName);
     return room;
   }
 
-  // 방을 떠나면 해당 미디어 파이프라인과 방정보를 삭제해주기 위한 부분(closable 인터페이스를 받았기 때문에 auto close가 가능하다.)
-  public void removeRoom(Room room) {
+  /**
+   * 방에 들어간다. 마지막 사람이 나가서 막 닫히고 있는 방을 잡았으면 새 방을 만들어 다시 들어간다.
+   */
+  public UserSession join(String roomName, String userName, Session session) throws IOException {
+    while (true) {
+      final Room room = getRoom(roomName);
+      final UserSession user = room.join(userName, session);
+      if (user != null) {
+        studySessionTimer.memberJoined(userName, roomName);
+        return user;
+      }
+      //닫힌 방이 아직 맵에 남아있으면 치워야 getRoom 이 새 방을 만든다.
+      rooms.remove(roomName, room);
+    }
+  }
+
+  /**
+   * 방에서 나간다. 모든 퇴장 경로(leaveRoom, 연결 종료, 스위퍼)가 여기를 지나고, 마지막 사람이 나가면 방을 지운다.
+   */
+  public void leave(Room room, UserSession user) throws IOException {
+    if (room.getParticipant(user.getName()) != user) {
+      //이미 나갔거나, 같은 이름으로 다시 들어온 다른 세션이다.
+      return;
+    }
     try {
-      Long sequence = Long.parseLong(room.getName());//study seq....
-      StudyDetailResponse studyResponse = studyService.readStudy(sequence);
-      String category = studyResponse.getTopCategory();
-      ///
-      StudyRoomResponse studyRoom = studyRoomService.getUUIDStudy(sequence);
-      //
-      LocalDateTime startDateTime = room.getStartTime();
-      LocalDateTime endDateTime = LocalDateTime.now();
-      Long diffTime = ChronoUnit.SECONDS.between(startDateTime, endDateTime);
-      roomActivityService.saveRoomAcitivity(new ActivityRequest(diffTime, category),
-          studyRoom.getSequence(),
-          Date.valueOf(LocalDate.now()));
-    } catch (Exception error) {
-      log.info("fail.. {} ", error);
+      studySessionTimer.memberLeft(user.getName(), room.getName());
+      room.leave(user);
+    } finally {
+      if (room.retireIfEmpty()) {
+        removeRoom(room);
+      }
+    }
+  }
+
+  //스위퍼가 비어있는데 남아있는 방을 찾을 때 쓴다.
+  public Collection<Room> getRooms() {
+    return Collections.unmodifiableCollection(rooms.values());
+  }
+
+  //스위퍼가 주기적으로 이 인스턴스가 가진 방의 소유 기간을 늘린다.
+  public void renewRooms() {
+    roomDirectory.renew(new ArrayList<>(rooms.keySet()));
+  }
+
+  //이미 있는 방만 찾는다. 없으면 null
+  public Room findRoom(String roomName) {
+    if (roomName == null) {
+      return null;
     }
-    this.rooms.remove(room.getName());
+    return rooms.get(roomName);
+  }
+
+  //같은 이름의 방이 살아있거나 만들어지는 중이면 소유를 놓지 않는다. (놓으면 다른 인스턴스가 같은 방을 하나 더 만든다)
+  //getRoom 은 creatingRooms 에 넣은 뒤에 claim 하고, rooms 에 넣은 뒤에 creatingRooms 에서 빼므로 같은 키의 compute 안에서 보면 엇갈리지 않는다.
+  private void releaseClaimIfUnused(String roomName) {
+    creatingRooms.compute(roomName, (name, inFlight) -> {
+      if (inFlight == null && !rooms.containsKey(name)) {
+        roomDirectory.release(name);
+      }
+      return inFlight;
+    });
+  }
+
+  // 방을 떠나면 해당 미디어 파이프라인과 방정보를 삭제해주기 위한 부분(closable 인터페이스를 받았기 때문에 auto close가 가능하다.)
+  public void removeRoom(Room room) {
+    //맵에서 먼저 빼서 새 입장이 닫히는 방을 잡지 않게 한다. (join 이 먼저 뺐을 수도 있다)
+    this.rooms.remove(room.getName(), room);
     room.close();
+    if (!room.markRemoved()) {
+      log.debug("Room {} was already removed", room.getName());
+      return;
+    }
+    studySessionTimer.roomClosed(room.getName());
+    //두번 반납되면 서로 다른 방이 같은 파이프라인을 쓰게 되므로 처음 지운 쪽만 돌려준다.
+    final MediaServerPool.Placement placement = placements.remove(room);
+    if (placement != null) {
+      mediaServers.release(placement, room.getPipeline());
+    }
+    releaseClaimIfUnused(room.getName());
     log.info("Room {} removed and closed", room.getName());
   }
 
@@ -0,0 +1,166 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SelectiveForwarding : 선택 전달(selective forwarding) 모드에서 누가 누구의 영상을 받을지 정하는 클래스
+ * <p>
+ * N:N 으로 모두 연결하면 방 하나에 엔드포인트가 N² 개 생긴다. 이 모드에서는 참가자마다 가장 중요한 maxSenders 명의 영상만 받는다. 순서는 1. 내가
+ * 고정(pin)한 사람 2. 지금 말하고 있는 사람 3. 최근에 말했거나 음소거를 푼 사람 4. 먼저 들어온 사람. 나머지 송신자의 수신 엔드포인트는 목록에 들어올 때
+ * 만들고, 빠질 때 해제한다.
+ **/
+public class SelectiveForwarding {
+
+  private final int maxSenders;
+
+  //들어온 순서
+  private final Map<String, Long> joinOrder = new HashMap<>();
+  private long joinSequence;
+  //마지막으로 말하거나 음소거를 푼 순서 (벽시계 대신 논리 시계를 써서 순서만 비교한다)
+  private final Map<String, Long> lastActive = new HashMap<>();
+  private long activitySequence;
+  private String activeSpeaker;
+  //받는 사람 -> 고정한 송신자
+  private final Map<String, String> pinned = new HashMap<>();
+  //받는 사람 -> 지금 전달 중인 송신자
+  private final Map<String, Set<String>> forwarded = new HashMap<>();
+
+  public SelectiveForwarding(int maxSenders) {
+    if (maxSenders <= 0) {
+      throw new IllegalArgumentException("maxSenders must be positive");
+    }
+    this.maxSenders = maxSenders;
+  }
+
+  public int getMaxSenders() {
+    return maxSenders;
+  }
+
+  public synchronized void join(String name) {
+    joinOrder.put(name, joinSequence++);
+    forwarded.put(name, Collections.emptySet());
+  }
+
+  public synchronized void leave(String name) {
+    joinOrder.remove(name);
+    lastActive.remove(name);
+    forwarded.remove(name);
+    pinned.remove(name);
+    pinned.values().removeIf(name::equals);
+    if (name.equals(activeSpeaker)) {
+      activeSpeaker = null;
+    }
+  }
+
+  /**
+   * @return 말하는 사람이 바뀌어서 다시 계산해야 하면 true
+   */
+  public synchronized boolean speaking(String name) {
+    if (!joinOrder.containsKey(name)) {
+      return false;
+    }
+    lastActive.put(name, activitySequence++);
+    if (name.equals(activeSpeaker)) {
+      return false;
+    }
+    activeSpeaker = name;
+    return true;
+  }
+
+  public synchronized void unmuted(String name) {
+    if (joinOrder.containsKey(name)) {
+      lastActive.put(name, activitySequence++);
+    }
+  }
+
+  //sender 가 null 이면 고정을 푼다.
+  public synchronized void pin(String viewer, String sender) {
+    if (sender == null || !joinOrder.containsKey(sender)) {
+      pinned.remove(viewer);
+      return;
+    }
+    pinned.put(viewer, sender);
+  }
+
+  //자기 자신(loopback)은 항상 허용
+  public synchronized boolean isForwarded(String viewer, String sender) {
+    if (viewer.equals(sender)) {
+      return true;
+    }
+    return forwarded.getOrDefault(viewer, Collections.emptySet()).contains(sender);
+  }
+
+  /**
+   * 모든 참가자의 전달 목록을 다시 계산한다.
+   *
+   * @return 목록이 바뀐 참가자만 담은 결과
+   */
+  public synchronized List<Update> recompute() {
+    final List<Update> updates = new ArrayList<>();
+    for (final Map.Entry<String, Set<String>> entry : forwarded.entrySet()) {
+      final String viewer = entry.getKey();
+      final Set<String> next = select(viewer);
+      final Set<String> previous = entry.getValue();
+      if (next.equals(previous)) {
+        continue;
+      }
+      final Set<String> dropped = new LinkedHashSet<>(previous);
+      dropped.removeAll(next);
+      entry.setValue(next);
+      updates.add(new Update(viewer, next, dropped));
+    }
+    return updates;
+  }
+
+  private Set<String> select(String viewer) {
+    final String pin = pinned.get(viewer);
+    final List<String> candidates = new ArrayList<>(joinOrder.keySet());
+    candidates.remove(viewer);
+    candidates.sort(Comparator.<String>comparingInt(name -> name.equals(pin) ? 0 : 1)
+        .thenComparingInt(name -> name.equals(activeSpeaker) ? 0 : 1)
+        .thenComparing(name -> lastActive.getOrDefault(name, -1L), Comparator.reverseOrder())
+        .thenComparing(joinOrder::get));
+
+    final Set<String> selected = new LinkedHashSet<>();
+    for (int i = 0; i < candidates.size() && i < maxSenders; i++) {
+      selected.add(candidates.get(i));
+    }
+    return Collections.unmodifiableSet(selected);
+  }
+
+  /**
+   * Update : 한 참가자의 바뀐 전달 목록
+   */
+  public static final class Update {
+
+    private final String viewer;
+    private final Set<String> senders;
+    private final Set<String> dropped;
+
+    private Update(String viewer, Set<String> senders, Set<String> dropped) {
+      this.viewer = viewer;
+      this.senders = senders;
+      this.dropped = dropped;
+    }
+
+    public String getViewer() {
+      return viewer;
+    }
+
+    public Set<String> getSenders() {
+      return senders;
+    }
+
+    //목록에서 빠져서 수신 엔드포인트를 해제해야 하는 송신자
+    public Set<String> getDropped() {
+      return dropped;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.justudy.backend.GroupCall.model;
+
+import java.util.function.LongSupplier;
+
+/**
+ * TokenBucket : 초당 ratePerSecond 개씩 채워지고 최대 burst 개까지 모이는 토큰 통
+ **/
+public class TokenBucket {
+
+  private final double burst;
+  private final double tokensPerNano;
+  private final LongSupplier nanoClock;
+
+  private double tokens;
+  private long lastRefill;
+
+  public TokenBucket(double ratePerSecond, int burst) {
+    this(ratePerSecond, burst, System::nanoTime);
+  }
+
+  TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+    this.burst = burst;
+    this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+    this.nanoClock = nanoClock;
+    this.tokens = burst;
+    this.lastRefill = nanoClock.getAsLong();
+  }
+
+  public synchronized boolean tryAcquire() {
+    final long now = nanoClock.getAsLong();
+    tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+}
@@ -47,13 +47,20 @@ public class UserRegistry  {
     return usersBySessionId.get(session.getId());
   }
 
+  public int size() {
+    return usersBySessionId.size();
+  }
+
   public boolean exists(String name) {
     return usersByName.keySet().contains(name);
   }
 
   public UserSession removeBySession(Session session) {
     final UserSession user = getBySession(session);
-    usersByName.remove(user.getName());
+    if (user == null) {
+      return null;
+    }
+    usersByName.remove(user.getName(), user);
     usersBySessionId.remove(session.getId());
     return user;
   }
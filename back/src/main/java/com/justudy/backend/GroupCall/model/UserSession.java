@@ -20,13 +20,17 @@ package com.justudy.backend.GroupCall.model;
 import com.google.gson.JsonObject;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import javax.websocket.Session;
 import org.kurento.client.Continuation;
-import org.kurento.client.EventListener;
 import org.kurento.client.IceCandidate;
 import org.kurento.client.IceCandidateFoundEvent;
+import org.kurento.client.ListenerSubscription;
 import org.kurento.client.MediaPipeline;
 import org.kurento.client.WebRtcEndpoint;
 import org.kurento.jsonrpc.JsonUtils;
@@ -40,15 +44,37 @@ import org.slf4j.LoggerFactory;
 public class UserSession implements Closeable {
 
   private static final Logger log = LoggerFactory.getLogger(UserSession.class);
+  //KMS 가 응답하지 않아도 해제 처리는 이 시간 안에 끝낸다. (남은 엔드포인트는 스위퍼가 파이프라인째 정리)
+  static final long RELEASE_TIMEOUT_SECONDS = 10;
+  //받는 엔드포인트가 만들어지기 전에 온 ICE 후보를 송신자 MAX_EARLY_SENDERS 명, 한 명당 MAX_EARLY_CANDIDATES 개까지 들고 있는다.
+  static final int MAX_EARLY_SENDERS = 32;
+  static final int MAX_EARLY_CANDIDATES = 64;
+
+  //KMS 에 엔드포인트를 만든다. 테스트에서는 KMS 없이 바꿔 끼운다.
+  interface EndpointBuilder {
+
+    void buildAsync(MediaPipeline pipeline, Continuation<WebRtcEndpoint> continuation);
+  }
+
+  private static final EndpointBuilder WEB_RTC_ENDPOINT = (pipeline, continuation) ->
+      new WebRtcEndpoint.Builder(pipeline).useDataChannels().buildAsync(continuation);
 
   private String name;
   private final Session session;
+  //웹소켓 쓰기는 세션별 송신 큐를 통해서만 한다.
+  private final OutboundMessageQueue outbound;
 
   private final MediaPipeline pipeline;
+  //엔드포인트 수는 방 배치(MediaServerPool)의 부하 지표로 쓰인다.
+  private final MediaServer server;
+  private final EndpointBuilder endpointBuilder;
 
   private final String roomName;
-  private WebRtcEndpoint outgoingMedia;//final 제거
-  private ConcurrentMap<String, WebRtcEndpoint> incomingMedia = new ConcurrentHashMap<>();
+  //엔드포인트는 KMS 에서 비동기로 만들어지므로 future 로 들고 있는다.
+  private final CompletableFuture<WebRtcEndpoint> outgoingMedia;
+  private final ConcurrentMap<String, CompletableFuture<WebRtcEndpoint>> incomingMedia = new ConcurrentHashMap<>();
+  //송신자 이름 -> 받는 엔드포인트가 생기기 전에 온 ICE 후보
+  private final ConcurrentMap<String, List<IceCandidate>> earlyCandidates = new ConcurrentHashMap<>();
 
   private final ConcurrentHashMap<String, String> imageOnFace = new ConcurrentHashMap<String, String>() {{
     put("마리오 모자",
@@ -57,36 +83,62 @@ public class UserSession implements Closeable {
   }};
 
   public UserSession(final String name, String roomName, final Session session,
-      MediaPipeline pipeline) {
+      MediaPipeline pipeline, MediaServer server) {
+    this(name, roomName, session, pipeline, server, WEB_RTC_ENDPOINT);
+  }
+
+  UserSession(final String name, String roomName, final Session session,
+      MediaPipeline pipeline, MediaServer server, EndpointBuilder endpointBuilder) {
 
     this.pipeline = pipeline;
+    this.server = server;
+    this.endpointBuilder = endpointBuilder;
     this.name = name;
     this.session = session;
     this.roomName = roomName;
-    this.outgoingMedia = new WebRtcEndpoint.Builder(pipeline).useDataChannels().build();
-
-    this.outgoingMedia.addIceCandidateFoundListener(new EventListener<IceCandidateFoundEvent>() {
-
-      @Override
-      public void onEvent(IceCandidateFoundEvent event) {
-        JsonObject response = new JsonObject();
-        response.addProperty("id", "iceCandidate");
-        response.addProperty("name", name);
-        response.add("candidate", JsonUtils.toJsonObject(event.getCandidate()));
-        try {
-          synchronized (session) {
-            session.getBasicRemote().sendText(response.toString());
-          }
-        } catch (IOException e) {
-          log.debug(e.getMessage());
-        }
-      }
-    });
+    this.outbound = new OutboundMessageQueue(name, session);
+    this.outgoingMedia = createEndpoint(name);
+  }
 
+  //엔드포인트 생성 -> ICE 리스너 등록까지 모두 비동기로 진행한다.
+  private CompletableFuture<WebRtcEndpoint> createEndpoint(final String endpointOwner) {
+    server.endpointCreated();
+    final long started = System.nanoTime();
+    return KurentoFutures.<WebRtcEndpoint>call(c -> endpointBuilder.buildAsync(pipeline, c))
+        .thenCompose(endpoint -> KurentoFutures.<ListenerSubscription>call(
+                c -> endpoint.addIceCandidateFoundListener(
+                    event -> sendIceCandidate(endpointOwner, event), c))
+            .whenComplete((subscription, error) -> {
+              //리스너를 못 달면 쓸 수 없는 엔드포인트라 여기서 바로 해제한다. (future 는 실패로 끝나므로 release 에서는 KMS 를 부르지 않는다)
+              if (error != null) {
+                KurentoFutures.<Void>call(endpoint::release)
+                    .whenComplete((ignored, releaseError) -> {
+                      if (releaseError != null) {
+                        log.warn("PARTICIPANT {}: Could not release EP for {}", this.name,
+                            endpointOwner, releaseError);
+                      }
+                    });
+              }
+            })
+            .thenApply(subscription -> {
+              server.recordEndpointCreate(System.nanoTime() - started);
+              return endpoint;
+            }));
+  }
 
+  private void sendIceCandidate(String endpointOwner, IceCandidateFoundEvent event) {
+    JsonObject response = new JsonObject();
+    response.addProperty("id", "iceCandidate");
+    response.addProperty("name", endpointOwner);
+    response.add("candidate", JsonUtils.toJsonObject(event.getCandidate()));
+    try {
+      outbound.enqueue(response.toString());
+    } catch (IOException e) {
+      log.debug(e.getMessage());
+    }
   }
 
-  public WebRtcEndpoint getOutgoingWebRtcPeer() {
+  public CompletableFuture<WebRtcEndpoint> getOutgoingWebRtcPeer() {
     return outgoingMedia;
   }
 
@@ -111,26 +163,54 @@ public class UserSession implements Closeable {
     return this.roomName;
   }
 
-  public void receiveVideoFrom(UserSession sender, String sdpOffer) throws IOException {
+  //SDP 협상은 KMS 응답이 올 때 이어서 진행하고, 답변(receiveVideoAnswer)은 완료 시점에 보낸다.
+  public void receiveVideoFrom(UserSession sender, String sdpOffer) {
 
     log.info("USER {}: connecting with {} in room {}", this.name, sender.getName(), this.roomName);
 
     log.trace("USER {}: SdpOffer for {} is {}", this.name, sender.getName(), sdpOffer);
 
-    final String ipSdpAnswer = this.getEndpointForUser(sender).processOffer(sdpOffer);
-    final JsonObject scParams = new JsonObject();
-    scParams.addProperty("id", "receiveVideoAnswer");
-    scParams.addProperty("name", sender.getName());
-    scParams.addProperty("sdpAnswer", ipSdpAnswer);
+    final String senderName = sender.getName();
+    this.getEndpointForUser(sender)
+        .thenCompose(endpoint -> processOffer(endpoint, sdpOffer)
+            .thenCompose(ipSdpAnswer -> {
+              final JsonObject scParams = new JsonObject();
+              scParams.addProperty("id", "receiveVideoAnswer");
+              scParams.addProperty("name", senderName);
+              scParams.addProperty("sdpAnswer", ipSdpAnswer);
+
+              log.trace("USER {}: SdpAnswer for {} is {}", this.name, senderName, ipSdpAnswer);
+              try {
+                this.sendMessage(scParams);
+              } catch (IOException e) {
+                log.debug("USER {}: could not send SdpAnswer for {}", this.name, senderName, e);
+              }
+              log.debug("gather candidates");
+              return KurentoFutures.<Void>call(endpoint::gatherCandidates);
+            }))
+        .whenComplete((ignored, error) -> {
+          if (error != null) {
+            log.warn("USER {}: could not negotiate media with {}", this.name, senderName, error);
+          }
+        });
+  }
+
 
-    log.trace("USER {}: SdpAnswer for {} is {}", this.name, sender.getName(), ipSdpAnswer);
-    this.sendMessage(scParams);
-    log.debug("gather candidates");
-    this.getEndpointForUser(sender).gatherCandidates();
+  private CompletableFuture<String> processOffer(WebRtcEndpoint endpoint, String sdpOffer) {
+    final long started = System.nanoTime();
+    return KurentoFutures.<String>call(c -> endpoint.processOffer(sdpOffer, c))
+        .thenApply(answer -> {
+          server.recordProcessOffer(System.nanoTime() - started);
+          return answer;
+        });
   }
 
+  //지금 받고 있는 다른 참가자 영상 수 (지표용)
+  public int getIncomingCount() {
+    return incomingMedia.size();
+  }
 
-  private WebRtcEndpoint getEndpointForUser(final UserSession sender) {
+  private CompletableFuture<WebRtcEndpoint> getEndpointForUser(final UserSession sender) {
     if (sender.getName().equals(name)) {
       log.debug("PARTICIPANT {}: configuring loopback", this.name);
       return outgoingMedia;
@@ -138,36 +218,23 @@ public class UserSession implements Closeable {
 
     log.debug("PARTICIPANT {}: receiving video from {}", this.name, sender.getName());
 
-    WebRtcEndpoint incoming = incomingMedia.get(sender.getName());
-    if (incoming == null) {
-      log.debug("PARTICIPANT {}: creating new endpoint for {}", this.name, sender.getName());
-      incoming = new WebRtcEndpoint.Builder(pipeline).useDataChannels().build();
-      incoming.addIceCandidateFoundListener(new EventListener<IceCandidateFoundEvent>() {
-
-        @Override
-        public void onEvent(IceCandidateFoundEvent event) {
-          JsonObject response = new JsonObject();
-          response.addProperty("id", "iceCandidate");
-          response.addProperty("name", sender.getName());
-          response.add("candidate", JsonUtils.toJsonObject(event.getCandidate()));
-          try {
-            synchronized (session) {
-              session.getBasicRemote().sendText(response.toString());
-            }
-          } catch (IOException e) {
-            log.debug(e.getMessage());
-          }
-
-        }
-      });
-
-      incomingMedia.put(sender.getName(), incoming);
+    final CompletableFuture<WebRtcEndpoint> incoming = incomingMedia.computeIfAbsent(
+        sender.getName(), senderName -> {
+          log.debug("PARTICIPANT {}: creating new endpoint for {}", this.name, senderName);
+          return createEndpoint(senderName);
+        });
+    //엔드포인트가 map 에 보인 뒤에 꺼내야 addCandidate 와 엇갈려도 후보를 잃지 않는다.
+    final List<IceCandidate> early = earlyCandidates.remove(sender.getName());
+    if (early != null) {
+      early.forEach(candidate -> addCandidate(incoming, candidate, sender.getName()));
     }
 
-    log.debug("PARTICIPANT {}: obtained endpoint for {}", this.name, sender.getName());
-    sender.getOutgoingWebRtcPeer().connect(incoming);
-
-    return incoming;
+    return incoming.thenCompose(endpoint -> sender.getOutgoingWebRtcPeer()
+        .thenCompose(outgoing -> KurentoFutures.<Void>call(c -> outgoing.connect(endpoint, c)))
+        .thenApply(connected -> {
+          log.debug("PARTICIPANT {}: obtained endpoint for {}", this.name, sender.getName());
+          return endpoint;
+        }));
   }
 
   public void cancelVideoFrom(final UserSession sender) {
@@ -176,132 +243,94 @@ public class UserSession implements Closeable {
 
   public void cancelVideoFrom(final String senderName) {
     log.debug("PARTICIPANT {}: canceling video reception from {}", this.name, senderName);
-    final WebRtcEndpoint incoming = incomingMedia.remove(senderName);
+    final CompletableFuture<WebRtcEndpoint> incoming = incomingMedia.remove(senderName);
+    earlyCandidates.remove(senderName);
 
     log.debug("PARTICIPANT {}: removing endpoint for {}", this.name, senderName);
     if (incoming != null) {
-      incoming.release(new Continuation<Void>() {
-        @Override
-        public void onSuccess(Void result) throws Exception {
-//        log.trace("PARTICIPANT {}: Released successfully incoming EP for {}",
-//            UserSession.this.name, senderName);
-        }
-
-        @Override
-        public void onError(Throwable cause) throws Exception {
-//        log.warn("PARTICIPANT {}: Could not release incoming EP for {}", UserSession.this.name,
-//            senderName);
-        }
-      });
+      release(incoming, "incoming EP for " + senderName);
     }
   }
 
+  //아직 만들어지는 중인 엔드포인트도 완성되는 즉시 해제한다.
+  private void release(CompletableFuture<WebRtcEndpoint> endpoint, String description) {
+    endpoint.thenCompose(ep -> KurentoFutures.<Void>call(ep::release))
+        .orTimeout(RELEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .whenComplete((ignored, error) -> {
+          server.endpointReleased();
+          if (error != null) {
+            log.warn("PARTICIPANT {}: Could not release {}", this.name, description, error);
+          } else {
+            log.trace("PARTICIPANT {}: Released successfully {}", this.name, description);
+          }
+        });
+  }
+
   @Override
   public void close() throws IOException {
     log.debug("PARTICIPANT {}: Releasing resources", this.name);
+    outbound.close();
+    earlyCandidates.clear();
     for (final String remoteParticipantName : incomingMedia.keySet()) {
 
       log.trace("PARTICIPANT {}: Released incoming EP for {}", this.name, remoteParticipantName);
 
-      final WebRtcEndpoint ep = this.incomingMedia.get(remoteParticipantName);
+      final CompletableFuture<WebRtcEndpoint> ep = this.incomingMedia.remove(remoteParticipantName);
 
       if (ep != null) {
-        ep.release(new Continuation<Void>() {
-
-          @Override
-          public void onSuccess(Void result) throws Exception {
-//          log.trace("PARTICIPANT {}: Released successfully incoming EP for {}",
-//              UserSession.this.name, remoteParticipantName);
-          }
-
-          @Override
-          public void onError(Throwable cause) throws Exception {
-//          log.warn("PARTICIPANT {}: Could not release incoming EP for {}", UserSession.this.name,
-//              remoteParticipantName);
-          }
-        });
+        release(ep, "incoming EP for " + remoteParticipantName);
       }
     }
 
-    outgoingMedia.release(new Continuation<Void>() {
-
-      @Override
-      public void onSuccess(Void result) throws Exception {
-//        log.trace("PARTICIPANT {}: Released outgoing EP", UserSession.this.name);
-      }
-
-      @Override
-      public void onError(Throwable cause) throws Exception {
-//        log.warn("USER {}: Could not release outgoing EP", UserSession.this.name);
-      }
-    });
+    release(outgoingMedia, "outgoing EP");
   }
 
   public void sendMessage(JsonObject message) throws IOException {
     log.debug("USER {}: Sending message {}", name, message);
-    synchronized (session) {
-      session.getBasicRemote().sendText(message.toString());
-    }
+    outbound.enqueue(message.toString());
   }
 
+  //이미 직렬화된 프레임을 그대로 보낸다. (Room.broadcast 에서 참가자 모두가 같은 문자열을 공유)
+  public void sendText(String text) throws IOException {
+    outbound.enqueue(text);
+  }
+
+  //엔드포인트가 아직 만들어지는 중이면 완성된 뒤에 후보를 넣는다. 받는 엔드포인트를 만들기 전이면 만들 때까지 들고 있는다.
   public void addCandidate(IceCandidate candidate, String name) {
     if (this.name.compareTo(name) == 0) {
-      outgoingMedia.addIceCandidate(candidate);
-    } else {
-      WebRtcEndpoint webRtc = incomingMedia.get(name);
-      if (webRtc != null) {
-        webRtc.addIceCandidate(candidate);
-      }
+      addCandidate(outgoingMedia, candidate, name);
+      return;
     }
+    //같은 송신자 키에서 getEndpointForUser 의 remove 와 순서가 정해진다.
+    earlyCandidates.compute(name, (senderName, early) -> {
+      final CompletableFuture<WebRtcEndpoint> incoming = incomingMedia.get(senderName);
+      if (incoming != null) {
+        addCandidate(incoming, candidate, senderName);
+        return early;
+      }
+      if (early == null && earlyCandidates.size() >= MAX_EARLY_SENDERS) {
+        log.debug("PARTICIPANT {}: dropping early ICE candidate for {}", this.name, senderName);
+        return null;
+      }
+      final List<IceCandidate> held = early == null ? new ArrayList<>() : early;
+      if (held.size() < MAX_EARLY_CANDIDATES) {
+        held.add(candidate);
+      } else {
+        log.debug("PARTICIPANT {}: dropping early ICE candidate for {}", this.name, senderName);
+      }
+      return held;
+    });
   }
 
-  public void transferBan(String personName) throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "ban");
-    sender.addProperty("name", personName);
-    this.sendMessage(sender);
-  }
-
-  public void transferMute(String personName) throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "mute");
-    sender.addProperty("name", personName);
-    this.sendMessage(sender);
-  }
-
-  public void transferExit() throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "exit");
-    this.sendMessage(sender);
-  }
-
-  public void transferRequestMute(String personName) throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "requestMuteVote");
-    sender.addProperty("name", personName);
-    this.sendMessage(sender);
-  }
-
-  public void transferRequestExit() throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "requestExitVote");
-    this.sendMessage(sender);
-  }
-
-  public void transferLadderResult(String value) throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "ladderResult");
-    sender.addProperty("value", value);
-    this.sendMessage(sender);
-
-  }
-
-  public void transferChatMessage(String personName, String message) throws IOException {
-    final JsonObject sender = new JsonObject();
-    sender.addProperty("id", "receiveChatMessage");
-    sender.addProperty("name", personName);
-    sender.addProperty("message", message);
-    this.sendMessage(sender);
+  private void addCandidate(CompletableFuture<WebRtcEndpoint> webRtc, IceCandidate candidate,
+      String name) {
+    webRtc.thenCompose(endpoint -> KurentoFutures.<Void>call(
+            c -> endpoint.addIceCandidate(candidate, c)))
+        .whenComplete((ignored, error) -> {
+          if (error != null) {
+            log.debug("PARTICIPANT {}: could not add ICE candidate for {}", this.name, name, error);
+          }
+        });
   }
 
   /*
@@ -0,0 +1,11 @@
+package com.justudy.backend.GroupCall.repository;
+
+import com.justudy.backend.GroupCall.domain.ChatMessageEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatMessageRepository extends JpaRepository<ChatMessageEntity, Long>,
+    ChatMessageRepositoryCustom {
+
+}
@@ -0,0 +1,10 @@
+package com.justudy.backend.GroupCall.repository;
+
+import com.justudy.backend.GroupCall.dto.response.ChatMessageResponse;
+import java.util.List;
+
+public interface ChatMessageRepositoryCustom {
+
+  //cursor 보다 오래된 메시지를 최신순으로 size 개. cursor 가 null 이면 가장 최근부터
+  List<ChatMessageResponse> findPageByRoom(String room, Long cursor, int size);
+}
@@ -0,0 +1,36 @@
+package com.justudy.backend.GroupCall.repository;
+
+import com.justudy.backend.GroupCall.domain.QChatMessageEntity;
+import com.justudy.backend.GroupCall.dto.response.ChatMessageResponse;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ChatMessageRepositoryImpl implements ChatMessageRepositoryCustom {
+
+  private final JPAQueryFactory queryFactory;
+  private final QChatMessageEntity qChatMessageEntity = QChatMessageEntity.chatMessageEntity;
+
+  @Override
+  public List<ChatMessageResponse> findPageByRoom(String room, Long cursor, int size) {
+    BooleanBuilder where = new BooleanBuilder(qChatMessageEntity.room.eq(room));
+    if (cursor != null) {
+      where.and(qChatMessageEntity.sequence.lt(cursor));
+    }
+
+    return queryFactory
+        .select(Projections.constructor(ChatMessageResponse.class,
+            qChatMessageEntity.sequence,
+            qChatMessageEntity.name,
+            qChatMessageEntity.message,
+            qChatMessageEntity.createdTime))
+        .from(qChatMessageEntity)
+        .where(where)
+        .orderBy(qChatMessageEntity.sequence.desc())
+        .limit(size)
+        .fetch();
+  }
+}
@@ -1,9 +1,15 @@
 package com.justudy.backend.GroupCall.repository;
 
 import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
+import com.justudy.backend.rank.dto.response.RankProfile;
 import com.justudy.backend.study.domain.StudyEntity;
+import java.util.Collection;
+import java.util.List;
 
 public interface StudyRoomRepositoryCustom {
 
   StudyRoomResponse findUUIDByStudy(StudyEntity study);
+
+  //랭킹에 보여줄 (방 seq, 스터디 이름, 스터디 이미지 seq) 를 한번에 찾는다
+  List<RankProfile> findRankProfiles(Collection<Long> roomSequences);
 }
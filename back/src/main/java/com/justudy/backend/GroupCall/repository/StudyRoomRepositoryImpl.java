@@ -2,9 +2,13 @@ package com.justudy.backend.GroupCall.repository;
 
 import com.justudy.backend.GroupCall.domain.QStudyRoomEntity;
 import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
+import com.justudy.backend.rank.dto.response.RankProfile;
+import com.justudy.backend.study.domain.QStudyEntity;
 import com.justudy.backend.study.domain.StudyEntity;
 import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.Collection;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -12,6 +16,7 @@ public class StudyRoomRepositoryImpl implements StudyRoomRepositoryCustom {
 
   private final JPAQueryFactory queryFactory;
   private final QStudyRoomEntity qStudyRoomEntity = QStudyRoomEntity.studyRoomEntity;
+  private final QStudyEntity qStudy = QStudyEntity.studyEntity;
 
   @Override
   public StudyRoomResponse findUUIDByStudy(StudyEntity study) {
@@ -24,4 +29,15 @@ public class StudyRoomRepositoryImpl implements StudyRoomRepositoryCustom {
         .where(qStudyRoomEntity.studyEntity.eq(study))
         .fetchOne();
   }
+
+  @Override
+  public List<RankProfile> findRankProfiles(Collection<Long> roomSequences) {
+    return queryFactory
+        .select(Projections.constructor(RankProfile.class, qStudyRoomEntity.sequence,
+            qStudy.name, qStudy.imageFile.sequence))
+        .from(qStudyRoomEntity)
+        .join(qStudyRoomEntity.studyEntity, qStudy)
+        .where(qStudyRoomEntity.sequence.in(roomSequences))
+        .fetch();
+  }
 }
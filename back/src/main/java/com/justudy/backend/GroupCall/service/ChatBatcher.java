@@ -0,0 +1,162 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.justudy.backend.GroupCall.model.Room;
+import com.justudy.backend.GroupCall.model.RoomManager;
+import com.justudy.backend.GroupCall.model.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * ChatBatcher : 방 채팅을 짧은 시간(batch-window) 동안 모아서 한 프레임으로 보내는 클래스
+ * <p>
+ * 채팅 한 줄마다 방 전체에 쓰면 도배 한번에 소켓 쓰기가 N 배로 늘어난다. 창 안에 들어온 메시지는 receiveChatMessages 한 프레임으로 묶고(한 줄이면
+ * 기존 receiveChatMessage 그대로), 사람마다 토큰 버킷으로 초당 rate-per-second 개(최대 burst 개)까지만 받는다. 넘치는 메시지와 창 하나에
+ * max-batch 개를 넘는 메시지는 버린다.
+ **/
+@Slf4j
+@Component
+public class ChatBatcher {
+
+  private final RoomManager roomManager;
+  private final Duration window;
+  private final double ratePerSecond;
+  private final int burst;
+  private final int maxBatch;
+
+  private final ConcurrentMap<String, RoomChat> rooms = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "chat-batcher");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Counter batches;
+  private final Counter rateLimited;
+  private final Counter overflowed;
+
+  public ChatBatcher(RoomManager roomManager, MeterRegistry meterRegistry,
+      @Value("${groupcall.chat.batch-window:50ms}") Duration window,
+      @Value("${groupcall.chat.rate-per-second:2}") double ratePerSecond,
+      @Value("${groupcall.chat.burst:5}") int burst,
+      @Value("${groupcall.chat.max-batch:100}") int maxBatch) {
+    this.roomManager = roomManager;
+    this.window = window;
+    this.ratePerSecond = ratePerSecond;
+    this.burst = burst;
+    this.maxBatch = maxBatch;
+    this.batches = meterRegistry.counter("groupcall.chat.batches");
+    this.rateLimited = meterRegistry.counter("groupcall.chat.dropped", "reason", "rate-limit");
+    this.overflowed = meterRegistry.counter("groupcall.chat.dropped", "reason", "batch-full");
+  }
+
+  /**
+   * @param sender 토큰 버킷을 고를 때 쓰는 (세션의) 참가자 이름
+   * @return 받아들였으면 true, 버렸으면 false
+   */
+  public boolean submit(String roomName, String sender, String displayName, String message) {
+    if (roomManager.findRoom(roomName) == null) {
+      //이 인스턴스에 없는 방이면 버킷을 만들지 않는다. (방 이름마다 맵이 늘어나지 않게)
+      return false;
+    }
+    final RoomChat chat = rooms.computeIfAbsent(roomName, RoomChat::new);
+    synchronized (chat) {
+      if (!chat.bucketOf(sender).tryAcquire()) {
+        rateLimited.increment();
+        log.debug("ROOM {}: chat from {} rate limited", roomName, sender);
+        return false;
+      }
+      if (chat.pending.size() >= maxBatch) {
+        overflowed.increment();
+        return false;
+      }
+      final JsonObject line = new JsonObject();
+      line.addProperty("name", displayName);
+      line.addProperty("message", message);
+      chat.pending.add(line);
+      if (!chat.scheduled) {
+        chat.scheduled = true;
+        flusher.schedule(() -> flush(chat), window.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    return true;
+  }
+
+  //방이 닫힐 때 토큰 버킷을 버린다. 남은 메시지는 이미 예약된 flush 가 보낸다.
+  public void forget(String roomName) {
+    rooms.remove(roomName);
+  }
+
+  void flush(RoomChat chat) {
+    final List<JsonObject> lines;
+    synchronized (chat) {
+      lines = chat.pending;
+      chat.pending = new ArrayList<>();
+      chat.scheduled = false;
+    }
+    if (lines.isEmpty()) {
+      return;
+    }
+    final Room room = roomManager.findRoom(chat.roomName);
+    if (room == null) {
+      return;
+    }
+    try {
+      room.broadcast(frame(lines));
+      batches.increment();
+    } catch (RuntimeException e) {
+      log.warn("ROOM {}: could not flush {} chat messages", chat.roomName, lines.size(), e);
+    }
+  }
+
+  static JsonObject frame(List<JsonObject> lines) {
+    if (lines.size() == 1) {
+      final JsonObject single = lines.get(0).deepCopy();
+      single.addProperty("id", "receiveChatMessage");
+      return single;
+    }
+    final JsonArray messages = new JsonArray(lines.size());
+    lines.forEach(messages::add);
+    final JsonObject batch = new JsonObject();
+    batch.addProperty("id", "receiveChatMessages");
+    batch.add("messages", messages);
+    return batch;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdown();
+  }
+
+  final class RoomChat {
+
+    private final String roomName;
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+    private List<JsonObject> pending = new ArrayList<>();
+    private boolean scheduled;
+
+    private RoomChat(String roomName) {
+      this.roomName = roomName;
+    }
+
+    private TokenBucket bucketOf(String sender) {
+      return buckets.computeIfAbsent(sender, name -> new TokenBucket(ratePerSecond, burst));
+    }
+  }
+}
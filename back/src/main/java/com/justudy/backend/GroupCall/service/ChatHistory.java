@@ -0,0 +1,192 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.justudy.backend.GroupCall.domain.ChatMessageEntity;
+import com.justudy.backend.GroupCall.dto.response.ChatMessageResponse;
+import com.justudy.backend.GroupCall.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ChatHistory : 스터디 방 채팅 기록
+ * <p>
+ * 방마다 최근 history-size 개를 링 버퍼로 들고 있다가 입장하면 existingParticipants 다음에 chatHistory 로 보낸다. 버퍼가 없는 방은 별도
+ * 스레드에서 DB 로 채운다. DB 에는 큐에 넣어두고 ChatHistorySchedule 이 모아서 저장한다. 시그널링 스레드는 DB 를 기다리지 않는다. 큐가 가득 차면
+ * 저장하지 않고 버린다.
+ **/
+@Slf4j
+@Service
+public class ChatHistory {
+
+  private final ChatMessageRepository chatMessageRepository;
+  private final int historySize;
+  private final int maxRooms;
+
+  private final BlockingQueue<ChatMessageEntity> pending;
+  private final ExecutorService warmer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "chat-history-warm");
+    thread.setDaemon(true);
+    return thread;
+  });
+  //접근 순서대로. maxRooms 를 넘으면 가장 오래 안 쓰인 방의 버퍼를 버린다. (다음 입장 때 DB 에서 다시 채운다)
+  private final Map<String, Deque<ChatMessageResponse>> recent;
+
+  private final Counter persisted;
+  private final Counter dropped;
+  private final Counter failed;
+
+  public ChatHistory(ChatMessageRepository chatMessageRepository, MeterRegistry meterRegistry,
+      @Value("${groupcall.chat.history-size:50}") int historySize,
+      @Value("${groupcall.chat.max-rooms:1000}") int maxRooms,
+      @Value("${groupcall.chat.persist-queue:10000}") int queueCapacity) {
+    this.chatMessageRepository = chatMessageRepository;
+    this.historySize = historySize;
+    this.maxRooms = maxRooms;
+    this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Deque<ChatMessageResponse>> eldest) {
+        return size() > ChatHistory.this.maxRooms;
+      }
+    };
+    this.persisted = meterRegistry.counter("groupcall.chat.persisted");
+    this.dropped = meterRegistry.counter("groupcall.chat.dropped", "reason", "persist-queue-full");
+    this.failed = meterRegistry.counter("groupcall.chat.dropped", "reason", "persist-failed");
+  }
+
+  //시그널링 스레드에서 부른다. 막히지 않는다.
+  public void append(String roomName, String name, String message) {
+    if (roomName == null || message == null) {
+      return;
+    }
+    final String content = message.length() > ChatMessageEntity.MAX_MESSAGE_LENGTH
+        ? message.substring(0, ChatMessageEntity.MAX_MESSAGE_LENGTH) : message;
+    final LocalDateTime now = LocalDateTime.now();
+
+    synchronized (recent) {
+      final Deque<ChatMessageResponse> ring = recent.get(roomName);
+      //버퍼가 없는 방은 입장(recent) 때 DB 에서 채운다.
+      if (ring != null) {
+        push(ring, new ChatMessageResponse(null, name, content, now));
+      }
+    }
+
+    final ChatMessageEntity entity = ChatMessageEntity.builder()
+        .room(roomName)
+        .name(name)
+        .message(content)
+        .createdTime(now)
+        .build();
+    if (!pending.offer(entity)) {
+      dropped.increment();
+      log.debug("ROOM {}: chat persist queue is full", roomName);
+    }
+  }
+
+  /**
+   * 입장한 사람에게 보낼 최근 채팅 (오래된 것부터). 버퍼가 있으면 바로, 없으면 warmer 스레드가 DB 에서 한번 읽어온 뒤 끝난다.
+   */
+  public CompletableFuture<JsonArray> recent(String roomName) {
+    if (roomName == null) {
+      return CompletableFuture.completedFuture(new JsonArray());
+    }
+    final List<ChatMessageResponse> lines;
+    synchronized (recent) {
+      final Deque<ChatMessageResponse> ring = recent.get(roomName);
+      lines = ring == null ? null : new ArrayList<>(ring);
+    }
+    if (lines != null) {
+      return CompletableFuture.completedFuture(toJson(lines));
+    }
+    return CompletableFuture.supplyAsync(() -> toJson(warm(roomName)), warmer);
+  }
+
+  private List<ChatMessageResponse> warm(String roomName) {
+    final List<ChatMessageResponse> stored;
+    try {
+      stored = chatMessageRepository.findPageByRoom(roomName, null, historySize);
+    } catch (RuntimeException e) {
+      log.warn("ROOM {}: could not load chat history", roomName, e);
+      return List.of();
+    }
+    //DB 에는 최신순으로 나온다.
+    final Deque<ChatMessageResponse> ring = new ArrayDeque<>(historySize);
+    for (int i = stored.size() - 1; i >= 0; i--) {
+      push(ring, stored.get(i));
+    }
+    synchronized (recent) {
+      //읽는 동안 다른 입장이 먼저 채웠으면 그것을 쓴다.
+      final Deque<ChatMessageResponse> existing = recent.putIfAbsent(roomName, ring);
+      return new ArrayList<>(existing != null ? existing : ring);
+    }
+  }
+
+  private void push(Deque<ChatMessageResponse> ring, ChatMessageResponse line) {
+    if (ring.size() >= historySize) {
+      ring.pollFirst();
+    }
+    ring.offerLast(line);
+  }
+
+  private static JsonArray toJson(List<ChatMessageResponse> lines) {
+    final JsonArray history = new JsonArray(lines.size());
+    for (final ChatMessageResponse line : lines) {
+      final JsonObject json = new JsonObject();
+      json.addProperty("name", line.getName());
+      json.addProperty("message", line.getMessage());
+      history.add(json);
+    }
+    return history;
+  }
+
+  /**
+   * 큐에 쌓인 메시지를 한번에 저장한다. ChatHistorySchedule 과 종료할 때만 부른다.
+   *
+   * @return 저장한 수
+   */
+  public int flush(int maxBatch) {
+    final List<ChatMessageEntity> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+    pending.drainTo(batch, maxBatch);
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    try {
+      chatMessageRepository.saveAll(batch);
+    } catch (RuntimeException e) {
+      log.warn("Could not persist {} chat messages", batch.size(), e);
+      failed.increment(batch.size());
+      return 0;
+    }
+    persisted.increment(batch.size());
+    return batch.size();
+  }
+
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  @PreDestroy
+  public void flushAll() {
+    warmer.shutdownNow();
+    while (flush(Integer.MAX_VALUE) > 0) {
+      log.debug("Flushed chat history on shutdown");
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.justudy.backend.GroupCall.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ChatHistorySchedule : 큐에 쌓인 채팅을 주기적으로 DB 에 모아서 저장하는 스케줄
+ **/
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ChatHistorySchedule {
+
+  private final ChatHistory chatHistory;
+
+  //한번에 저장할 최대 수 (hibernate jdbc batch_size 로 나눠서 insert 한다)
+  @Value("${groupcall.chat.flush-batch:500}")
+  private int flushBatch;
+
+  @Scheduled(fixedDelayString = "${groupcall.chat.flush-interval:1000}")
+  public void flushChatHistory() {
+    int flushed = chatHistory.flush(flushBatch);
+    if (flushed > 0) {
+      log.debug("Persisted {} chat messages ({} pending)", flushed, chatHistory.pendingCount());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.justudy.backend.GroupCall.model.MediaServer;
+import com.justudy.backend.GroupCall.model.MediaServerPool;
+import com.justudy.backend.GroupCall.model.Room;
+import com.justudy.backend.GroupCall.model.RoomManager;
+import com.justudy.backend.GroupCall.model.UserRegistry;
+import com.justudy.backend.GroupCall.model.UserSession;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * GroupCallMetrics : 화상 스터디 자원 현황 (/actuator/metrics, /actuator/prometheus)
+ * <p>
+ * 게이지 값은 수집할 때만 읽어가므로 평소 비용은 없다. 지연시간은 MediaServer(KMS 호출)와 SignalMetrics(메시지 처리)에서 잰다.
+ **/
+@Component
+@RequiredArgsConstructor
+public class GroupCallMetrics implements MeterBinder {
+
+  private final RoomManager roomManager;
+  private final UserRegistry registry;
+  private final MediaServerPool mediaServers;
+
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    Gauge.builder("groupcall.rooms.live", roomManager, manager -> manager.getRooms().size())
+        .description("Rooms currently open on this instance")
+        .register(meterRegistry);
+    Gauge.builder("groupcall.participants", registry, UserRegistry::size)
+        .description("Participants connected to this instance")
+        .register(meterRegistry);
+
+    Gauge.builder("groupcall.room.participants.max", roomManager,
+            GroupCallMetrics::maxParticipantsPerRoom)
+        .description("Participants in the largest room")
+        .register(meterRegistry);
+    Gauge.builder("groupcall.endpoints.incoming.max", roomManager,
+            GroupCallMetrics::maxIncomingPerParticipant)
+        .description("Most incoming endpoints held by a single participant")
+        .register(meterRegistry);
+
+    for (final MediaServer server : mediaServers.getServers()) {
+      server.bindMetrics(meterRegistry);
+      Gauge.builder("groupcall.endpoints", server, MediaServer::getEndpointCount)
+          .tag("server", server.getUri())
+          .description("WebRtcEndpoints in use")
+          .register(meterRegistry);
+      Gauge.builder("groupcall.pipelines.active", server, MediaServer::getPipelineCount)
+          .tag("server", server.getUri())
+          .description("Media pipelines owned by open rooms")
+          .register(meterRegistry);
+      Gauge.builder("groupcall.pipelines.idle", server, s -> s.getPipelinePool().idleCount())
+          .tag("server", server.getUri())
+          .description("Pooled media pipelines waiting for a room")
+          .register(meterRegistry);
+      Gauge.builder("groupcall.pipelines.leaked", server, s -> s.getPipelinePool().leakedCount())
+          .tag("server", server.getUri())
+          .description("Media pipelines whose release failed and is pending retry")
+          .register(meterRegistry);
+    }
+  }
+
+  private static double maxParticipantsPerRoom(RoomManager roomManager) {
+    int max = 0;
+    for (final Room room : roomManager.getRooms()) {
+      max = Math.max(max, room.getParticipants().size());
+    }
+    return max;
+  }
+
+  private static double maxIncomingPerParticipant(RoomManager roomManager) {
+    int max = 0;
+    for (final Room room : roomManager.getRooms()) {
+      for (final UserSession participant : room.getParticipants()) {
+        max = Math.max(max, participant.getIncomingCount());
+      }
+    }
+    return max;
+  }
+}
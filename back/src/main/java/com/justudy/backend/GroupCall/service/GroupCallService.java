@@ -17,31 +17,36 @@
 
 package com.justudy.backend.GroupCall.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.justudy.backend.GroupCall.config.ServerEndpointConfig;
+import com.justudy.backend.GroupCall.dto.request.SignalMessage;
+import com.justudy.backend.GroupCall.exception.RoomUnavailable;
+import com.justudy.backend.GroupCall.model.OutboundMessageQueue;
 import com.justudy.backend.GroupCall.model.Room;
 import com.justudy.backend.GroupCall.model.RoomManager;
 import com.justudy.backend.GroupCall.model.UserRegistry;
 import com.justudy.backend.GroupCall.model.UserSession;
-import org.kurento.client.FaceOverlayFilter;
-import org.kurento.client.IceCandidate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * 
+ * 클라이언트는 /groupcall?room=방이름 으로 연결한다. 방은 한 인스턴스에만 있으므로 여러 인스턴스로 띄우면 로드밸런서가 room 파라미터로
+ * 인스턴스를 고른다. (nginx 예: {@code hash $arg_room consistent;}) 참가자 목록(UserRegistry)은 인스턴스마다 따로 있다.
+ *
  * @author Ivan Gracia (izanmail@gmail.com)
  * @since 4.3.1
  */
@@ -51,7 +56,8 @@ public class GroupCallService   {
 
   private static final Logger log = LoggerFactory.getLogger(GroupCallService.class);
 
-  private static final Gson gson = new GsonBuilder().create();
+  //로드밸런서가 인스턴스를 고를 때 쓴 방 이름 (연결 주소의 room 파라미터)
+  private static final String ROUTED_ROOM = "routedRoom";
 
   @Autowired
   private RoomManager roomManager;
@@ -59,158 +65,291 @@ public class GroupCallService   {
   @Autowired
   private UserRegistry registry;
 
+  @Autowired
+  private SignalMetrics signalMetrics;
+
+  //채팅은 방마다 모아서 보내고 사람마다 초당 보낼 수 있는 수를 제한한다.
+  @Autowired
+  private ChatBatcher chatBatcher;
+
+  //입장할 때 최근 채팅을 같이 보내고, 채팅은 모아서 DB 에 저장한다.
+  @Autowired
+  private ChatHistory chatHistory;
+
+  //메시지 id -> 핸들러. 새 명령은 여기 등록만 하면 된다.
+  private final Map<String, SignalCommand> commands = new HashMap<>();
+
+  public GroupCallService() {
+    commands.put("joinRoom", (session, user, message) -> joinRoom(message, session));
+    commands.put("receiveVideoFrom", (session, user, message) -> receiveVideoFrom(user, message));
+    commands.put("leaveRoom", (session, user, message) -> leaveRoom(user));
+    commands.put("ban", (session, user, message) -> ban(message.getName(), message.getRoom()));
+    commands.put("mute", (session, user, message) -> mute(message.getName(), message.getRoom()));
+    commands.put("exit", (session, user, message) -> allExit(message.getRoom()));
+    commands.put("requestMute",
+        (session, user, message) -> requestMute(message.getName(), message.getRoom()));
+    commands.put("requestExit", (session, user, message) -> requestExit(message.getRoom()));
+    commands.put("sendLadderResult",
+        (session, user, message) -> sendLadderResult(message.getName(), message.getRoom(),
+            message.getValue()));
+    commands.put("sendChat",
+        (session, user, message) -> sendChatMessage(user, message.getName(), message.getMessage()));
+    commands.put("onIceCandidate", (session, user, message) -> onIceCandidate(user, message));
+    //선택 전달 모드에서 누구의 영상을 받을지 정하는 신호
+    commands.put("speaking", (session, user, message) -> speaking(user));
+    commands.put("audioState", (session, user, message) -> audioState(user, message.getValue()));
+    commands.put("pin", (session, user, message) -> pin(user, message.getName()));
+  }
+
+  @PostConstruct
+  public void registerMetrics() {
+    signalMetrics.register(commands.keySet());
+  }
+
   @OnMessage
   public void OnMessage(Session session, String message) throws Exception {
-    final JsonObject jsonMessage = gson.fromJson(message, JsonObject.class);
+    final SignalMessage signal = SignalMessage.from(message);
 
     UserSession user = registry.getBySession(session);
 
-    if (user != null) {
-      log.info("Incoming message from user '{}': {}", user.getName(), jsonMessage);
-    } else {
-      log.info("Incoming message from new user: {}", jsonMessage);
-    }
-
-    switch (jsonMessage.get("id").getAsString()) {
-      case "joinRoom":
-        joinRoom(jsonMessage, session);
-        break;
-      case "receiveVideoFrom":
-        final String senderName = jsonMessage.get("sender").getAsString();
-        final UserSession sender = registry.getByName(senderName);
-        final String sdpOffer = jsonMessage.get("sdpOffer").getAsString();
-
-        user.receiveVideoFrom(sender, sdpOffer);
-        break;
-      case "leaveRoom":
-        leaveRoom(user);
-        break;
-      case "ban":
-        ban(jsonMessage.get("name").getAsString(),jsonMessage.get("room").getAsString());
-        break;
-      case "mute":
-        mute(jsonMessage.get("name").getAsString(),jsonMessage.get("room").getAsString());
-        break;
-      case "exit":
-        allExit(jsonMessage.get("room").getAsString());
-        break;
-      case "requestMute":
-        requestMute(jsonMessage.get("name").getAsString(),jsonMessage.get("room").getAsString());
-        break;
-      case "requestExit":
-        requestExit(jsonMessage.get("room").getAsString());
-        break;
-      case "sendLadderResult":
-        sendLadderResult(jsonMessage.get("name").getAsString(),jsonMessage.get("room").getAsString(),jsonMessage.get("value").getAsString());
-        break;
-      case "sendChat":
-        sendChatMessage(jsonMessage.get("name").getAsString(),jsonMessage.get("room").getAsString(),jsonMessage.get("message").getAsString());
-        break;
-      case "onIceCandidate":
-        JsonObject candidate = jsonMessage.get("candidate").getAsJsonObject();
-
-        if (user != null) {
-          IceCandidate cand = new IceCandidate(candidate.get("candidate").getAsString(),
-              candidate.get("sdpMid").getAsString(), candidate.get("sdpMLineIndex").getAsInt());
-          user.addCandidate(cand, jsonMessage.get("name").getAsString());
-        }
-        break;
-      default:
-        break;
-    }
-  }
-
-  private void sendChatMessage(String personName, String roomName, String message) throws Exception   {
-    final Room room = roomManager.getRoom(roomName);
-
-    for(UserSession user : room.getParticipants()){
-      user.transferChatMessage(personName,message);
+    //ICE 후보는 입장할 때 수십개씩 몰려오므로 trace 에서만 남긴다. 전체 프레임도 trace 에서만 남긴다.
+    if ("onIceCandidate".equals(signal.getId())) {
+      log.trace("Incoming ICE candidate from user '{}'", user != null ? user.getName() : null);
+    } else if (log.isDebugEnabled()) {
+      log.debug("Incoming message {} from user '{}'", signal.getId(),
+          user != null ? user.getName() : null);
+    }
+    log.trace("Incoming frame: {}", message);
+
+    final long started = System.nanoTime();
+    final SignalCommand command = signal.getId() == null ? null : commands.get(signal.getId());
+    if (command == null) {
+      log.debug("Unrecognized message id {}", signal.getId());
+      signalMetrics.record(null, System.nanoTime() - started);
+      return;
+    }
+    try {
+      command.handle(session, user, signal);
+    } finally {
+      signalMetrics.record(signal.getId(), System.nanoTime() - started);
     }
   }
 
-  private void sendLadderResult(String personName, String roomName, String value) throws Exception  {
-    final Room room = roomManager.getRoom(roomName);
+  private void receiveVideoFrom(UserSession user, SignalMessage message) {
+    //방은 이 인스턴스에만 있으므로 송신자도 같은 방의 참가자에서 찾는다.
+    final Room room = user == null ? null : roomManager.findRoom(user.getRoomName());
+    final UserSession sender = room == null || message.getSender() == null ? null
+        : room.getParticipant(message.getSender());
+    if (sender == null) {
+      log.debug("receiveVideoFrom ignored: user {} sender {}",
+          user != null ? user.getName() : null, message.getSender());
+      return;
+    }
+    if (!room.isForwarded(user, sender.getName())) {
+      //전달 목록에 없는 송신자는 엔드포인트를 만들지 않는다. 목록에 들어오면 forwardingSet 으로 알려준다.
+      log.debug("receiveVideoFrom ignored: {} is not forwarded to {}", sender.getName(),
+          user.getName());
+      return;
+    }
+    user.receiveVideoFrom(sender, message.getSdpOffer());
+  }
 
-    for(UserSession user : room.getParticipants()){
-      if( user.getName().equals(personName ))
-        user.transferLadderResult(value);
+  private void speaking(UserSession user) {
+    final Room room = user == null ? null : roomManager.findRoom(user.getRoomName());
+    if (room != null) {
+      room.onSpeaking(user);
     }
   }
 
-  private void requestExit(String roomName) throws Exception  {
-    final Room room = roomManager.getRoom(roomName);
+  //value : "true" 면 음소거 해제
+  private void audioState(UserSession user, String value) {
+    final Room room = user == null ? null : roomManager.findRoom(user.getRoomName());
+    if (room != null && Boolean.parseBoolean(value)) {
+      room.onUnmuted(user);
+    }
+  }
 
-    for(UserSession user : room.getParticipants()){
-      user.transferRequestExit();
+  //name 이 없으면 고정 해제
+  private void pin(UserSession user, String senderName) {
+    final Room room = user == null ? null : roomManager.findRoom(user.getRoomName());
+    if (room != null) {
+      room.pin(user, senderName == null || senderName.isEmpty() ? null : senderName);
     }
   }
 
-  private void requestMute(String personName, String roomName) throws Exception {
-    final Room room = roomManager.getRoom(roomName);
+  private void onIceCandidate(UserSession user, SignalMessage message) {
+    if (user != null && message.hasCandidate()) {
+      user.addCandidate(message.toIceCandidate(), message.getName());
+    }
+  }
 
-    for(UserSession user : room.getParticipants()){
-        user.transferRequestMute(personName);
+  private void sendChatMessage(UserSession user, String personName, String message) {
+    if (user == null) {
+      log.debug("sendChat ignored: session has not joined a room");
+      return;
+    }
+    //방은 클라이언트가 보낸 room 이 아니라 세션이 들어가 있는 방이다. (들어가지 않은 방에 쓰거나 버킷을 우회하지 못하게)
+    if (chatBatcher.submit(user.getRoomName(), user.getName(), personName, message)) {
+      chatHistory.append(user.getRoomName(), personName, message);
     }
   }
 
-  private void mute(String personName, String roomName)throws Exception {
-    final Room room = roomManager.getRoom(roomName);
+  private void sendLadderResult(String personName, String roomName, String value) throws Exception  {
+    final JsonObject ladder = new JsonObject();
+    ladder.addProperty("id", "ladderResult");
+    ladder.addProperty("value", value);
+    sendTo(roomName, personName, ladder);
+  }
+
+  private void requestExit(String roomName) throws Exception  {
+    final JsonObject vote = new JsonObject();
+    vote.addProperty("id", "requestExitVote");
+    broadcast(roomName, vote);
+  }
 
-    for(UserSession user : room.getParticipants()){
-      if( user.getName().equals(personName ))
-        user.transferMute(personName);
+  private void requestMute(String personName, String roomName) throws Exception {
+    final JsonObject vote = new JsonObject();
+    vote.addProperty("id", "requestMuteVote");
+    vote.addProperty("name", personName);
+    broadcast(roomName, vote);
+  }
 
-    }
+  private void mute(String personName, String roomName)throws Exception {
+    final JsonObject mute = new JsonObject();
+    mute.addProperty("id", "mute");
+    mute.addProperty("name", personName);
+    sendTo(roomName, personName, mute);
   }
   private void allExit(String roomName)throws Exception {
-    final Room room = roomManager.getRoom(roomName);
-
-    for(UserSession user : room.getParticipants()) {
-      user.transferExit();//모두에게 exit올리기
-    }
+    final JsonObject exit = new JsonObject();
+    exit.addProperty("id", "exit");
+    broadcast(roomName, exit);//모두에게 exit올리기
   }
 
   private void ban(String personName, String roomName) throws Exception {
-    final Room room = roomManager.getRoom(roomName);
+    final JsonObject ban = new JsonObject();
+    ban.addProperty("id", "ban");
+    ban.addProperty("name", personName);
+    sendTo(roomName, personName, ban);
+  }
+
+  private void broadcast(String roomName, JsonObject message) {
+    final Room room = roomManager.findRoom(roomName);
+    if (room != null) {
+      room.broadcast(message);
+    }
+  }
 
-    for(UserSession user : room.getParticipants()){
-      if( user.getName().equals(personName ))
-        user.transferBan(personName);
+  //한 사람에게만 가는 메시지(ban, mute, 사다리 결과)는 방 전체를 돌지 않고 이름으로 바로 찾는다.
+  private void sendTo(String roomName, String personName, JsonObject message) throws IOException {
+    final Room room = roomManager.findRoom(roomName);
+    final UserSession target = room == null || personName == null ? null
+        : room.getParticipant(personName);
+    if (target == null) {
+      log.debug("ROOM {}: target {} is not in the room, message dropped", roomName, personName);
+      return;
     }
+    target.sendMessage(message);
   }
 
 
   @OnOpen
-  public void afterConnectionEstablished() throws Exception {
+  public void afterConnectionEstablished(Session session) throws Exception {
     log.info("afterConnectionEstablished...........................");
-
+    final List<String> room = session.getRequestParameterMap().get("room");
+    if (room != null && !room.isEmpty()) {
+      session.getUserProperties().put(ROUTED_ROOM, room.get(0));
+    }
   }
 
   @OnClose
   public void afterConnectionClosed(Session session) throws Exception {
+    disconnect(session);
+  }
+
+  /**
+   * 세션을 정리한다. 연결 종료(OnClose)와, OnClose 가 오지 않은 끊긴 세션을 찾은 스위퍼가 같이 쓴다.
+   *
+   * @return 정리한 참가자. 이미 정리됐으면 null
+   */
+  public UserSession disconnect(Session session) throws IOException {
     UserSession user = registry.removeBySession(session);
-    roomManager.getRoom(user.getRoomName()).leave(user);
+    if (user == null) {
+      return null;
+    }
+    final Room room = roomManager.findRoom(user.getRoomName());
+    if (room != null) {
+      roomManager.leave(room, user);
+      forgetChatIfClosed(room);
+    }
+    return user;
   }
 
-  private void joinRoom(JsonObject params, Session session) throws IOException {
-    final String roomName = params.get("room").getAsString();
-    final String name = params.get("name").getAsString();
+  private void joinRoom(SignalMessage params, Session session) throws IOException {
+    final String roomName = params.getRoom();
+    final String name = params.getName();
     log.info("PARTICIPANT {}: trying to join room {}", name, roomName);
 
-    Room room = roomManager.getRoom(roomName);
-    UserSession user = room.join(name, session);
-
+    //room 파라미터 없이 연결한 예전 클라이언트는 인스턴스 하나일 때만 제대로 들어온다.
+    final Object routedRoom = session.getUserProperties().get(ROUTED_ROOM);
+    if (routedRoom != null && !routedRoom.equals(roomName)) {
+      //로드밸런서는 연결한 방 기준으로 인스턴스를 골랐다. 다른 방에 들어가면 그 방의 인스턴스가 아닐 수 있다.
+      log.warn("PARTICIPANT {}: connected for room {} but joining {}", name, routedRoom, roomName);
+      rejectJoin(session, name, roomName);
+      return;
+    }
 
+    final UserSession user;
+    try {
+      user = roomManager.join(roomName, name, session);
+    } catch (RoomUnavailable e) {
+      //로드밸런서가 방을 다른 인스턴스로 보냈다. (인스턴스가 늘거나 줄어 해시가 바뀐 경우) 같은 이름의 방을 하나 더 만들지 않고 거절한다.
+      log.warn("PARTICIPANT {}: room {} is owned by another instance", name, roomName);
+      rejectJoin(session, name, roomName);
+      return;
+    }
     registry.register(user);
+    //최근 채팅은 existingParticipants 다음에 보낸다. 버퍼가 없는 방은 DB 를 읽는 동안 시그널링 스레드를 잡지 않는다.
+    chatHistory.recent(user.getRoomName()).thenAccept(history -> sendChatHistory(user, history));
+  }
 
+  //입장 전이라 UserSession 이 없어도 송신 큐로 보낸다. 클라이언트는 연결을 끊고 잠시 뒤 다시 연결한다.
+  private void rejectJoin(Session session, String name, String roomName) throws IOException {
+    final JsonObject unavailable = new JsonObject();
+    unavailable.addProperty("id", "roomUnavailable");
+    unavailable.addProperty("room", roomName);
+    new OutboundMessageQueue(name, session).enqueue(unavailable.toString());
+  }
 
+  private void sendChatHistory(UserSession user, JsonArray history) {
+    if (history.size() == 0) {
+      return;
+    }
+    final JsonObject frame = new JsonObject();
+    frame.addProperty("id", "chatHistory");
+    frame.add("messages", history);
+    try {
+      user.sendMessage(frame);
+    } catch (IOException e) {
+      log.debug("PARTICIPANT {}: could not send chat history", user.getName(), e);
+    }
   }
 
   private void leaveRoom(UserSession user) throws IOException {
-    final Room room = roomManager.getRoom(user.getRoomName());
-    room.leave(user);
-    if (room.getParticipants().isEmpty()) {
-      roomManager.removeRoom(room);
+    if (user == null) {
+      return;
+    }
+    final Room room = roomManager.findRoom(user.getRoomName());
+    if (room == null) {
+      return;
+    }
+    roomManager.leave(room, user);
+    forgetChatIfClosed(room);
+  }
+
+  private void forgetChatIfClosed(Room room) {
+    if (room.isClosed()) {
+      chatBatcher.forget(room.getName());
     }
   }
 }
@@ -0,0 +1,63 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.justudy.backend.GroupCall.model.MediaServerPool;
+import com.justudy.backend.study.repository.StudyFrequencyRepository;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * PipelinePoolSchedule : KMS 별 MediaPipelinePool 관리 스케줄
+ * <p>
+ * 1. 오래 놀고 있는 파이프라인 해제 2. 곧 시작하는 스터디(study_frequency) 수만큼 파이프라인 미리 만들기
+ **/
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class PipelinePoolSchedule {
+
+  private final MediaServerPool mediaServers;
+  private final StudyFrequencyRepository studyFrequencyRepository;
+
+  //스터디 시작 몇 분 전부터 미리 만들어 둘지 (0 이면 사용 안함)
+  @Value("${groupcall.pipeline-pool.prewarm-minutes:10}")
+  private long prewarmMinutes;
+
+  @Scheduled(fixedDelayString = "${groupcall.pipeline-pool.evict-interval:60000}")
+  public void evictIdlePipelines() {
+    int evicted = mediaServers.evictExpired();
+    if (evicted > 0) {
+      log.info("Evicted {} idle media pipelines", evicted);
+    }
+  }
+
+  @Transactional(readOnly = true)
+  @Scheduled(cron = "${groupcall.pipeline-pool.prewarm-cron:0 */5 * * * ?}")
+  public void prewarmUpcomingStudies() {
+    if (prewarmMinutes <= 0) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    LocalTime from = now.toLocalTime();
+    LocalTime to = from.plusMinutes(prewarmMinutes);
+    if (to.isBefore(from)) {
+      to = LocalTime.MAX;//자정을 넘어가는 구간은 오늘 것만 본다.
+    }
+    //study_frequency_week 는 "월", "화" ... 로 저장된다.
+    String week = now.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.KOREAN);
+
+    long upcoming = studyFrequencyRepository.countStartingBetween(week, Time.valueOf(from),
+        Time.valueOf(to));
+    if (upcoming > 0) {
+      mediaServers.prewarm((int) Math.min(upcoming, Integer.MAX_VALUE));
+    }
+  }
+}
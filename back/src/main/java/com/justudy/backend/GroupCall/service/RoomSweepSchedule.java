@@ -0,0 +1,79 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.justudy.backend.GroupCall.model.MediaServerPool;
+import com.justudy.backend.GroupCall.model.Room;
+import com.justudy.backend.GroupCall.model.RoomManager;
+import com.justudy.backend.GroupCall.model.UserSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * RoomSweepSchedule : 퇴장 처리에서 빠진 것들을 주기적으로 정리하는 스케줄
+ * <p>
+ * 1. 웹소켓은 끊겼는데 OnClose 가 오지 않은 참가자 2. 참가자가 없는데 남아있는 방 3. 해제에 실패했거나 엔드포인트가 남아있는 파이프라인
+ **/
+@Slf4j
+@Component
+public class RoomSweepSchedule {
+
+  private final RoomManager roomManager;
+  private final GroupCallService groupCallService;
+  private final MediaServerPool mediaServers;
+
+  private final Counter sweptSessions;
+  private final Counter sweptRooms;
+  private final Counter reclaimedPipelines;
+
+  public RoomSweepSchedule(RoomManager roomManager, GroupCallService groupCallService,
+      MediaServerPool mediaServers, MeterRegistry meterRegistry) {
+    this.roomManager = roomManager;
+    this.groupCallService = groupCallService;
+    this.mediaServers = mediaServers;
+    this.sweptSessions = meterRegistry.counter("groupcall.sweeper.reclaimed", "kind", "session");
+    this.sweptRooms = meterRegistry.counter("groupcall.sweeper.reclaimed", "kind", "room");
+    this.reclaimedPipelines = meterRegistry.counter("groupcall.sweeper.reclaimed", "kind",
+        "pipeline");
+  }
+
+  @Scheduled(fixedDelayString = "${groupcall.sweeper.interval:30000}")
+  public void sweep() {
+    int sessions = 0;
+    int rooms = 0;
+    for (final Room room : new ArrayList<>(roomManager.getRooms())) {
+      for (final UserSession user : new ArrayList<>(room.getParticipants())) {
+        if (user.getSession().isOpen()) {
+          continue;
+        }
+        try {
+          if (groupCallService.disconnect(user.getSession()) == null) {
+            //레지스트리에는 없는데 방에만 남아있는 경우
+            roomManager.leave(room, user);
+          }
+          sessions++;
+        } catch (IOException | RuntimeException e) {
+          log.warn("Could not sweep user {} in room {}", user.getName(), room.getName(), e);
+        }
+      }
+      if (room.retireIfEmpty()) {
+        roomManager.removeRoom(room);
+        rooms++;
+      }
+    }
+    //다른 인스턴스가 이 인스턴스의 방을 가져가지 않도록 소유 기간을 늘린다.
+    roomManager.renewRooms();
+    final int pipelines = mediaServers.reclaim();
+
+    sweptSessions.increment(sessions);
+    sweptRooms.increment(rooms);
+    reclaimedPipelines.increment(pipelines);
+    if (sessions + rooms + pipelines > 0) {
+      log.info("Swept {} stale sessions, {} empty rooms, {} leaked pipelines", sessions, rooms,
+          pipelines);
+    }
+  }
+}
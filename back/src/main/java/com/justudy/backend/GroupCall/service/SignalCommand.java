@@ -0,0 +1,16 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.justudy.backend.GroupCall.dto.request.SignalMessage;
+import com.justudy.backend.GroupCall.model.UserSession;
+import javax.websocket.Session;
+
+/**
+ * SignalCommand : 메시지 id 하나를 처리하는 핸들러
+ * <p>
+ * GroupCallService 가 id 별로 등록해두고 OnMessage 에서 꺼내 쓴다. user 는 아직 방에 들어오지 않은 세션이면 null 이다.
+ **/
+@FunctionalInterface
+public interface SignalCommand {
+
+  void handle(Session session, UserSession user, SignalMessage message) throws Exception;
+}
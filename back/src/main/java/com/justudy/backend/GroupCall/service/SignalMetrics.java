@@ -0,0 +1,51 @@
+package com.justudy.backend.GroupCall.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * SignalMetrics : 시그널링 메시지 id 별 처리 건수와 처리 시간
+ * <p>
+ * 타이머 count 가 곧 메시지 수다. 등록되지 않은 id 는 "unknown" 하나로 모아서 클라이언트가 태그 수를 늘리지 못하게 한다.
+ **/
+@Component
+public class SignalMetrics {
+
+  static final String UNKNOWN = "unknown";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public SignalMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  //GroupCallService 에 등록된 명령 id 만 태그로 쓴다.
+  public void register(Set<String> commandIds) {
+    commandIds.forEach(this::timer);
+    timer(UNKNOWN);
+  }
+
+  public void record(String id, long nanos) {
+    Timer timer = id == null ? null : timers.get(id);
+    if (timer == null) {
+      timer = timers.get(UNKNOWN);
+    }
+    timer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private Timer timer(String id) {
+    return timers.computeIfAbsent(id, key -> Timer.builder("groupcall.signal")
+        .description("Signaling messages handled, by message id")
+        .tag("id", key)
+        .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5),
+            Duration.ofMillis(25), Duration.ofMillis(100), Duration.ofMillis(500))
+        .register(meterRegistry));
+  }
+}
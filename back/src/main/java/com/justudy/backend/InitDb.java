@@ -74,6 +74,10 @@ public class InitDb {
 
 
         public void init() throws ParseException {
+            //스키마가 재시작 때 지워지지 않으므로(Flyway) 비어있는 DB 에만 넣는다. 더미 데이터는 시퀀스 값(50, 53, ...)을 가정한다.
+            if (categoryRepository.count() > 0) {
+                return;
+            }
             saveCategory();
             saveImageFile();
             saveMember();
@@ -138,26 +142,20 @@ public class InitDb {
         }
 
         private void saveRank(){
-            rankDummy.renewalStudyYesterdayRank();
-            rankDummy.renewalStudyWeekRank();
-            rankDummy.renewalStudyMonthRank();
-            rankDummy.renewalPersonYesterdayRank();
-            rankDummy.renewalPersonWeekRank();
-            rankDummy.renewalPersonMonthRank();
-
+            rankDummy.renewalRank();
         }
         private void saveTimer() {
             for (int i = 0; i < 10; i++) {
                 long memberSequence = 50 + (3 * i);
                 for (int count = 1; count <= 30; count++) {
                     Date day = Date.valueOf(LocalDate.now().minusDays(count));
-                    memberActivityService.saveMemberAcitivity(
+                    memberActivityService.saveMemberAcitivityNow(
                         new ActivityRequest((long) (Math.random() * 50), "frontend"), memberSequence,
                         day);
                 }
                 for (int count = 1; count <= 30; count++) {
                     Date day = Date.valueOf(LocalDate.now().minusDays(count));
-                    memberActivityService.saveMemberAcitivity(
+                    memberActivityService.saveMemberAcitivityNow(
                         new ActivityRequest((long) (Math.random() * 50), "backend"), memberSequence,
                         day);
                 }
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "community_bookmark")
+@Table(name = "community_bookmark", indexes = @Index(name = "idx_community_bookmark_community_member",
+        columnList = "community_sequence, member_sequence"))
 @Entity
 public class CommunityBookmarkEntity implements Serializable {
 
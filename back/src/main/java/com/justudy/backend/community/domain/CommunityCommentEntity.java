@@ -29,7 +29,7 @@ public class CommunityCommentEntity {
     private LocalDateTime createdTime;
     @Column(name = "comment_modified_time")
     private LocalDateTime modifiedTime;
-    @Column(name = "comment_is_deleted", columnDefinition = "TINYINT(1)")
+    @Column(name = "comment_is_deleted")
     private Boolean isDeleted;
     @Column(name = "comment_group")
     private Integer group;
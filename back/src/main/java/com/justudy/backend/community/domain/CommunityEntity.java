@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
-@Table(name = "community")
+@Table(name = "community", indexes = {
+        @Index(name = "idx_community_highlighted", columnList = "community_is_highlighted, community_seq"),
+        @Index(name = "idx_community_week_love", columnList = "community_week_love_count")})
 @Entity
 public class CommunityEntity {
     @Id
@@ -43,10 +45,10 @@ public class CommunityEntity {
     @Column(name = "community_modified_time")
     private LocalDateTime modifiedTime;
 
-    @Column(name = "community_is_deleted", columnDefinition = "TINYINT(1)")
+    @Column(name = "community_is_deleted")
     private Boolean isDeleted;
 
-    @Column(name = "community_is_highlighted", columnDefinition = "TINYINT(1)")
+    @Column(name = "community_is_highlighted")
     private Boolean isHighlighted;
 
     @Column(name = "community_week_love_count")
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "community_love")
+@Table(name = "community_love", indexes = @Index(name = "idx_community_love_community_member",
+        columnList = "community_sequence, member_sequence"))
 @Entity
 public class CommunityLoveEntity implements Serializable {
 
@@ -1,8 +1,11 @@
 package com.justudy.backend.member.repository;
 
 import com.justudy.backend.member.domain.MemberEntity;
+import com.justudy.backend.rank.dto.response.RankProfile;
 import com.querydsl.core.Tuple;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MemberRepositoryCustom {
@@ -18,4 +21,10 @@ public interface MemberRepositoryCustom {
     Optional<String> findSsafyId(String ssafyId);
 
     Optional<Long> findSequenceByNickname(String nickname);
+
+    //(nickname, sequence) 를 한번에 찾는다
+    List<Tuple> findSequencesByNicknames(Collection<String> nicknames);
+
+    //랭킹에 보여줄 (seq, 닉네임, 이미지 seq) 를 한번에 찾는다
+    List<RankProfile> findRankProfiles(Collection<Long> sequences);
 }
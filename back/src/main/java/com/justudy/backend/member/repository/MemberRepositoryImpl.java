@@ -1,10 +1,14 @@
 package com.justudy.backend.member.repository;
 
 import com.justudy.backend.member.domain.MemberEntity;
+import com.justudy.backend.rank.dto.response.RankProfile;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static com.justudy.backend.file.domain.QUploadFileEntity.uploadFileEntity;
@@ -74,4 +78,23 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .fetchFirst()
         );
     }
+
+    @Override
+    public List<Tuple> findSequencesByNicknames(Collection<String> nicknames) {
+        return queryFactory
+                .select(memberEntity.nickname, memberEntity.sequence)
+                .from(memberEntity)
+                .where(memberEntity.nickname.in(nicknames))
+                .fetch();
+    }
+
+    @Override
+    public List<RankProfile> findRankProfiles(Collection<Long> sequences) {
+        return queryFactory
+                .select(Projections.constructor(RankProfile.class, memberEntity.sequence,
+                        memberEntity.nickname, memberEntity.imageFile.sequence))
+                .from(memberEntity)
+                .where(memberEntity.sequence.in(sequences))
+                .fetch();
+    }
 }
@@ -1,15 +1,48 @@
 package com.justudy.backend.rank.common;
 
+import java.time.LocalDate;
+
 public enum RankType implements RankEnumModel {
-  YESTERDAY("어제"),
-  WEEK("이번주"),
-  MONTH("이번달");
+  YESTERDAY("어제") {
+    @Override
+    public LocalDate from(LocalDate today) {
+      return today.minusDays(2);
+    }
+
+    @Override
+    public LocalDate to(LocalDate today) {
+      return today.minusDays(1);
+    }
+  },
+  WEEK("이번주") {
+    @Override
+    public LocalDate from(LocalDate today) {
+      return today.minusWeeks(1);
+    }
+  },
+  MONTH("이번달") {
+    @Override
+    public LocalDate from(LocalDate today) {
+      return today.minusMonths(1);
+    }
+  };
   private final String value;
 
   RankType(String value) {
     this.value = value;
   }
 
+  //집계 기간은 (from, to]
+  public abstract LocalDate from(LocalDate today);
+
+  public LocalDate to(LocalDate today) {
+    return today;
+  }
+
+  public boolean contains(LocalDate today, LocalDate day) {
+    return day.isAfter(from(today)) && !day.isAfter(to(today));
+  }
+
   @Override
   public String getKey() {
     return name();
@@ -1,14 +1,22 @@
 package com.justudy.backend.rank.controller;
 
+import com.justudy.backend.exception.ForbiddenRequest;
+import com.justudy.backend.exception.InvalidRequest;
+import com.justudy.backend.login.infra.SessionConst;
 import com.justudy.backend.rank.common.RankGroup;
 import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.dto.response.RankPageResponse;
 import com.justudy.backend.rank.dto.response.RankResponse;
 import com.justudy.backend.rank.service.RankService;
+import java.util.Locale;
+import javax.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -18,6 +26,8 @@ import java.util.List;
 @RequestMapping("/api/rank")
 public class RankController {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final RankService rankService;
 
   @GetMapping("/members/yesterday")
@@ -55,4 +65,48 @@ public class RankController {
     return ResponseEntity.status(HttpStatus.OK)
         .body(rankService.readAllByGroupAndType(RankGroup.GROUP, RankType.MONTH));
   }
+
+  //{type} 은 yesterday, week, month
+  @GetMapping("/members/{type}/page")
+  public ResponseEntity<RankPageResponse> readMembersPage(@PathVariable String type,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    return readPage(RankGroup.PERSON, type, page, size);
+  }
+
+  @GetMapping("/study/{type}/page")
+  public ResponseEntity<RankPageResponse> readStudyPage(@PathVariable String type,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    return readPage(RankGroup.GROUP, type, page, size);
+  }
+
+  //로그인한 회원의 순위. 랭킹에 없으면 204
+  @GetMapping("/members/{type}/me")
+  public ResponseEntity<RankResponse> readMyRank(@PathVariable String type, HttpSession session) {
+    Long loginSequence = (Long) session.getAttribute(SessionConst.LOGIN_USER);
+    if (loginSequence == null) {
+      throw new ForbiddenRequest("login", "로그인이 필요합니다.");
+    }
+    RankResponse rank = rankService.readRankOf(RankGroup.PERSON, toRankType(type), loginSequence);
+    if (rank == null) {
+      return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
+    }
+    return ResponseEntity.status(HttpStatus.OK).body(rank);
+  }
+
+  private ResponseEntity<RankPageResponse> readPage(RankGroup rankGroup, String type, int page,
+      int size) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    return ResponseEntity.status(HttpStatus.OK)
+        .body(rankService.readPage(rankGroup, toRankType(type), Math.max(0, page), pageSize));
+  }
+
+  private RankType toRankType(String type) {
+    try {
+      return RankType.valueOf(type.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequest("type", "잘못된 랭킹 기간입니다.");
+    }
+  }
 }
@@ -2,13 +2,8 @@ package com.justudy.backend.rank.controller;
 
 import com.justudy.backend.rank.common.RankGroup;
 import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.service.LiveRanking;
 import com.justudy.backend.rank.service.RankService;
-import com.justudy.backend.timer.dto.response.ActivityToRank;
-import com.justudy.backend.timer.service.MemberActivityService;
-import com.justudy.backend.timer.service.RoomActivityService;
-import java.sql.Date;
-import java.time.LocalDate;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -16,6 +11,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * RankSchedule : 랭킹은 LiveRanking 이 실시간으로 계산하고, 여기서는 DB 와 맞추고 저장만 한다.
+ **/
 @Slf4j
 @EnableScheduling
 @EnableAsync
@@ -24,85 +22,34 @@ import org.springframework.stereotype.Component;
 public class RankSchedule {
 
   private final RankService rankService;
-  private final MemberActivityService memberActivityService;
-  private final RoomActivityService roomActivityService;
-
-
-  //  @Scheduled(cron = "30 * * * * *")//초 분 시 일 월 요일
-  @Scheduled(cron = "0 0 1 * * ?")
-  public void renewalPersonYesterdayRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusDays(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.PERSON, RankType.YESTERDAY);
-    List<ActivityToRank> readData = memberActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.PERSON, RankType.YESTERDAY, readData);
-    }
-  }
-
-  @Scheduled(cron = "0 10 1 * * ?")
-  public void renewalPersonWeekRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusWeeks(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.PERSON, RankType.WEEK);
-    List<ActivityToRank> readData = memberActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.PERSON, RankType.WEEK, readData);
-    }
-
-  }
-
-  @Scheduled(cron = "0 20 1 * * ?")
-  public void renewalPersonMonthRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusMonths(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.PERSON, RankType.MONTH);
-    List<ActivityToRank> readData = memberActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.PERSON, RankType.MONTH, readData);
+  private final LiveRanking liveRanking;
+
+  //다른 인스턴스에서 저장된 시간과 오차를 날짜별 합계 테이블에서 다시 읽어 맞춘다.
+  @Scheduled(fixedDelayString = "${rank.live.rebuild-interval:3600000}")
+  public void rebuildLiveRank() {
+    try {
+      liveRanking.rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild live ranking", e);
     }
-
-  }
-
-  @Scheduled(cron = "0 30 1 * * ?")
-  public void renewalStudyYesterdayRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusDays(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.GROUP, RankType.YESTERDAY);
-    List<ActivityToRank> readData = roomActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.GROUP, RankType.YESTERDAY, readData);
-    }
-
   }
 
-  @Scheduled(cron = "0 40 1 * * ?")
-  public void renewalStudyWeekRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusWeeks(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.GROUP, RankType.WEEK);
-    List<ActivityToRank> readData = roomActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.GROUP, RankType.WEEK, readData);
+  //새 세대를 다 저장하고 공개한 뒤에 이전 세대를 지우므로, 저장하는 동안에도 DB 의 랭킹은 비지 않는다.
+  @Scheduled(fixedDelayString = "${rank.live.snapshot-interval:600000}")
+  public void snapshotRank() {
+    if (!liveRanking.isLoaded()) {
+      return;
     }
-
-  }
-
-  @Scheduled(cron = "0 50 1 * * ?")
-  public void renewalStudyMonthRank() {
-    Date agoDay = Date.valueOf(LocalDate.now().minusMonths(1));
-    Date curDay = Date.valueOf(LocalDate.now());
-
-    rankService.deleteAllByGroupAndType(RankGroup.GROUP, RankType.MONTH);
-    List<ActivityToRank> readData = roomActivityService.getSumTimeByPeriod(agoDay, curDay);
-    if (readData != null) {
-      rankService.saveRank(RankGroup.GROUP, RankType.MONTH, readData);
+    for (RankGroup rankGroup : RankGroup.values()) {
+      for (RankType rankType : RankType.values()) {
+        try {
+          final long generation = rankService.publishRank(rankGroup, rankType,
+              liveRanking.top(rankGroup, rankType, RankService.TOP_SIZE));
+          rankService.deleteOldGenerations(rankGroup, rankType, generation);
+        } catch (RuntimeException e) {
+          log.warn("Could not save {} {} rank snapshot", rankGroup, rankType, e);
+        }
+      }
     }
-
   }
 }
@@ -10,7 +10,9 @@ import java.sql.Time;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
 @Entity
-@Table(name = "ranking")
+@Table(name = "ranking", uniqueConstraints = @UniqueConstraint(
+    name = "uk_ranking_group_type_generation_order",
+    columnNames = {"rank_group", "rank_type", "rank_generation", "rank_order"}))
 public class RankEntity {
   @Id
   @GeneratedValue(strategy = GenerationType.AUTO)
@@ -31,10 +33,13 @@ public class RankEntity {
   private Long rankTime;
   @Column(name = "rank_image")
   private Long rankImage;
+  //RankGenerationEntity 가 가리키는 세대만 공개된다.
+  @Column(name = "rank_generation", nullable = false)
+  private Long rankGeneration;
 
   @Builder
   public RankEntity(Long sequence, RankGroup rankGroup, RankType rankType, Integer rankOrder,
-      String rankName, Long rankTime,Long rankImage) {
+      String rankName, Long rankTime, Long rankImage, Long rankGeneration) {
     this.sequence = sequence;
     this.rankGroup = rankGroup;
     this.rankType = rankType;
@@ -42,6 +47,7 @@ public class RankEntity {
     this.rankName = rankName;
     this.rankTime = rankTime;
     this.rankImage = rankImage;
+    this.rankGeneration = rankGeneration;
   }
 
 }
@@ -0,0 +1,55 @@
+package com.justudy.backend.rank.domain;
+
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * RankGenerationEntity : (그룹, 기간) 마다 지금 공개된 ranking 세대
+ * <p>
+ * 새 세대의 행을 모두 넣은 뒤 이 값만 바꾸므로, 읽는 쪽은 항상 완성된 한 세대만 본다.
+ **/
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "ranking_generation", uniqueConstraints = @UniqueConstraint(
+    name = "uk_ranking_generation", columnNames = {"rank_group", "rank_type"}))
+@Entity
+public class RankGenerationEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "rank_generation_seq")
+  private Long sequence;
+
+  @Column(name = "rank_group", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private RankGroup rankGroup;
+
+  @Column(name = "rank_type", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private RankType rankType;
+
+  @Column(name = "rank_generation", nullable = false)
+  private Long generation;
+
+  public RankGenerationEntity(RankGroup rankGroup, RankType rankType, Long generation) {
+    this.rankGroup = rankGroup;
+    this.rankType = rankType;
+    this.generation = generation;
+  }
+
+  public void publish(Long generation) {
+    this.generation = generation;
+  }
+}
@@ -0,0 +1,22 @@
+package com.justudy.backend.rank.dto.response;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class RankPageResponse {
+
+  //랭킹에 든 전체 수
+  private long total;
+  private int page;
+  private int size;
+  //order 는 page * size + 1 부터
+  private List<RankResponse> ranks;
+
+  public RankPageResponse(long total, int page, int size, List<RankResponse> ranks) {
+    this.total = total;
+    this.page = page;
+    this.size = size;
+    this.ranks = ranks;
+  }
+}
@@ -0,0 +1,18 @@
+package com.justudy.backend.rank.dto.response;
+
+import lombok.Data;
+
+//랭킹에 보여줄 이름과 이미지. 회원이면 닉네임, 스터디 방이면 스터디 이름
+@Data
+public class RankProfile {
+
+  private Long sequence;
+  private String name;
+  private Long image;
+
+  public RankProfile(Long sequence, String name, Long image) {
+    this.sequence = sequence;
+    this.name = name;
+    this.image = image;
+  }
+}
@@ -0,0 +1,29 @@
+package com.justudy.backend.rank.repository;
+
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.domain.RankGenerationEntity;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RankGenerationRepository extends JpaRepository<RankGenerationEntity, Long> {
+
+  //처음 공개하는 (그룹, 기간)이면 0 세대로 만든다. 동시에 만들어도 uk_ranking_generation 에서 하나만 남고 실패하지 않는다.
+  @Modifying
+  @Query(value = "insert into ranking_generation (rank_group, rank_type, rank_generation) "
+      + "values (:rankGroup, :rankType, 0) "
+      + "on duplicate key update rank_generation = rank_generation", nativeQuery = true)
+  int insertIfAbsent(@Param("rankGroup") String rankGroup, @Param("rankType") String rankType);
+
+  //공개하는 트랜잭션이 끝날 때까지 다른 공개를 기다리게 한다. (같은 세대 번호를 두 번 쓰지 않게)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<RankGenerationEntity> findByRankGroupAndRankType(RankGroup rankGroup,
+      RankType rankType);
+}
@@ -7,8 +7,14 @@ import java.util.List;
 
 public interface RankRepositoryCustom {
 
-  List<RankResponse> findAllByGroupAndType(RankGroup rankGroup, RankType rankType);
+  //공개된 세대의 순위 중 offset 부터 limit 개
+  List<RankResponse> findAllByGroupAndType(RankGroup rankGroup, RankType rankType, long offset,
+      long limit);
 
-  void deleteAllByGroupAndType(RankGroup rankGroup, RankType rankType);
+  //공개된 세대의 순위 수
+  long countByGroupAndType(RankGroup rankGroup, RankType rankType);
+
+  //generation 보다 이전 세대를 지운다.
+  long deleteGenerationsBefore(RankGroup rankGroup, RankType rankType, Long generation);
 
 }
@@ -3,8 +3,11 @@ package com.justudy.backend.rank.repository;
 import com.justudy.backend.rank.common.RankGroup;
 import com.justudy.backend.rank.common.RankType;
 import com.justudy.backend.rank.domain.QRankEntity;
+import com.justudy.backend.rank.domain.QRankGenerationEntity;
 import com.justudy.backend.rank.dto.response.RankResponse;
 import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -14,24 +17,48 @@ public class RankRepositoryImpl implements RankRepositoryCustom {
 
   private final JPAQueryFactory queryFactory;
   private final QRankEntity qRank = QRankEntity.rankEntity;
+  private final QRankGenerationEntity qGeneration = QRankGenerationEntity.rankGenerationEntity;
 
   @Override
-  public List<RankResponse> findAllByGroupAndType(RankGroup rankGroup, RankType rankType) {
+  public List<RankResponse> findAllByGroupAndType(RankGroup rankGroup, RankType rankType,
+      long offset, long limit) {
     return queryFactory
         .select(Projections.constructor(RankResponse.class, qRank.rankOrder, qRank.rankName,
             qRank.rankTime, qRank.rankImage))
         .from(qRank)
-        .where(qRank.rankGroup.eq(rankGroup), qRank.rankType.eq(rankType))
+        .where(published(rankGroup, rankType))
         .orderBy(qRank.rankOrder.asc())
-        .limit(10)
+        .offset(offset)
+        .limit(limit)
         .fetch();
   }
 
   @Override
-  public void deleteAllByGroupAndType(RankGroup rankGroup, RankType rankType) {
-    queryFactory
+  public long countByGroupAndType(RankGroup rankGroup, RankType rankType) {
+    final Long count = queryFactory
+        .select(qRank.count())
+        .from(qRank)
+        .where(published(rankGroup, rankType))
+        .fetchOne();
+    return count == null ? 0 : count;
+  }
+
+  private BooleanExpression published(RankGroup rankGroup, RankType rankType) {
+    return qRank.rankGroup.eq(rankGroup)
+        .and(qRank.rankType.eq(rankType))
+        .and(qRank.rankGeneration.eq(JPAExpressions
+            .select(qGeneration.generation)
+            .from(qGeneration)
+            .where(qGeneration.rankGroup.eq(rankGroup), qGeneration.rankType.eq(rankType))));
+  }
+
+  @Override
+  public long deleteGenerationsBefore(RankGroup rankGroup, RankType rankType,
+      Long generation) {
+    return queryFactory
         .delete(qRank)
-        .where(qRank.rankGroup.eq(rankGroup), qRank.rankType.eq(rankType))
+        .where(qRank.rankGroup.eq(rankGroup), qRank.rankType.eq(rankType),
+            qRank.rankGeneration.lt(generation))
         .execute();
   }
 
@@ -0,0 +1,438 @@
+package com.justudy.backend.rank.service;
+
+import com.justudy.backend.GroupCall.repository.StudyRoomRepository;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.dto.response.RankProfile;
+import com.justudy.backend.rank.service.RankingSet.Ranker;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.dto.response.ActivityToRank;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.justudy.backend.timer.repository.RoomActivityRepository;
+import com.querydsl.core.Tuple;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * LiveRanking : 공부 시간이 저장될 때마다 바로 바뀌는 랭킹
+ * <p>
+ * 그룹(개인, 스터디)마다 최근 한달의 (날짜 -> 주인 -> 시간) 과 기간(어제, 주, 달)별 RankingSet 을 들고 있다. 저장이 끝난 공부 시간은
+ * MemberActivityBuffer / StudySessionTimer 가 넘겨주고, 자정이 지나면 기간에서 빠진 날은 빼고 새로 들어온 날은 더한다. 다른 인스턴스에서 저장된
+ * 시간과 오차는 RankSchedule 이 주기적으로 DB(날짜별 합계)에서 다시 읽어 맞춘다.
+ **/
+@Slf4j
+@Component
+public class LiveRanking {
+
+  private final MemberActivityRepository memberActivityRepository;
+  private final RoomActivityRepository roomActivityRepository;
+  private final MemberRepository memberRepository;
+  private final StudyRoomRepository studyRoomRepository;
+  private final ActivityJdbcRepository activityJdbcRepository;
+  //합계와 저장 순번을 같은 시점에서 읽는다.
+  private final TransactionOperations snapshotReads;
+  private final Clock clock;
+
+  private final Map<RankGroup, Board> boards = new EnumMap<>(RankGroup.class);
+  //seq -> 이름, 이미지. 다시 읽을 때 비운다. (닉네임 변경 반영)
+  private final Map<RankGroup, Map<Long, RankProfile>> profiles = new EnumMap<>(RankGroup.class);
+  //다시 읽기는 한번에 하나만
+  private final Object rebuildLock = new Object();
+
+  @Autowired
+  public LiveRanking(MemberActivityRepository memberActivityRepository,
+      RoomActivityRepository roomActivityRepository, MemberRepository memberRepository,
+      StudyRoomRepository studyRoomRepository, ActivityJdbcRepository activityJdbcRepository,
+      PlatformTransactionManager transactionManager) {
+    this(memberActivityRepository, roomActivityRepository, memberRepository,
+        studyRoomRepository, activityJdbcRepository, snapshotReads(transactionManager),
+        Clock.systemDefaultZone());
+  }
+
+  LiveRanking(MemberActivityRepository memberActivityRepository,
+      RoomActivityRepository roomActivityRepository, MemberRepository memberRepository,
+      StudyRoomRepository studyRoomRepository, ActivityJdbcRepository activityJdbcRepository,
+      TransactionOperations snapshotReads, Clock clock) {
+    this.memberActivityRepository = memberActivityRepository;
+    this.roomActivityRepository = roomActivityRepository;
+    this.memberRepository = memberRepository;
+    this.studyRoomRepository = studyRoomRepository;
+    this.activityJdbcRepository = activityJdbcRepository;
+    this.snapshotReads = snapshotReads;
+    this.clock = clock;
+    for (RankGroup group : RankGroup.values()) {
+      boards.put(group, new Board());
+      profiles.put(group, new ConcurrentHashMap<>());
+    }
+  }
+
+  //DB 에서 한번이라도 읽었는지. 아직이면 RankService 는 ranking 테이블에서 준다.
+  public boolean isLoaded() {
+    return boards.values().stream().allMatch(Board::isLoaded);
+  }
+
+  //순위가 바뀔 수 있을 때마다 커진다. 아직 읽지 않았으면 -1 (RankService 가 캐시를 버릴지 정할 때 쓴다.)
+  public long getVersion(RankGroup group) {
+    return boards.get(group).getVersion(LocalDate.now(clock));
+  }
+
+  //저장이 끝난 공부 시간을 더한다. (ownerSeq 는 PERSON 이면 회원, GROUP 이면 study_room seq)
+  //flushSeq 는 ActivityJdbcRepository 가 돌려준 저장 순번. 마지막으로 읽은 합계에 이미 들어있으면 더하지 않는다.
+  public void record(RankGroup group, long flushSeq, List<ActivityRecord> records) {
+    boards.get(group).record(LocalDate.now(clock), flushSeq, records);
+  }
+
+  public List<ActivityToRank> top(RankGroup group, RankType type, int limit) {
+    return range(group, type, 0, limit);
+  }
+
+  //offset 명을 건너뛴 limit 명 (order 는 offset + 1 부터)
+  public List<ActivityToRank> range(RankGroup group, RankType type, int offset, int limit) {
+    final List<Ranker> rankers = boards.get(group).range(LocalDate.now(clock), type, offset,
+        limit);
+    final Map<Long, RankProfile> names = profilesOf(group, rankers);
+    final List<ActivityToRank> ret = new ArrayList<>(rankers.size());
+    for (int index = 0; index < rankers.size(); index++) {
+      ret.add(toRank(Math.max(0, offset) + index + 1, rankers.get(index), names));
+    }
+    return ret;
+  }
+
+  //랭킹에 든 주인 수
+  public int size(RankGroup group, RankType type) {
+    return boards.get(group).size(LocalDate.now(clock), type);
+  }
+
+  //owner 의 순위. 랭킹에 없으면 null
+  public ActivityToRank rankOf(RankGroup group, RankType type, long owner) {
+    final Board board = boards.get(group);
+    final Ranker ranker;
+    final int order;
+    synchronized (board) {
+      order = board.rankOf(LocalDate.now(clock), type, owner);
+      ranker = new Ranker(owner, board.scoreOf(type, owner));
+    }
+    if (order == 0) {
+      return null;
+    }
+    return toRank(order, ranker, profilesOf(group, List.of(ranker)));
+  }
+
+  private static ActivityToRank toRank(int order, Ranker ranker, Map<Long, RankProfile> names) {
+    final RankProfile profile = names.get(ranker.getOwner());
+    return new ActivityToRank(order, ranker.getScore(),
+        profile == null ? null : profile.getName(), profile == null ? null : profile.getImage());
+  }
+
+  //스키마와 더미 데이터가 준비된 뒤 처음 읽는다.
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not load live ranking, serving stored snapshots until the next rebuild", e);
+    }
+  }
+
+  /**
+   * 그룹마다 최근 한달의 날짜별 합계를 한번 읽어서 다시 만든다. 기간별 합계는 WindowTotals 에 먼저 모으고 RankingSet 에는 주인마다 한번만
+   * 넣는다. 합계와 저장 순번(activity_flush)을 한 트랜잭션에서 읽고, 읽는 동안 들어온 공부 시간 중 그 순번보다 뒤에 저장된 것만 끝나고 다시
+   * 더한다.
+   */
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      final LocalDate now = LocalDate.now(clock);
+      for (RankGroup group : RankGroup.values()) {
+        final Board board = boards.get(group);
+        board.beginRebuild();
+        final State fresh;
+        final DailyTimes read;
+        try {
+          read = snapshotReads.execute(status -> new DailyTimes(
+              activityJdbcRepository.readFlushSeq(flushName(group)), readDailyTimes(group, now)));
+          fresh = new State(now);
+          final WindowTotals totals = new WindowTotals(now);
+          for (Tuple row : read.rows) {
+            final Long owner = row.get(0, Long.class);
+            final LocalDate day = row.get(1, Date.class).toLocalDate();
+            final Long second = row.get(2, Long.class);
+            if (fresh.remember(owner, day, second)) {
+              totals.add(owner, day, second);
+            }
+          }
+          fresh.load(totals);
+        } catch (RuntimeException e) {
+          board.abortRebuild();
+          throw e;
+        }
+        board.finishRebuild(fresh, read.flushSeq);
+        profiles.get(group).clear();
+        log.debug("Live ranking {} rebuilt", group);
+      }
+    }
+  }
+
+  private static TransactionOperations snapshotReads(
+      PlatformTransactionManager transactionManager) {
+    final TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(true);
+    template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    return template;
+  }
+
+  private static String flushName(RankGroup group) {
+    return group == RankGroup.PERSON ? ActivityJdbcRepository.MEMBER_FLUSH
+        : ActivityJdbcRepository.ROOM_FLUSH;
+  }
+
+  private List<Tuple> readDailyTimes(RankGroup group, LocalDate now) {
+    final Date ago = Date.valueOf(oldest(now));
+    final Date cur = Date.valueOf(now);
+    if (group == RankGroup.PERSON) {
+      return memberActivityRepository.findDailyTimesByPeriod(ago, cur);
+    }
+    return roomActivityRepository.findDailyTimesByPeriod(ago, cur);
+  }
+
+  //캐시에 없는 이름만 한번에 읽는다.
+  private Map<Long, RankProfile> profilesOf(RankGroup group, List<Ranker> rankers) {
+    final Map<Long, RankProfile> cache = profiles.get(group);
+    final List<Long> missing = new ArrayList<>();
+    for (Ranker ranker : rankers) {
+      if (!cache.containsKey(ranker.getOwner())) {
+        missing.add(ranker.getOwner());
+      }
+    }
+    if (!missing.isEmpty()) {
+      final List<RankProfile> found = group == RankGroup.PERSON
+          ? memberRepository.findRankProfiles(missing)
+          : studyRoomRepository.findRankProfiles(missing);
+      found.forEach(profile -> cache.put(profile.getSequence(), profile));
+    }
+    return cache;
+  }
+
+  //모든 기간을 덮는 가장 이른 from (이 날 이전은 들고 있지 않는다)
+  static LocalDate oldest(LocalDate today) {
+    LocalDate oldest = today;
+    for (RankType type : RankType.values()) {
+      if (type.from(today).isBefore(oldest)) {
+        oldest = type.from(today);
+      }
+    }
+    return oldest;
+  }
+
+  private static final class DailyTimes {
+
+    private final long flushSeq;
+    private final List<Tuple> rows;
+
+    private DailyTimes(long flushSeq, List<Tuple> rows) {
+      this.flushSeq = flushSeq;
+      this.rows = rows;
+    }
+  }
+
+  /**
+   * 주인마다 기간(어제, 주, 달)별 합계를 long 배열 하나에 모은다. 한달치 날짜별 합계를 한번 훑으면서 모든 기간을 같이 더하므로 기간마다 다시
+   * 읽지 않는다. (배열의 칸은 RankType.ordinal())
+   */
+  private static final class WindowTotals {
+
+    private static final RankType[] TYPES = RankType.values();
+
+    private final LocalDate today;
+    private final Map<Long, long[]> totals = new HashMap<>();
+
+    private WindowTotals(LocalDate today) {
+      this.today = today;
+    }
+
+    private void add(long owner, LocalDate day, long second) {
+      long[] sums = null;
+      for (RankType type : TYPES) {
+        if (!type.contains(today, day)) {
+          continue;
+        }
+        if (sums == null) {
+          sums = totals.computeIfAbsent(owner, ignored -> new long[TYPES.length]);
+        }
+        sums[type.ordinal()] += second;
+      }
+    }
+
+    //합계가 0 보다 큰 주인을 set 에 넣는다. (행마다가 아니라 주인마다 한번)
+    private void addTo(RankType type, RankingSet set) {
+      totals.forEach((owner, sums) -> {
+        if (sums[type.ordinal()] > 0) {
+          set.add(owner, sums[type.ordinal()]);
+        }
+      });
+    }
+  }
+
+  private static final class Board {
+
+    //null 이면 아직 읽지 않음
+    private State state;
+    //state 를 읽을 때의 저장 순번. 이하는 이미 state 에 들어있다.
+    private long flushSeq;
+    //다시 읽는 동안 들어온 공부 시간 (저장 순번 -> 행)
+    private TreeMap<Long, List<ActivityRecord>> duringRebuild;
+    private long version;
+
+    private synchronized boolean isLoaded() {
+      return state != null;
+    }
+
+    private synchronized long getVersion(LocalDate now) {
+      return rollTo(now) ? version : -1;
+    }
+
+    private synchronized void record(LocalDate now, long seq, List<ActivityRecord> records) {
+      if (duringRebuild != null) {
+        duringRebuild.put(seq, records);
+      }
+      if (state == null || seq <= flushSeq) {
+        return;
+      }
+      state.roll(now);
+      records.forEach(state::apply);
+      version++;
+    }
+
+    private synchronized List<Ranker> range(LocalDate now, RankType type, int offset,
+        int limit) {
+      if (!rollTo(now)) {
+        return List.of();
+      }
+      return state.sets.get(type).range(offset, limit);
+    }
+
+    private synchronized int size(LocalDate now, RankType type) {
+      return rollTo(now) ? state.sets.get(type).size() : 0;
+    }
+
+    private synchronized int rankOf(LocalDate now, RankType type, long owner) {
+      return rollTo(now) ? state.sets.get(type).rankOf(owner) : 0;
+    }
+
+    private synchronized long scoreOf(RankType type, long owner) {
+      return state == null ? 0 : state.sets.get(type).scoreOf(owner);
+    }
+
+    //읽기 전이면 false
+    private boolean rollTo(LocalDate now) {
+      if (state == null) {
+        return false;
+      }
+      if (state.roll(now)) {
+        version++;
+      }
+      return true;
+    }
+
+    private synchronized void beginRebuild() {
+      duringRebuild = new TreeMap<>();
+    }
+
+    private synchronized void abortRebuild() {
+      duringRebuild = null;
+    }
+
+    private synchronized void finishRebuild(State fresh, long freshSeq) {
+      duringRebuild.tailMap(freshSeq, false).values()
+          .forEach(records -> records.forEach(fresh::apply));
+      duringRebuild = null;
+      state = fresh;
+      flushSeq = freshSeq;
+      version++;
+    }
+  }
+
+  private static final class State {
+
+    private LocalDate today;
+    private final TreeMap<LocalDate, Map<Long, Long>> days = new TreeMap<>();
+    private final Map<RankType, RankingSet> sets = new EnumMap<>(RankType.class);
+
+    private State(LocalDate today) {
+      this.today = today;
+      for (RankType type : RankType.values()) {
+        sets.put(type, new RankingSet());
+      }
+    }
+
+    private void apply(ActivityRecord record) {
+      apply(record.getOwnerSeq(), record.getDate().toLocalDate(), record.getSecond());
+    }
+
+    private void apply(Long owner, LocalDate day, Long second) {
+      if (!remember(owner, day, second)) {
+        return;
+      }
+      for (RankType type : RankType.values()) {
+        if (type.contains(today, day)) {
+          sets.get(type).add(owner, second);
+        }
+      }
+    }
+
+    //날짜별 합계에만 더한다. 들고 있지 않는 날이면 false
+    private boolean remember(Long owner, LocalDate day, Long second) {
+      if (owner == null || second == null || !day.isAfter(oldest(today))) {
+        return false;
+      }
+      days.computeIfAbsent(day, ignored -> new HashMap<>()).merge(owner, second, Long::sum);
+      return true;
+    }
+
+    private void load(WindowTotals totals) {
+      for (RankType type : RankType.values()) {
+        totals.addTo(type, sets.get(type));
+      }
+    }
+
+    //날짜가 바뀌면 기간에서 빠진 날은 빼고 새로 들어온 날은 더한다. 바뀌었으면 true
+    private boolean roll(LocalDate now) {
+      if (!now.isAfter(today)) {
+        return false;
+      }
+      for (Map.Entry<LocalDate, Map<Long, Long>> day : days.entrySet()) {
+        for (RankType type : RankType.values()) {
+          final boolean was = type.contains(today, day.getKey());
+          final boolean is = type.contains(now, day.getKey());
+          if (was == is) {
+            continue;
+          }
+          final RankingSet set = sets.get(type);
+          final long sign = is ? 1 : -1;
+          day.getValue().forEach((owner, second) -> set.add(owner, sign * second));
+        }
+      }
+      days.headMap(oldest(now), true).clear();
+      today = now;
+      return true;
+    }
+  }
+}
@@ -3,10 +3,16 @@ package com.justudy.backend.rank.service;
 import com.justudy.backend.rank.common.RankGroup;
 import com.justudy.backend.rank.common.RankType;
 import com.justudy.backend.rank.domain.RankEntity;
+import com.justudy.backend.rank.domain.RankGenerationEntity;
+import com.justudy.backend.rank.dto.response.RankPageResponse;
 import com.justudy.backend.rank.dto.response.RankResponse;
+import com.justudy.backend.rank.repository.RankGenerationRepository;
 import com.justudy.backend.rank.repository.RankRepository;
 import com.justudy.backend.timer.dto.response.ActivityToRank;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,21 +24,89 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class RankService {
 
+  //화면에 보여주는 순위 수
+  public static final int TOP_SIZE = 10;
+  //LiveRanking 을 아직 읽지 못했을 때의 캐시 버전
+  private static final long STORED = -1;
+
   private final RankRepository rankRepository;
+  private final RankGenerationRepository rankGenerationRepository;
+  private final LiveRanking liveRanking;
 
-  @Transactional
+  //(그룹, 기간) -> 마지막으로 만든 순위. 랭킹이 바뀌지 않았으면 요청마다 다시 만들지 않는다.
+  private final Map<RankGroup, Map<RankType, CachedRank>> cache = new ConcurrentHashMap<>();
+
+  /**
+   * 실시간 랭킹을 준다. 아직 DB 에서 읽기 전이면 마지막으로 공개한 세대를 준다. 돌려주는 리스트는 여러 요청이 같이 쓰므로 바꿀 수 없다.
+   */
   public List<RankResponse> readAllByGroupAndType(RankGroup rankGroup, RankType rankType) {
-    return rankRepository.findAllByGroupAndType(rankGroup, rankType);
+    final long version = liveRanking.getVersion(rankGroup);
+    final Map<RankType, CachedRank> byType =
+        cache.computeIfAbsent(rankGroup, ignored -> new ConcurrentHashMap<>());
+    final CachedRank cached = byType.get(rankType);
+    if (cached != null && cached.version == version) {
+      return cached.ranks;
+    }
+    //버전을 먼저 읽었으므로 캐시에 담기는 순위는 적어도 이 버전만큼은 새롭다.
+    final List<RankResponse> ranks = List.copyOf(version == STORED
+        ? rankRepository.findAllByGroupAndType(rankGroup, rankType, 0, TOP_SIZE)
+        : toResponses(liveRanking.top(rankGroup, rankType, TOP_SIZE)));
+    byType.put(rankType, new CachedRank(version, ranks));
+    return ranks;
   }
 
-  @Transactional
-  public void deleteAllByGroupAndType(RankGroup rankGroup, RankType rankType) {
-    rankRepository.deleteAllByGroupAndType(rankGroup, rankType);
+  /**
+   * page 번째 size 개의 순위. 실시간 랭킹에서 필요한 만큼만 꺼내므로 요청마다 정렬하지 않는다. 아직 읽기 전이면 저장된 상위 TOP_SIZE 개
+   * 안에서만 준다.
+   */
+  public RankPageResponse readPage(RankGroup rankGroup, RankType rankType, int page, int size) {
+    final long offset = (long) page * size;
+    if (!liveRanking.isLoaded()) {
+      return new RankPageResponse(rankRepository.countByGroupAndType(rankGroup, rankType), page,
+          size, rankRepository.findAllByGroupAndType(rankGroup, rankType, offset, size));
+    }
+    final int from = (int) Math.min(offset, Integer.MAX_VALUE);
+    return new RankPageResponse(liveRanking.size(rankGroup, rankType), page, size,
+        toResponses(liveRanking.range(rankGroup, rankType, from, size)));
+  }
+
+  //owner 가 몇 등인지. 랭킹에 없거나 아직 읽기 전이면 null
+  public RankResponse readRankOf(RankGroup rankGroup, RankType rankType, Long owner) {
+    if (owner == null || !liveRanking.isLoaded()) {
+      return null;
+    }
+    final ActivityToRank rank = liveRanking.rankOf(rankGroup, rankType, owner);
+    return rank == null ? null : toResponse(rank);
+  }
+
+  private static List<RankResponse> toResponses(List<ActivityToRank> ranks) {
+    List<RankResponse> ret = new ArrayList<>(ranks.size());
+    for (ActivityToRank rank : ranks) {
+      ret.add(toResponse(rank));
+    }
+    return ret;
+  }
+
+  private static RankResponse toResponse(ActivityToRank rank) {
+    return new RankResponse(rank.getOrder(), rank.getName(), rank.getSecond(), rank.getImage());
   }
 
+  /**
+   * 순위를 새 세대로 저장하고 공개한다. 새 행과 ranking_generation 의 값이 같이 커밋되므로 읽는 쪽은 이전 세대
+   * 전체 아니면 새 세대 전체를 본다. 이전 세대는 남아있으므로 공개한 뒤 deleteOldGenerations 로 지운다.
+   *
+   * @return 공개한 세대
+   */
   @Transactional
-  public void saveRank(RankGroup rankGroup, RankType rankType,
+  public long publishRank(RankGroup rankGroup, RankType rankType,
       List<ActivityToRank> memberActivityToRankList) {
+    rankGenerationRepository.insertIfAbsent(rankGroup.name(), rankType.name());
+    //행 잠금. 동시에 공개하면 뒤의 트랜잭션은 앞의 것이 커밋한 세대 다음 번호를 쓴다.
+    final RankGenerationEntity pointer = rankGenerationRepository
+        .findByRankGroupAndRankType(rankGroup, rankType)
+        .orElseThrow(() -> new IllegalStateException(
+            "ranking_generation row is missing for " + rankGroup + " " + rankType));
+    final long generation = pointer.getGeneration() + 1;
     for (ActivityToRank memberActivityToRank : memberActivityToRankList) {
       rankRepository.save(RankEntity.builder()
           .rankGroup(rankGroup)
@@ -41,7 +115,29 @@ public class RankService {
           .rankName(memberActivityToRank.getName())
           .rankTime(memberActivityToRank.getSecond())
           .rankImage(memberActivityToRank.getImage())
+          .rankGeneration(generation)
           .build());
     }
+    pointer.publish(generation);
+    return generation;
+  }
+
+  //공개된 세대보다 이전 세대를 지운다.
+  @Transactional
+  public void deleteOldGenerations(RankGroup rankGroup, RankType rankType, long generation) {
+    final long deleted = rankRepository.deleteGenerationsBefore(rankGroup, rankType, generation);
+    log.debug("Deleted {} rows older than {} {} generation {}", deleted, rankGroup, rankType,
+        generation);
+  }
+
+  private static final class CachedRank {
+
+    private final long version;
+    private final List<RankResponse> ranks;
+
+    private CachedRank(long version, List<RankResponse> ranks) {
+      this.version = version;
+      this.ranks = ranks;
+    }
   }
 }
@@ -0,0 +1,227 @@
+package com.justudy.backend.rank.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * RankingSet : 한 랭킹(그룹, 기간)의 정렬된 점수 집합
+ * <p>
+ * 노드마다 서브트리 크기를 들고 있는 트립(treap)이라 점수 변경, 몇 등인지(rankOf), offset 부터 limit 개(range) 모두 O(log n) 이다.
+ * 회원이 수만 명이어도 요청마다 전체를 정렬하지 않는다. 시간이 같으면 seq 가 작은 쪽이 앞이다. 동기화는 LiveRanking 이 한다.
+ **/
+class RankingSet {
+
+  private final Map<Long, Long> scores = new HashMap<>();
+  //우선순위는 트리 모양(균형)에만 쓰인다.
+  private final Random random = new Random();
+  private Node root;
+
+  //second 만큼 더한다. (기간에서 빠지는 날은 음수) 0 이하가 되면 랭킹에서 뺀다.
+  void add(long owner, long second) {
+    final Long before = scores.get(owner);
+    final long after = (before == null ? 0 : before) + second;
+    if (before != null) {
+      root = remove(root, new Ranker(owner, before));
+    }
+    if (after > 0) {
+      scores.put(owner, after);
+      root = insert(root, new Node(new Ranker(owner, after), random.nextInt()));
+    } else {
+      scores.remove(owner);
+    }
+  }
+
+  long scoreOf(long owner) {
+    return scores.getOrDefault(owner, 0L);
+  }
+
+  int size() {
+    return scores.size();
+  }
+
+  //1 등부터. 랭킹에 없으면 0
+  int rankOf(long owner) {
+    final Long score = scores.get(owner);
+    if (score == null) {
+      return 0;
+    }
+    final Ranker key = new Ranker(owner, score);
+    int ahead = 0;
+    Node node = root;
+    while (node != null) {
+      final int cmp = key.compareTo(node.ranker);
+      if (cmp == 0) {
+        return ahead + size(node.left) + 1;
+      }
+      if (cmp < 0) {
+        node = node.left;
+      } else {
+        ahead += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    throw new IllegalStateException("Ranker " + owner + " is missing from the tree");
+  }
+
+  List<Ranker> top(int limit) {
+    return range(0, limit);
+  }
+
+  //앞에서 offset 명을 건너뛰고 limit 명
+  List<Ranker> range(int offset, int limit) {
+    final int from = Math.max(0, offset);
+    final int to = (int) Math.min((long) from + Math.max(0, limit), size());
+    final List<Ranker> ret = new ArrayList<>(Math.max(0, to - from));
+    collect(root, from, to, ret);
+    return ret;
+  }
+
+  //서브트리 안의 순서 [from, to) 만 내려간다.
+  private static void collect(Node node, int from, int to, List<Ranker> out) {
+    if (node == null || from >= to) {
+      return;
+    }
+    final int left = size(node.left);
+    if (from < left) {
+      collect(node.left, from, Math.min(to, left), out);
+    }
+    if (from <= left && left < to) {
+      out.add(node.ranker);
+    }
+    if (to > left + 1) {
+      collect(node.right, Math.max(0, from - left - 1), to - left - 1, out);
+    }
+  }
+
+  private static Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (added.priority > node.priority) {
+      final Node[] parts = split(node, added.ranker);
+      added.left = parts[0];
+      added.right = parts[1];
+      return added.update();
+    }
+    if (added.ranker.compareTo(node.ranker) < 0) {
+      node.left = insert(node.left, added);
+    } else {
+      node.right = insert(node.right, added);
+    }
+    return node.update();
+  }
+
+  private static Node remove(Node node, Ranker ranker) {
+    if (node == null) {
+      return null;
+    }
+    final int cmp = ranker.compareTo(node.ranker);
+    if (cmp == 0) {
+      return merge(node.left, node.right);
+    }
+    if (cmp < 0) {
+      node.left = remove(node.left, ranker);
+    } else {
+      node.right = remove(node.right, ranker);
+    }
+    return node.update();
+  }
+
+  //[key 보다 앞, key 이후]
+  private static Node[] split(Node node, Ranker key) {
+    if (node == null) {
+      return new Node[]{null, null};
+    }
+    if (node.ranker.compareTo(key) < 0) {
+      final Node[] parts = split(node.right, key);
+      node.right = parts[0];
+      return new Node[]{node.update(), parts[1]};
+    }
+    final Node[] parts = split(node.left, key);
+    node.left = parts[1];
+    return new Node[]{parts[0], node.update()};
+  }
+
+  //left 의 모든 노드가 right 보다 앞이다.
+  private static Node merge(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      return left.update();
+    }
+    right.left = merge(left, right.left);
+    return right.update();
+  }
+
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static final class Node {
+
+    private final Ranker ranker;
+    private final int priority;
+    private int size = 1;
+    private Node left;
+    private Node right;
+
+    private Node(Ranker ranker, int priority) {
+      this.ranker = ranker;
+      this.priority = priority;
+    }
+
+    private Node update() {
+      size = size(left) + size(right) + 1;
+      return this;
+    }
+  }
+
+  static final class Ranker implements Comparable<Ranker> {
+
+    private final long owner;
+    private final long score;
+
+    Ranker(long owner, long score) {
+      this.owner = owner;
+      this.score = score;
+    }
+
+    long getOwner() {
+      return owner;
+    }
+
+    long getScore() {
+      return score;
+    }
+
+    @Override
+    public int compareTo(Ranker other) {
+      if (score != other.score) {
+        return Long.compare(other.score, score);
+      }
+      return Long.compare(owner, other.owner);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Ranker)) {
+        return false;
+      }
+      final Ranker other = (Ranker) o;
+      return owner == other.owner && score == other.score;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(owner) * 31 + Long.hashCode(score);
+    }
+  }
+}
@@ -53,7 +53,7 @@ public class StudyEntity {
     private String level;
     @Column(name = "study_online_offline")
     private String meeting;
-    @Column(name = "study_is_open", columnDefinition = "TINYINT(1)")
+    @Column(name = "study_is_open")
     private Boolean isOpen;
     @Column(name = "study_github")
     private String github;
@@ -23,7 +23,7 @@ public class StudyMemberEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "study_member_study_seq")
     private StudyEntity study;
-    @Column(name = "study_member_alarm", columnDefinition = "TINYINT(1)")
+    @Column(name = "study_member_alarm")
     private Boolean alarm;
     @Column(name = "study_member_badge")
     private Integer badge;
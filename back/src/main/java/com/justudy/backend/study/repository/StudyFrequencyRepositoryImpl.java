@@ -5,6 +5,7 @@ import com.justudy.backend.study.domain.StudyFrequencyEntity;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Date;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -29,4 +30,15 @@ public class StudyFrequencyRepositoryImpl implements StudyFrequencyRepositorySup
                 .execute();
     }
 
+    @Override
+    public long countStartingBetween(String week, Date from, Date to) {
+        Long count = queryFactory
+                .select(qStudyFrequencyEntity.count())
+                .from(qStudyFrequencyEntity)
+                .where(qStudyFrequencyEntity.week.eq(week),
+                        qStudyFrequencyEntity.startTime.between(from, to))
+                .fetchOne();
+        return count == null ? 0L : count;
+    }
+
 }
@@ -3,6 +3,7 @@ package com.justudy.backend.study.repository;
 
 import com.justudy.backend.study.domain.StudyFrequencyEntity;
 
+import java.util.Date;
 import java.util.List;
 
 
@@ -11,4 +12,6 @@ public interface StudyFrequencyRepositorySupport {
     List<StudyFrequencyEntity> readAllStudyFrequency(Long studySequence);
 
     void deleteByStudy(Long studyId);
+
+    long countStartingBetween(String week, Date from, Date to);
 }
@@ -1,17 +1,25 @@
 package com.justudy.backend.timer.controller;
 
+import com.justudy.backend.exception.InvalidRequest;
 import com.justudy.backend.login.infra.SessionConst;
 import com.justudy.backend.timer.dto.request.ActivityRequest;
+import com.justudy.backend.timer.dto.request.ActivitySummaryRequest;
+import com.justudy.backend.timer.dto.request.ActivitySummaryStat;
 import com.justudy.backend.timer.dto.request.CalendarRequest;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
 import com.justudy.backend.timer.dto.response.ActivitySubjectResponse;
+import com.justudy.backend.timer.dto.response.ActivitySummaryResponse;
 import com.justudy.backend.timer.dto.response.MemberActivityYesterdayResponse;
+import com.justudy.backend.timer.service.ActivityAverageCache.Period;
 import com.justudy.backend.timer.service.MemberActivityService;
 import com.justudy.backend.timer.service.RoomActivityService;
 import java.sql.Date;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import javax.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +38,12 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/timer")
 public class ActivityController {
 
+  private static final long MAX_POSTED_SECOND = 24 * 60 * 60;
+  //category_key 길이. 이보다 긴 값은 카테고리를 찾아보지 않고 거절한다.
+  private static final int MAX_CATEGORY_LENGTH = 50;
+  //한번에 요약할 수 있는 회원 수
+  private static final int MAX_SUMMARY_MEMBERS = 100;
+
   private final MemberActivityService memberActivityService;
   private final RoomActivityService roomActivityService;
 
@@ -38,6 +52,15 @@ public class ActivityController {
       @RequestBody ActivityRequest memberActivityRequest) {
 
     log.info("registerPersonalTime {} ", memberActivityRequest);
+    //화상 스터디 시간은 서버(StudySessionTimer)가 잰다. 여기로는 개인 타이머 시간만 들어온다.
+    Long second = memberActivityRequest.getSecond();
+    if (second == null || second < 0 || second > MAX_POSTED_SECOND) {
+      throw new InvalidRequest("second", "잘못된 공부 시간입니다.");
+    }
+    String category = memberActivityRequest.getCategory();
+    if (category != null && category.length() > MAX_CATEGORY_LENGTH) {
+      throw new InvalidRequest("category", "잘못된 카테고리입니다.");
+    }
     Long seq = (Long) session.getAttribute(SessionConst.LOGIN_USER);
     Date todayDate = Date.valueOf(LocalDate.now());
 
@@ -85,9 +108,7 @@ public class ActivityController {
   public ResponseEntity<HashMap> readWeekTimeAvg() {
     HashMap<String, Long> ret = new HashMap<String, Long>();
 
-    Date agoWeek = Date.valueOf(LocalDate.now().minusWeeks(1));
-    Date curWeek = Date.valueOf(LocalDate.now());
-    ret.put("time", memberActivityService.getAvgTimeByPeriod(agoWeek, curWeek));
+    ret.put("time", memberActivityService.getAvgTime(Period.WEEK));
 
     return ResponseEntity.status(HttpStatus.OK).body(ret);
   }
@@ -96,9 +117,7 @@ public class ActivityController {
   public ResponseEntity<HashMap> readMonthTimeAvg() {
     HashMap<String, Long> ret = new HashMap<String, Long>();
 
-    Date agoMonth = Date.valueOf(LocalDate.now().minusMonths(1));
-    Date curMonth = Date.valueOf(LocalDate.now());
-    ret.put("time", memberActivityService.getAvgTimeByPeriod(agoMonth, curMonth));
+    ret.put("time", memberActivityService.getAvgTime(Period.MONTH));
 
     return ResponseEntity.status(HttpStatus.OK).body(ret);
   }
@@ -116,6 +135,34 @@ public class ActivityController {
             memberCalendarRequest.getSeq()));
   }
 
+  //회원 여러 명의 week / month / category / calendar 를 한번에 준다. (프로필 카드 목록)
+  @PostMapping("/members/summary")
+  public ResponseEntity<List<ActivitySummaryResponse>> readSummaries(
+      @RequestBody ActivitySummaryRequest summaryRequest) {
+    List<Long> seqs = summaryRequest.getSeqs();
+    if (seqs == null || seqs.isEmpty() || seqs.size() > MAX_SUMMARY_MEMBERS
+        || seqs.contains(null)) {
+      throw new InvalidRequest("seqs", "회원은 1명에서 " + MAX_SUMMARY_MEMBERS + "명까지 요청할 수 있습니다.");
+    }
+    Set<ActivitySummaryStat> stats = summaryRequest.getStats();
+    if (stats == null || stats.isEmpty()) {
+      stats = EnumSet.allOf(ActivitySummaryStat.class);
+    }
+
+    LocalDate today = LocalDate.now();
+    LocalDate calendarMonth = today.withDayOfMonth(1);
+    if (summaryRequest.getYear() != null && summaryRequest.getMonth() != null) {
+      try {
+        calendarMonth = LocalDate.of(summaryRequest.getYear(), summaryRequest.getMonth(), 1);
+      } catch (DateTimeException e) {
+        throw new InvalidRequest("month", "잘못된 날짜입니다.");
+      }
+    }
+
+    return ResponseEntity.status(HttpStatus.OK)
+        .body(memberActivityService.getSummaries(seqs, stats, today, calendarMonth));
+  }
+
   @PostMapping("/study-calendar")
   public ResponseEntity<List<ActivityCalendarResponse>> readStudyCalendarTimeBySeq(
       @RequestBody CalendarRequest roomCalendarRequest) {
@@ -0,0 +1,51 @@
+package com.justudy.backend.timer.domain;
+
+import com.justudy.backend.member.domain.MemberEntity;
+import java.sql.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * MemberActivityDailyEntity : member_activity 를 (회원, 날짜, 카테고리) 별로 미리 합친 테이블
+ * <p>
+ * member_activity 에 쓸 때 같은 트랜잭션에서 ActivityJdbcRepository 가 더해준다. 통계 조회는 이 테이블만 읽는다.
+ **/
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "member_activity_daily", uniqueConstraints = @UniqueConstraint(
+    name = "uk_member_activity_daily",
+    columnNames = {"member_seq", "member_activity_daily_date", "member_activity_daily_category"}),
+    //날짜로 모든 회원을 읽는 쿼리(어제 1등, 기간 랭킹, 평균)가 테이블을 읽지 않도록 시간까지 넣는다.
+    indexes = @Index(name = "idx_member_activity_daily_date",
+        columnList = "member_activity_daily_date, member_seq, member_activity_daily_time"))
+@Entity
+public class MemberActivityDailyEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "member_activity_daily_seq")
+  private Long sequence;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "member_seq")
+  private MemberEntity member;
+
+  @Column(name = "member_activity_daily_date")
+  private Date date;
+  @Column(name = "member_activity_daily_category", nullable = false)
+  private String category;
+  @Column(name = "member_activity_daily_time")
+  private Long time;
+}
@@ -4,11 +4,13 @@ import com.justudy.backend.member.domain.MemberEntity;
 import java.sql.Date;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.OneToOne;
+import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -17,16 +19,18 @@ import lombok.NoArgsConstructor;
 
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "member_activity")
+@Table(name = "member_activity", indexes = @Index(name = "idx_member_activity_member_date",
+    columnList = "member_seq, member_activity_date"))
 @Entity
 public class MemberActivityEntity {
 
+  //ActivityJdbcRepository 가 JDBC batch insert 로 넣으므로 DB 가 키를 만든다.
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Column(name = "member_activity_seq")
   private Long sequence;
 
-  @OneToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "member_seq")
   private MemberEntity member;
 
@@ -35,7 +39,7 @@ public class MemberActivityEntity {
   private Date date;
   @Column(name = "member_activity_time")
   private Long time;
-  @Column(name = "member_activity_category")
+  @Column(name = "member_activity_category", nullable = false)
   private String category;
 
   @Builder
@@ -0,0 +1,48 @@
+package com.justudy.backend.timer.domain;
+
+import com.justudy.backend.GroupCall.domain.StudyRoomEntity;
+import java.sql.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * RoomActivityDailyEntity : room_activity 를 (스터디 방, 날짜, 카테고리) 별로 미리 합친 테이블
+ **/
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "room_activity_daily", uniqueConstraints = @UniqueConstraint(
+    name = "uk_room_activity_daily",
+    columnNames = {"study_room_seq", "room_activity_daily_date", "room_activity_daily_category"}),
+    indexes = @Index(name = "idx_room_activity_daily_date",
+        columnList = "room_activity_daily_date, study_room_seq, room_activity_daily_time"))
+@Entity
+public class RoomActivityDailyEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "room_activity_daily_seq")
+  private Long sequence;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "study_room_seq")
+  private StudyRoomEntity studyRoom;
+
+  @Column(name = "room_activity_daily_date")
+  private Date date;
+  @Column(name = "room_activity_daily_category", nullable = false)
+  private String category;
+  @Column(name = "room_activity_daily_time")
+  private Long time;
+}
@@ -4,11 +4,13 @@ import com.justudy.backend.GroupCall.domain.StudyRoomEntity;
 import java.sql.Date;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.OneToOne;
+import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -17,16 +19,18 @@ import lombok.NoArgsConstructor;
 
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "room_activity")
+@Table(name = "room_activity", indexes = @Index(name = "idx_room_activity_room_date",
+    columnList = "study_room_seq, room_activity_date"))
 @Entity
 public class RoomActivityEntity {
 
+  //ActivityJdbcRepository 가 JDBC batch insert 로 넣으므로 DB 가 키를 만든다.
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Column(name = "room_activity_seq")
   private Long sequence;
 
-  @OneToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "study_room_seq")//추후 추가 예정
   private StudyRoomEntity studyRoom;
 
@@ -34,7 +38,7 @@ public class RoomActivityEntity {
   private Date date;
   @Column(name = "room_activity_time")
   private Long time;
-  @Column(name = "room_activity_category")
+  @Column(name = "room_activity_category", nullable = false)
   private String category;
 
   @Builder
@@ -0,0 +1,20 @@
+package com.justudy.backend.timer.dto.request;
+
+import java.sql.Date;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * ActivityRecord : 서버가 잰 공부 시간 한 건 (member_seq 또는 study_room_seq 기준)
+ **/
+@Getter
+@ToString
+@AllArgsConstructor
+public class ActivityRecord {
+
+  private Long ownerSeq;
+  private Date date;
+  private Long second;
+  private String category;
+}
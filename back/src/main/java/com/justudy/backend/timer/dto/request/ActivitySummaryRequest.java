@@ -0,0 +1,19 @@
+package com.justudy.backend.timer.dto.request;
+
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivitySummaryRequest {
+
+  private List<Long> seqs;
+  private Set<ActivitySummaryStat> stats;
+  //CALENDAR 일 때만 사용. 없으면 이번 달
+  private Integer year;
+  private Integer month;
+}
@@ -0,0 +1,15 @@
+package com.justudy.backend.timer.dto.request;
+
+/**
+ * ActivitySummaryStat : 여러 회원 요약(/members/summary)에서 고를 수 있는 통계
+ **/
+public enum ActivitySummaryStat {
+  //최근 1주 합계 (/member/week)
+  WEEK,
+  //최근 1달 합계 (/member/month)
+  MONTH,
+  //카테고리별 합계 (/member/category)
+  CATEGORY,
+  //year, month 의 일별 합계 (/member-calendar)
+  CALENDAR
+}
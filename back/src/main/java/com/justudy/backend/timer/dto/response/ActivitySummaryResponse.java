@@ -0,0 +1,19 @@
+package com.justudy.backend.timer.dto.response;
+
+import java.util.List;
+import lombok.Data;
+
+//요청하지 않은 통계는 null
+@Data
+public class ActivitySummaryResponse {
+
+  private Long seq;
+  private Long week;
+  private Long month;
+  private List<ActivitySubjectResponse> category;
+  private List<ActivityCalendarResponse> calendar;
+
+  public ActivitySummaryResponse(Long seq) {
+    this.seq = seq;
+  }
+}
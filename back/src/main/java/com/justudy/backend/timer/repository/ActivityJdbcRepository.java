@@ -0,0 +1,130 @@
+package com.justudy.backend.timer.repository;
+
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * ActivityJdbcRepository : 공부 시간을 JDBC batch 로 저장하는 저장소
+ * <p>
+ * 원본 행(member_activity / room_activity)을 넣고, 같은 트랜잭션에서 날짜별 합계 테이블(*_daily)에 더한다. 저장할 때마다
+ * activity_flush 의 순번을 올려서 돌려준다. 합계를 다시 읽는 쪽은 readFlushSeq 를 같은 트랜잭션에서 읽어 어디까지 읽었는지 안다.
+ **/
+@RequiredArgsConstructor
+@Repository
+public class ActivityJdbcRepository {
+
+  static final String INSERT_MEMBER = "insert into member_activity "
+      + "(member_seq, member_activity_date, member_activity_time, member_activity_category) "
+      + "values (?, ?, ?, ?)";
+  static final String UPSERT_MEMBER_DAILY = "insert into member_activity_daily "
+      + "(member_seq, member_activity_daily_date, member_activity_daily_time, "
+      + "member_activity_daily_category) values (?, ?, ?, ?) "
+      + "on duplicate key update member_activity_daily_time = "
+      + "member_activity_daily_time + values(member_activity_daily_time)";
+  static final String INSERT_ROOM = "insert into room_activity "
+      + "(study_room_seq, room_activity_date, room_activity_time, room_activity_category) "
+      + "values (?, ?, ?, ?)";
+  static final String UPSERT_ROOM_DAILY = "insert into room_activity_daily "
+      + "(study_room_seq, room_activity_daily_date, room_activity_daily_time, "
+      + "room_activity_daily_category) values (?, ?, ?, ?) "
+      + "on duplicate key update room_activity_daily_time = "
+      + "room_activity_daily_time + values(room_activity_daily_time)";
+
+  //activity_flush.flush_name
+  public static final String MEMBER_FLUSH = "member";
+  public static final String ROOM_FLUSH = "room";
+  //행 잠금이 커밋까지 유지되므로 순번은 커밋 순서와 같다.
+  static final String BUMP_FLUSH = "update activity_flush set flush_seq = flush_seq + 1 "
+      + "where flush_name = ?";
+  static final String READ_FLUSH = "select flush_seq from activity_flush where flush_name = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * @return 이 저장의 순번 (저장할 것이 없으면 0)
+   */
+  @Transactional
+  public long insertMemberActivities(List<ActivityRecord> records) {
+    if (records.isEmpty()) {
+      return 0;
+    }
+    final List<Object[]> args = toArgs(records);
+    jdbcTemplate.batchUpdate(INSERT_MEMBER, args);
+    jdbcTemplate.batchUpdate(UPSERT_MEMBER_DAILY, args);
+    return bumpFlushSeq(MEMBER_FLUSH);
+  }
+
+  /**
+   * @return 이 저장의 순번 (저장할 것이 없으면 0)
+   */
+  @Transactional
+  public long insertRoomActivities(List<ActivityRecord> records) {
+    if (records.isEmpty()) {
+      return 0;
+    }
+    final List<Object[]> args = toArgs(records);
+    jdbcTemplate.batchUpdate(INSERT_ROOM, args);
+    jdbcTemplate.batchUpdate(UPSERT_ROOM_DAILY, args);
+    return bumpFlushSeq(ROOM_FLUSH);
+  }
+
+  /**
+   * 화상 스터디 시간(StudySessionTimer). 끝난 구간은 원본 행으로만, 체크포인트로 자른 시간은 날짜별 합계에만 넣는다.
+   *
+   * @return 이 저장의 순번 (저장할 것이 없으면 0)
+   */
+  @Transactional
+  public long saveMemberSessions(List<ActivityRecord> raw, List<ActivityRecord> daily) {
+    return saveSessions(INSERT_MEMBER, UPSERT_MEMBER_DAILY, MEMBER_FLUSH, raw, daily);
+  }
+
+  /**
+   * 방 시간. saveMemberSessions 와 같다.
+   *
+   * @return 이 저장의 순번 (저장할 것이 없으면 0)
+   */
+  @Transactional
+  public long saveRoomSessions(List<ActivityRecord> raw, List<ActivityRecord> daily) {
+    return saveSessions(INSERT_ROOM, UPSERT_ROOM_DAILY, ROOM_FLUSH, raw, daily);
+  }
+
+  //합계를 읽는 트랜잭션 안에서 먼저 읽어야 같은 시점의 값이다.
+  public long readFlushSeq(String flushName) {
+    final Long seq = jdbcTemplate.queryForObject(READ_FLUSH, Long.class, flushName);
+    return seq == null ? 0 : seq;
+  }
+
+  private long saveSessions(String insertRaw, String upsertDaily, String flushName,
+      List<ActivityRecord> raw, List<ActivityRecord> daily) {
+    if (raw.isEmpty() && daily.isEmpty()) {
+      return 0;
+    }
+    if (!raw.isEmpty()) {
+      jdbcTemplate.batchUpdate(insertRaw, toArgs(raw));
+    }
+    if (!daily.isEmpty()) {
+      jdbcTemplate.batchUpdate(upsertDaily, toArgs(daily));
+    }
+    return bumpFlushSeq(flushName);
+  }
+
+  private long bumpFlushSeq(String flushName) {
+    jdbcTemplate.update(BUMP_FLUSH, flushName);
+    return readFlushSeq(flushName);
+  }
+
+  //카테고리가 없으면 '' 로 넣는다. (null 끼리는 unique 키가 달라서 합계가 한 행으로 모이지 않는다)
+  private static List<Object[]> toArgs(List<ActivityRecord> records) {
+    final List<Object[]> args = new ArrayList<>(records.size());
+    for (ActivityRecord record : records) {
+      args.add(new Object[]{record.getOwnerSeq(), record.getDate(), record.getSecond(),
+          record.getCategory() == null ? "" : record.getCategory()});
+    }
+    return args;
+  }
+}
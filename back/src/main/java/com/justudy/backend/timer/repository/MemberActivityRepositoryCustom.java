@@ -3,9 +3,9 @@ package com.justudy.backend.timer.repository;
 import com.justudy.backend.member.domain.MemberEntity;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
 import com.justudy.backend.timer.dto.response.ActivitySubjectResponse;
-import com.justudy.backend.timer.dto.response.MemberActivityBeforeRank;
 import com.querydsl.core.Tuple;
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
 
 public interface MemberActivityRepositoryCustom {
@@ -16,10 +16,23 @@ public interface MemberActivityRepositoryCustom {
 
   List<ActivitySubjectResponse> findTimeByCategoryAndMember(MemberEntity member);
 
-  Tuple findAllTimeByPeriod(Date ago, Date cur);
+  //(member seq, 기간 합계). 평균 캐시를 채울 때 쓴다.
+  List<Tuple> findMemberTimesByPeriod(Date ago, Date cur);
 
   List<ActivityCalendarResponse> findCalendarById(Date ago, Date cur, MemberEntity member);
 
-  List<MemberActivityBeforeRank> sumTimeByPeriod(Date ago, Date cur);
+  //여러 회원 요약. 모두 member seq 가 첫번째 값이다.
+  //(seq, (weekAgo, cur] 합계, (monthAgo, cur] 합계)
+  List<Tuple> sumWeekAndMonthByMembers(Collection<Long> seqs, Date weekAgo, Date monthAgo,
+      Date cur);
+
+  //(seq, category, 합계)
+  List<Tuple> findTimeByCategoryAndMembers(Collection<Long> seqs);
+
+  //(seq, 일, 합계)
+  List<Tuple> findCalendarByMembers(Collection<Long> seqs, Date ago, Date cur);
+
+  //랭킹용 (seq, 날짜, 합계). 기간은 (ago, cur]
+  List<Tuple> findDailyTimesByPeriod(Date ago, Date cur);
 
 }
@@ -1,17 +1,19 @@
 package com.justudy.backend.timer.repository;
 
 import com.justudy.backend.member.domain.MemberEntity;
-import com.justudy.backend.timer.domain.QMemberActivityEntity;
+import com.justudy.backend.timer.domain.QMemberActivityDailyEntity;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
 import com.justudy.backend.timer.dto.response.ActivitySubjectResponse;
-import com.justudy.backend.timer.dto.response.MemberActivityBeforeRank;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ConstantImpl;
 import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.core.types.dsl.DateTemplate;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 
@@ -19,7 +21,9 @@ import lombok.RequiredArgsConstructor;
 public class MemberActivityRepositoryImpl implements MemberActivityRepositoryCustom {
 
   private final JPAQueryFactory queryFactory;
-  private final QMemberActivityEntity qMemberActivity = QMemberActivityEntity.memberActivityEntity;
+  //통계는 원본(member_activity)이 아니라 날짜별 합계(member_activity_daily)에서 읽는다.
+  private final QMemberActivityDailyEntity qMemberActivity =
+      QMemberActivityDailyEntity.memberActivityDailyEntity;
 
 
   @Override
@@ -36,7 +40,7 @@ public class MemberActivityRepositoryImpl implements MemberActivityRepositoryCus
 
   @Override
   public Long findTimeByPeriodAndMember(Date ago, Date cur, MemberEntity member) {
-    return  (long)queryFactory
+    return queryFactory
         .select(qMemberActivity.time.sum())
         .from(qMemberActivity)
         .where(qMemberActivity.member.eq(member), qMemberActivity.date.gt(ago),
@@ -57,13 +61,13 @@ public class MemberActivityRepositoryImpl implements MemberActivityRepositoryCus
   }
 
   @Override
-  public Tuple findAllTimeByPeriod(Date ago, Date cur) {
-
+  public List<Tuple> findMemberTimesByPeriod(Date ago, Date cur) {
     return queryFactory
-        .select(qMemberActivity.member.countDistinct(), qMemberActivity.time.sum())
+        .select(qMemberActivity.member.sequence, qMemberActivity.time.sum())
         .from(qMemberActivity)
         .where(qMemberActivity.date.gt(ago), qMemberActivity.date.loe(cur))
-        .fetchOne();
+        .groupBy(qMemberActivity.member.sequence)
+        .fetch();
   }
 
   @Override
@@ -81,18 +85,62 @@ public class MemberActivityRepositoryImpl implements MemberActivityRepositoryCus
   }
 
   @Override
-  public List<MemberActivityBeforeRank> sumTimeByPeriod(Date ago, Date cur) {
+  public List<Tuple> sumWeekAndMonthByMembers(Collection<Long> seqs, Date weekAgo,
+      Date monthAgo, Date cur) {
+    //두 기간을 한번에 읽는다. (한달이 한주를 포함)
     return queryFactory
-        .select(Projections.constructor(MemberActivityBeforeRank.class, qMemberActivity.member,
-            qMemberActivity.time.sum()))
+        .select(qMemberActivity.member.sequence,
+            weekTime(weekAgo).sum(),
+            qMemberActivity.time.sum())
         .from(qMemberActivity)
-        .where(qMemberActivity.date.goe(ago), qMemberActivity.date.loe(cur))
-        .groupBy(qMemberActivity.member)
-        .orderBy(qMemberActivity.time.sum().desc())
-        .limit(10)
+        .where(qMemberActivity.member.sequence.in(seqs),
+            qMemberActivity.date.gt(monthAgo),
+            qMemberActivity.date.loe(cur))
+        .groupBy(qMemberActivity.member.sequence)
         .fetch();
   }
-  private DateTemplate fromDateToDay(QMemberActivityEntity qMemberActivity){
+
+  @Override
+  public List<Tuple> findTimeByCategoryAndMembers(Collection<Long> seqs) {
+    return queryFactory
+        .select(qMemberActivity.member.sequence, qMemberActivity.category,
+            qMemberActivity.time.sum())
+        .from(qMemberActivity)
+        .where(qMemberActivity.member.sequence.in(seqs))
+        .groupBy(qMemberActivity.member.sequence, qMemberActivity.category)
+        .fetch();
+  }
+
+  @Override
+  public List<Tuple> findCalendarByMembers(Collection<Long> seqs, Date ago, Date cur) {
+    return queryFactory
+        .select(qMemberActivity.member.sequence, fromDateToDay(qMemberActivity),
+            qMemberActivity.time.sum())
+        .from(qMemberActivity)
+        .where(qMemberActivity.member.sequence.in(seqs), qMemberActivity.date.goe(ago),
+            qMemberActivity.date.loe(cur))
+        .groupBy(qMemberActivity.member.sequence, qMemberActivity.date)
+        .fetch();
+  }
+
+  @Override
+  public List<Tuple> findDailyTimesByPeriod(Date ago, Date cur) {
+    return queryFactory
+        .select(qMemberActivity.member.sequence, qMemberActivity.date,
+            qMemberActivity.time.sum())
+        .from(qMemberActivity)
+        .where(qMemberActivity.date.gt(ago), qMemberActivity.date.loe(cur))
+        .groupBy(qMemberActivity.member.sequence, qMemberActivity.date)
+        .fetch();
+  }
+
+  private NumberExpression<Long> weekTime(Date weekAgo) {
+    return new CaseBuilder()
+        .when(qMemberActivity.date.gt(weekAgo)).then(qMemberActivity.time)
+        .otherwise(0L);
+  }
+
+  private DateTemplate fromDateToDay(QMemberActivityDailyEntity qMemberActivity){
     return Expressions.dateTemplate(
         String.class,
         "DATE_FORMAT({0},{1})",
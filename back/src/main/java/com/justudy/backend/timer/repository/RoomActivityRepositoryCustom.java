@@ -3,7 +3,7 @@ package com.justudy.backend.timer.repository;
 import com.justudy.backend.GroupCall.domain.StudyRoomEntity;
 import com.justudy.backend.study.domain.StudyEntity;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
-import com.justudy.backend.timer.dto.response.RoomActivityBeforeRank;
+import com.querydsl.core.Tuple;
 import java.sql.Date;
 import java.util.List;
 
@@ -11,5 +11,6 @@ public interface RoomActivityRepositoryCustom {
 
   List<ActivityCalendarResponse> findCalendarById(Date ago, Date cur, StudyRoomEntity studyRoom);
 
-  List<RoomActivityBeforeRank> sumTimeByPeriod(Date ago, Date cur);
+  //랭킹용 (방 seq, 날짜, 합계). 기간은 (ago, cur]
+  List<Tuple> findDailyTimesByPeriod(Date ago, Date cur);
 }
@@ -1,10 +1,9 @@
 package com.justudy.backend.timer.repository;
 
 import com.justudy.backend.GroupCall.domain.StudyRoomEntity;
-import com.justudy.backend.timer.domain.QRoomActivityEntity;
+import com.justudy.backend.timer.domain.QRoomActivityDailyEntity;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
-import com.justudy.backend.timer.dto.response.MemberActivityBeforeRank;
-import com.justudy.backend.timer.dto.response.RoomActivityBeforeRank;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ConstantImpl;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.DateTemplate;
@@ -18,7 +17,9 @@ import lombok.RequiredArgsConstructor;
 public class RoomActivityRepositoryImpl implements RoomActivityRepositoryCustom {
 
   private final JPAQueryFactory queryFactory;
-  private final QRoomActivityEntity qRoomActivityEntity = QRoomActivityEntity.roomActivityEntity;
+  //통계는 원본(room_activity)이 아니라 날짜별 합계(room_activity_daily)에서 읽는다.
+  private final QRoomActivityDailyEntity qRoomActivityEntity =
+      QRoomActivityDailyEntity.roomActivityDailyEntity;
 
 
   @Override
@@ -39,19 +40,17 @@ public class RoomActivityRepositoryImpl implements RoomActivityRepositoryCustom
   }
 
   @Override
-  public List<RoomActivityBeforeRank> sumTimeByPeriod(Date ago, Date cur) {
+  public List<Tuple> findDailyTimesByPeriod(Date ago, Date cur) {
     return queryFactory
-        .select(Projections.constructor(RoomActivityBeforeRank.class, qRoomActivityEntity.studyRoom,
-            qRoomActivityEntity.time.sum()))
+        .select(qRoomActivityEntity.studyRoom.sequence, qRoomActivityEntity.date,
+            qRoomActivityEntity.time.sum())
         .from(qRoomActivityEntity)
-        .where(qRoomActivityEntity.date.goe(ago), qRoomActivityEntity.date.loe(cur))
-        .groupBy(qRoomActivityEntity.studyRoom)
-        .orderBy(qRoomActivityEntity.time.sum().desc())
-        .limit(10)
+        .where(qRoomActivityEntity.date.gt(ago), qRoomActivityEntity.date.loe(cur))
+        .groupBy(qRoomActivityEntity.studyRoom.sequence, qRoomActivityEntity.date)
         .fetch();
   }
 
-  private DateTemplate fromDateToDay(QRoomActivityEntity qRoomActivity) {
+  private DateTemplate fromDateToDay(QRoomActivityDailyEntity qRoomActivity) {
     return Expressions.dateTemplate(
         String.class,
         "DATE_FORMAT({0},{1})",
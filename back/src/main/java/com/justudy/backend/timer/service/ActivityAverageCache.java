@@ -0,0 +1,213 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.timer.domain.QMemberActivityDailyEntity;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.querydsl.core.Tuple;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ActivityAverageCache : 전체 회원의 주/월 평균 공부 시간 캐시
+ * <p>
+ * 모든 사람에게 같은 값이므로 요청마다 집계하지 않는다. ActivityStatsSchedule 이 주기적으로 DB 에서 다시 계산하고(자정이 지나 기간이 밀리는 것도 이때
+ * 반영된다), 그 사이에 저장된 공부 시간은 MemberActivityBuffer 가 저장 순번(activity_flush)과 함께 바로 더해준다. 값이 바뀔 때마다
+ * version 이 오른다.
+ **/
+@Slf4j
+@Component
+public class ActivityAverageCache {
+
+  public enum Period {
+    WEEK {
+      @Override
+      LocalDate from(LocalDate today) {
+        return today.minusWeeks(1);
+      }
+    },
+    MONTH {
+      @Override
+      LocalDate from(LocalDate today) {
+        return today.minusMonths(1);
+      }
+    };
+
+    //(from, today] 기간
+    abstract LocalDate from(LocalDate today);
+  }
+
+  private static final QMemberActivityDailyEntity qMemberActivity =
+      QMemberActivityDailyEntity.memberActivityDailyEntity;
+
+  private final MemberActivityRepository memberActivityRepository;
+  private final ActivityJdbcRepository activityJdbcRepository;
+  //합계와 저장 순번을 같은 시점에서 읽는다.
+  private final TransactionOperations snapshotReads;
+  private final Clock clock;
+
+  private final Map<Period, Window> windows = new EnumMap<>(Period.class);
+  private LocalDate today;
+  //windows 를 계산할 때의 저장 순번. 이하는 이미 들어있다.
+  private long flushSeq;
+  private long version;
+  //다시 계산하는 동안 들어온 공부 시간 (저장 순번 -> 행). 계산에 쓴 순번보다 뒤의 것만 새 값에 다시 더한다.
+  private TreeMap<Long, List<ActivityRecord>> duringRefresh;
+  //다시 계산은 한번에 하나만
+  private final Object refreshLock = new Object();
+
+  @Autowired
+  public ActivityAverageCache(MemberActivityRepository memberActivityRepository,
+      ActivityJdbcRepository activityJdbcRepository,
+      PlatformTransactionManager transactionManager) {
+    this(memberActivityRepository, activityJdbcRepository, snapshotReads(transactionManager),
+        Clock.systemDefaultZone());
+  }
+
+  ActivityAverageCache(MemberActivityRepository memberActivityRepository,
+      ActivityJdbcRepository activityJdbcRepository, TransactionOperations snapshotReads,
+      Clock clock) {
+    this.memberActivityRepository = memberActivityRepository;
+    this.activityJdbcRepository = activityJdbcRepository;
+    this.snapshotReads = snapshotReads;
+    this.clock = clock;
+  }
+
+  //평균 (초). 아직 한번도 계산하지 않았으면 여기서 계산한다.
+  public Long getAverage(Period period) {
+    synchronized (this) {
+      if (today != null) {
+        return windows.get(period).average();
+      }
+    }
+    refresh();
+    synchronized (this) {
+      return windows.get(period).average();
+    }
+  }
+
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  //저장이 끝난 공부 시간을 더한다. flushSeq 는 ActivityJdbcRepository 가 돌려준 저장 순번
+  public synchronized void record(long flushSeq, List<ActivityRecord> records) {
+    if (duringRefresh != null) {
+      duringRefresh.put(flushSeq, records);
+    }
+    if (today == null || flushSeq <= this.flushSeq) {
+      return;
+    }
+    records.forEach(this::apply);
+    version++;
+  }
+
+  /**
+   * 기간마다 회원별 합계를 한번씩 읽어서 다시 계산한다. 합계와 저장 순번은 한 트랜잭션에서 읽는다.
+   */
+  public void refresh() {
+    synchronized (refreshLock) {
+      final LocalDate now = LocalDate.now(clock);
+      synchronized (this) {
+        duringRefresh = new TreeMap<>();
+      }
+      final Map<Period, Window> fresh = new EnumMap<>(Period.class);
+      final long freshSeq;
+      try {
+        freshSeq = snapshotReads.execute(status -> {
+          final long seq = activityJdbcRepository.readFlushSeq(
+              ActivityJdbcRepository.MEMBER_FLUSH);
+          for (Period period : Period.values()) {
+            fresh.put(period, read(period, now));
+          }
+          return seq;
+        });
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          duringRefresh = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        windows.clear();
+        windows.putAll(fresh);
+        today = now;
+        flushSeq = freshSeq;
+        duringRefresh.tailMap(flushSeq, false).values()
+            .forEach(records -> records.forEach(this::apply));
+        duringRefresh = null;
+        version++;
+        log.debug("Activity averages refreshed (version {})", version);
+      }
+    }
+  }
+
+  private Window read(Period period, LocalDate now) {
+    final Window window = new Window(period.from(now), now);
+    for (Tuple row : memberActivityRepository.findMemberTimesByPeriod(
+        Date.valueOf(window.from), Date.valueOf(window.to))) {
+      window.add(row.get(qMemberActivity.member.sequence), row.get(qMemberActivity.time.sum()));
+    }
+    return window;
+  }
+
+  private static TransactionOperations snapshotReads(
+      PlatformTransactionManager transactionManager) {
+    final TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(true);
+    template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    return template;
+  }
+
+  private void apply(ActivityRecord record) {
+    final LocalDate day = record.getDate().toLocalDate();
+    for (Window window : windows.values()) {
+      if (window.contains(day)) {
+        window.add(record.getOwnerSeq(), record.getSecond());
+      }
+    }
+  }
+
+  private static final class Window {
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Set<Long> members = new HashSet<>();
+    private long sum;
+
+    private Window(LocalDate from, LocalDate to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    private boolean contains(LocalDate day) {
+      return day.isAfter(from) && !day.isAfter(to);
+    }
+
+    private void add(Long memberSeq, Long second) {
+      if (memberSeq == null || second == null) {
+        return;
+      }
+      members.add(memberSeq);
+      sum += second;
+    }
+
+    private Long average() {
+      return members.isEmpty() ? 0L : sum / members.size();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.justudy.backend.timer.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ActivityStatsSchedule : 공부 시간 통계 캐시 갱신 스케줄
+ **/
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ActivityStatsSchedule {
+
+  private final ActivityAverageCache activityAverageCache;
+
+  //새 기록은 바로 더해지므로 이 주기는 기간이 밀리는 것(자정)과 오차를 맞추는 용도다.
+  @Scheduled(fixedDelayString = "${timer.average.refresh-interval:300000}")
+  public void refreshAverages() {
+    try {
+      activityAverageCache.refresh();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh activity averages", e);
+    }
+  }
+}
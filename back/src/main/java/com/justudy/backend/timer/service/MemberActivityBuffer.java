@@ -0,0 +1,260 @@
+package com.justudy.backend.timer.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.service.LiveRanking;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * MemberActivityBuffer : member_activity 쓰기 지연(write-behind) 버퍼
+ * <p>
+ * 공부 시간 저장을 (member, date, category) 별로 메모리에서 합쳐 두었다가, 쌓인 키가 flush-size 개가 되거나 StudyTimerSchedule 의
+ * 주기가 되면 JDBC batch 한번으로 저장한다. (member_activity_daily 합계도 같이) batch 가 실패하면 한 행씩 다시 저장해서, DB 가 거절하는 행
+ * (제약 조건 위반)만 로그를 남기고 버린다. 그 밖의 실패는 다시 합쳐서 다음 번에 저장하고, 종료할 때도 저장하지 못하면 spill-dir 에 파일로 남겨서 다음
+ * 기동 때 다시 읽어온다.
+ **/
+@Slf4j
+@Component
+public class MemberActivityBuffer {
+
+  private static final String SPILL_PREFIX = "member-activity-";
+  private static final String SPILL_SUFFIX = ".jsonl";
+
+  private final ActivityJdbcRepository activityJdbcRepository;
+  //저장이 끝난 시간을 평균 캐시에 바로 더한다.
+  private final ActivityAverageCache activityAverageCache;
+  private final LiveRanking liveRanking;
+  private final int flushSize;
+  private final Path spillDir;
+
+  //(member, date, category) -> 초
+  private Map<Key, Long> pending = new HashMap<>();
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  //크기 트리거로 시작한 저장은 요청 스레드가 아니라 여기서 한다.
+  private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "member-activity-flusher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public MemberActivityBuffer(ActivityJdbcRepository activityJdbcRepository,
+      ActivityAverageCache activityAverageCache, LiveRanking liveRanking,
+      @Value("${timer.write-behind.flush-size:500}") int flushSize,
+      @Value("${timer.write-behind.spill-dir:./data/activity-spill}") String spillDir) {
+    this.activityJdbcRepository = activityJdbcRepository;
+    this.activityAverageCache = activityAverageCache;
+    this.liveRanking = liveRanking;
+    this.flushSize = flushSize;
+    this.spillDir = Paths.get(spillDir);
+  }
+
+  public void add(Long memberSeq, Date date, String category, Long second) {
+    if (memberSeq == null || date == null || second == null || second <= 0) {
+      return;
+    }
+    final int size;
+    synchronized (this) {
+      pending.merge(new Key(memberSeq, date.toLocalDate(), category), second, Long::sum);
+      size = pending.size();
+    }
+    if (size >= flushSize && flushing.compareAndSet(false, true)) {
+      flusher.execute(() -> {
+        try {
+          flush();
+        } finally {
+          flushing.set(false);
+        }
+      });
+    }
+  }
+
+  /**
+   * 쌓인 시간을 batch insert 로 저장한다. 실패하면 다시 쌓아둔다.
+   *
+   * @return 저장한 행 수
+   */
+  public int flush() {
+    final Map<Key, Long> batch = drain();
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    final List<ActivityRecord> records = toRecords(batch);
+    final long flushSeq;
+    try {
+      flushSeq = activityJdbcRepository.insertMemberActivities(records);
+    } catch (RuntimeException e) {
+      log.warn("Could not flush {} member activity rows, retrying row by row", batch.size(), e);
+      return flushOneByOne(records);
+    }
+    saved(flushSeq, records);
+    log.debug("Flushed {} member activity rows", records.size());
+    return records.size();
+  }
+
+  //저장이 끝난 시간을 저장 순번과 함께 캐시에 넘긴다.
+  private void saved(long flushSeq, List<ActivityRecord> records) {
+    activityAverageCache.record(flushSeq, records);
+    liveRanking.record(RankGroup.PERSON, flushSeq, records);
+  }
+
+  /**
+   * batch 안의 어떤 행이 실패했는지 모르므로 한 행씩 저장한다. 제약 조건을 어기는 행은 다시 시도해도 실패하므로 버리고, 다른 실패(DB 연결 등)는 남은
+   * 행과 함께 다시 쌓아둔다.
+   *
+   * @return 저장한 행 수
+   */
+  private int flushOneByOne(List<ActivityRecord> records) {
+    int count = 0;
+    for (int i = 0; i < records.size(); i++) {
+      final ActivityRecord record = records.get(i);
+      final List<ActivityRecord> row = List.of(record);
+      final long flushSeq;
+      try {
+        flushSeq = activityJdbcRepository.insertMemberActivities(row);
+      } catch (DataIntegrityViolationException e) {
+        log.error("Dropped member activity row rejected by the database: {}/{}/{} {}s",
+            record.getOwnerSeq(), record.getDate(), record.getCategory(), record.getSecond(), e);
+        continue;
+      } catch (RuntimeException e) {
+        final List<ActivityRecord> left = records.subList(i, records.size());
+        log.warn("Could not flush {} member activity rows, will retry", left.size(), e);
+        restore(left);
+        break;
+      }
+      saved(flushSeq, row);
+      count++;
+    }
+    return count;
+  }
+
+  public synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  //지난번 종료 때 저장하지 못하고 남긴 파일을 다시 버퍼에 넣는다. (스키마가 준비된 뒤)
+  @EventListener(ApplicationReadyEvent.class)
+  public void recoverSpill() {
+    if (!Files.isDirectory(spillDir)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir,
+        SPILL_PREFIX + "*" + SPILL_SUFFIX)) {
+      for (Path file : files) {
+        int restored = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+          if (line.isBlank()) {
+            continue;
+          }
+          final JsonObject row = JsonParser.parseString(line).getAsJsonObject();
+          synchronized (this) {
+            pending.merge(new Key(row.get("member").getAsLong(),
+                    LocalDate.parse(row.get("date").getAsString()),
+                    row.has("category") ? row.get("category").getAsString() : null),
+                row.get("second").getAsLong(), Long::sum);
+          }
+          restored++;
+        }
+        Files.delete(file);
+        log.info("Recovered {} member activity rows from {}", restored, file);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not recover member activity spill from {}", spillDir, e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    flusher.shutdown();
+    //크기 트리거로 돌고 있는 저장이 끝나야 남은 것을 정확히 알 수 있다.
+    flusher.awaitTermination(10, TimeUnit.SECONDS);
+    flush();
+    final Map<Key, Long> left = drain();
+    if (!left.isEmpty()) {
+      spill(left);
+    }
+  }
+
+  private void spill(Map<Key, Long> rows) {
+    final Path file = spillDir.resolve(SPILL_PREFIX + System.currentTimeMillis() + SPILL_SUFFIX);
+    try {
+      Files.createDirectories(spillDir);
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        for (Map.Entry<Key, Long> entry : rows.entrySet()) {
+          final JsonObject row = new JsonObject();
+          row.addProperty("member", entry.getKey().memberSeq);
+          row.addProperty("date", entry.getKey().date.toString());
+          row.addProperty("category", entry.getKey().category);
+          row.addProperty("second", entry.getValue());
+          writer.write(row.toString());
+          writer.newLine();
+        }
+      }
+      log.warn("Spilled {} unsaved member activity rows to {}", rows.size(), file);
+    } catch (IOException e) {
+      log.error("Could not spill {} member activity rows, they are lost: {}", rows.size(), rows,
+          e);
+    }
+  }
+
+  private synchronized Map<Key, Long> drain() {
+    final Map<Key, Long> batch = pending;
+    pending = new HashMap<>();
+    return batch;
+  }
+
+  private synchronized void restore(List<ActivityRecord> records) {
+    for (ActivityRecord record : records) {
+      pending.merge(new Key(record.getOwnerSeq(), record.getDate().toLocalDate(),
+          record.getCategory()), record.getSecond(), Long::sum);
+    }
+  }
+
+  private static List<ActivityRecord> toRecords(Map<Key, Long> batch) {
+    final List<ActivityRecord> records = new ArrayList<>(batch.size());
+    batch.forEach((key, second) -> records.add(
+        new ActivityRecord(key.memberSeq, Date.valueOf(key.date), second, key.category)));
+    return records;
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class Key {
+
+    private final Long memberSeq;
+    private final LocalDate date;
+    private final String category;
+
+    @Override
+    public String toString() {
+      return memberSeq + "/" + date + "/" + category;
+    }
+  }
+}
@@ -1,20 +1,27 @@
 package com.justudy.backend.timer.service;
 
+import com.justudy.backend.category.repository.CategoryRepository;
+import com.justudy.backend.exception.InvalidRequest;
 import com.justudy.backend.member.domain.MemberEntity;
 import com.justudy.backend.member.repository.MemberRepository;
-import com.justudy.backend.timer.domain.MemberActivityEntity;
-import com.justudy.backend.timer.domain.QMemberActivityEntity;
+import com.justudy.backend.timer.domain.QMemberActivityDailyEntity;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
 import com.justudy.backend.timer.dto.request.ActivityRequest;
+import com.justudy.backend.timer.dto.request.ActivitySummaryStat;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
 import com.justudy.backend.timer.dto.response.ActivitySubjectResponse;
-import com.justudy.backend.timer.dto.response.ActivityToRank;
-import com.justudy.backend.timer.dto.response.MemberActivityBeforeRank;
+import com.justudy.backend.timer.dto.response.ActivitySummaryResponse;
 import com.justudy.backend.timer.dto.response.MemberActivityYesterdayResponse;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
 import com.justudy.backend.timer.repository.MemberActivityRepository;
 import com.querydsl.core.Tuple;
 import java.sql.Date;
-import java.util.LinkedList;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,20 +35,39 @@ public class MemberActivityService {
 
   private final MemberRepository memberRepository;
   private final MemberActivityRepository memberActivityRepository;
-  private final QMemberActivityEntity qMemberActivity = QMemberActivityEntity.memberActivityEntity;
+  private final MemberActivityBuffer memberActivityBuffer;
+  private final ActivityJdbcRepository activityJdbcRepository;
+  private final ActivityAverageCache activityAverageCache;
+  private final CategoryRepository categoryRepository;
+  private final QMemberActivityDailyEntity qMemberActivity =
+      QMemberActivityDailyEntity.memberActivityDailyEntity;
+
+  //바로 저장하지 않고 MemberActivityBuffer 에 쌓는다. 저장은 모아서 batch insert 로 한다.
+  //카테고리는 있는 category_key 만 받는다. (잘못된 값 하나가 batch 전체를 실패시키지 않게)
+  public void saveMemberAcitivity(ActivityRequest memberActivityRequest, Long seq,
+      Date today) {
+    final String category = memberActivityRequest.getCategory();
+    if (category != null && categoryRepository.findByKey(category).isEmpty()) {
+      throw new InvalidRequest("category", "존재하지 않는 카테고리입니다.");
+    }
+    memberActivityBuffer.add(seq, today, memberActivityRequest.getCategory(),
+        memberActivityRequest.getSecond());
+  }
 
+  //StudySessionTimer 가 모아둔 시간을 한번에 저장한다. (raw 는 원본 행으로만, daily 는 날짜별 합계에만) 저장 순번을 돌려준다.
   @Transactional
-  public void saveMemberAcitivity(ActivityRequest memberActivityRequest, Long seq,
+  public long saveMemberSessions(List<ActivityRecord> raw, List<ActivityRecord> daily) {
+    return activityJdbcRepository.saveMemberSessions(raw, daily);
+  }
+
+  //바로 읽어야 하는 경우(더미 데이터)에만 사용한다.
+  @Transactional
+  public void saveMemberAcitivityNow(ActivityRequest memberActivityRequest, Long seq,
       Date today) {
-    MemberEntity member = memberRepository.getReferenceById(seq);
-    memberActivityRepository.save(MemberActivityEntity
-        .builder()
-        .member(member)
-        .date(today)
-        .time(memberActivityRequest.getSecond())
-        .category(memberActivityRequest.getCategory())
-        .build()
-    );
+    //JDBC 로 넣기 전에 아직 DB 에 안 나간 엔티티(회원 등)를 내보낸다.
+    memberActivityRepository.flush();
+    activityJdbcRepository.insertMemberActivities(List.of(new ActivityRecord(seq, today,
+        memberActivityRequest.getSecond(), memberActivityRequest.getCategory())));
   }
 
   @Transactional
@@ -80,18 +106,9 @@ public class MemberActivityService {
   }
 
 
-  @Transactional
-  public Long getAvgTimeByPeriod(Date ago, Date cur) {
-    Tuple result = memberActivityRepository.findAllTimeByPeriod(ago, cur);
-    if (result == null) {
-      return null;//에러페이지 넣기
-    }
-    Long count = result.get(qMemberActivity.member.countDistinct());
-    Long sum = result.get(qMemberActivity.time.sum());
-
-    Long sumTime = sum / count;
-
-    return sumTime;
+  //모든 회원에게 같은 값이므로 캐시에서 준다.
+  public Long getAvgTime(ActivityAverageCache.Period period) {
+    return activityAverageCache.getAverage(period);
   }
 
 
@@ -108,21 +125,64 @@ public class MemberActivityService {
   }
 
 
-  @Transactional
-  public List<ActivityToRank> getSumTimeByPeriod(Date ago, Date before) {
-    List<MemberActivityBeforeRank> mabrList = memberActivityRepository.sumTimeByPeriod(ago, before);
-    List<ActivityToRank> ret = new LinkedList<ActivityToRank>();
+  /**
+   * 여러 회원의 통계를 한번에 읽는다. 통계 종류마다 쿼리 한번 (WEEK, MONTH 는 같이 한번)
+   *
+   * @return seqs 순서대로. 요청하지 않은 통계는 null, 기록이 없으면 0 / 빈 목록
+   */
+  public List<ActivitySummaryResponse> getSummaries(List<Long> seqs,
+      Set<ActivitySummaryStat> stats, LocalDate today, LocalDate calendarMonth) {
+    Map<Long, ActivitySummaryResponse> summaries = new LinkedHashMap<>();
+    for (Long seq : seqs) {
+      summaries.computeIfAbsent(seq, ActivitySummaryResponse::new);
+    }
+    Set<Long> members = summaries.keySet();
+
+    boolean week = stats.contains(ActivitySummaryStat.WEEK);
+    boolean month = stats.contains(ActivitySummaryStat.MONTH);
+    if (week || month) {
+      summaries.values().forEach(summary -> {
+        summary.setWeek(week ? 0L : null);
+        summary.setMonth(month ? 0L : null);
+      });
+      List<Tuple> times = memberActivityRepository.sumWeekAndMonthByMembers(members,
+          Date.valueOf(today.minusWeeks(1)), Date.valueOf(today.minusMonths(1)),
+          Date.valueOf(today));
+      for (Tuple time : times) {
+        ActivitySummaryResponse summary = summaries.get(time.get(0, Long.class));
+        if (week) {
+          summary.setWeek(time.get(1, Long.class));
+        }
+        if (month) {
+          summary.setMonth(time.get(2, Long.class));
+        }
+      }
+    }
 
-    for (int index = 0; index < mabrList.size(); index++) {
-      MemberActivityBeforeRank mabr = mabrList.get(index);
+    if (stats.contains(ActivitySummaryStat.CATEGORY)) {
+      summaries.values().forEach(summary -> summary.setCategory(new ArrayList<>()));
+      for (Tuple time : memberActivityRepository.findTimeByCategoryAndMembers(members)) {
+        summaries.get(time.get(0, Long.class)).getCategory().add(
+            new ActivitySubjectResponse(time.get(1, String.class), time.get(2, Long.class)));
+      }
+    }
 
-      Long image = mabr.getMember().getImageFile().getSequence();
-      Integer order = index + 1;
-      String name = mabr.getMember().getNickname();
-      Long sumTime = mabr.getSecond();
+    if (stats.contains(ActivitySummaryStat.CALENDAR)) {
+      summaries.values().forEach(summary -> summary.setCalendar(new ArrayList<>()));
+      Date firstDay = Date.valueOf(calendarMonth.withDayOfMonth(1));
+      Date lastDay = Date.valueOf(calendarMonth.withDayOfMonth(calendarMonth.lengthOfMonth()));
+      for (Tuple time : memberActivityRepository.findCalendarByMembers(members, firstDay,
+          lastDay)) {
+        summaries.get(time.get(0, Long.class)).getCalendar().add(
+            new ActivityCalendarResponse(time.get(1, String.class), time.get(2, Long.class)));
+      }
+    }
 
-      ret.add(new ActivityToRank(order, sumTime, name, image));
+    List<ActivitySummaryResponse> ret = new ArrayList<>(seqs.size());
+    for (Long seq : seqs) {
+      ret.add(summaries.get(seq));
     }
     return ret;
   }
+
 }
@@ -5,15 +5,12 @@ import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
 import com.justudy.backend.GroupCall.repository.StudyRoomRepository;
 import com.justudy.backend.study.domain.StudyEntity;
 import com.justudy.backend.study.repository.StudyRepository;
-import com.justudy.backend.timer.domain.QRoomActivityEntity;
-import com.justudy.backend.timer.domain.RoomActivityEntity;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
 import com.justudy.backend.timer.dto.request.ActivityRequest;
 import com.justudy.backend.timer.dto.response.ActivityCalendarResponse;
-import com.justudy.backend.timer.dto.response.ActivityToRank;
-import com.justudy.backend.timer.dto.response.RoomActivityBeforeRank;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
 import com.justudy.backend.timer.repository.RoomActivityRepository;
 import java.sql.Date;
-import java.util.LinkedList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,21 +25,23 @@ public class RoomActivityService {
 
   private final StudyRepository studyRepository;
 
-  private final QRoomActivityEntity qRoomActivityEntity = QRoomActivityEntity.roomActivityEntity;
   private final RoomActivityRepository roomActivityRepository;
+  private final ActivityJdbcRepository activityJdbcRepository;
   private final StudyRoomRepository studyRoomRepository;
 
+  //바로 읽어야 하는 경우(더미 데이터)에만 사용한다.
   @Transactional
   public void saveRoomAcitivity(ActivityRequest roomActivityRequest, Long roomSeq, Date today) {
+    //JDBC 로 넣기 전에 아직 DB 에 안 나간 엔티티(스터디 방 등)를 내보낸다.
+    roomActivityRepository.flush();
+    activityJdbcRepository.insertRoomActivities(List.of(new ActivityRecord(roomSeq, today,
+        roomActivityRequest.getSecond(), roomActivityRequest.getCategory())));
+  }
 
-    StudyRoomEntity studyRoom = studyRoomRepository.getReferenceById(roomSeq);
-    roomActivityRepository.save(RoomActivityEntity
-        .builder()
-        .studyRoom(studyRoom)
-        .date(today)
-        .time(roomActivityRequest.getSecond())
-        .category(roomActivityRequest.getCategory())
-        .build());
+  //StudySessionTimer 가 모아둔 시간을 한번에 저장한다. (raw 는 원본 행으로만, daily 는 날짜별 합계에만) 저장 순번을 돌려준다.
+  @Transactional
+  public long saveRoomSessions(List<ActivityRecord> raw, List<ActivityRecord> daily) {
+    return activityJdbcRepository.saveRoomSessions(raw, daily);
   }
 
   //수정 예정 : 무언가 꼬였음..
@@ -67,24 +66,4 @@ public class RoomActivityService {
 
   }
 
-
-  @Transactional
-  public List<ActivityToRank> getSumTimeByPeriod(Date ago, Date before) {
-    List<RoomActivityBeforeRank> rabrList = roomActivityRepository.sumTimeByPeriod(ago, before);
-
-    List<ActivityToRank> ret = new LinkedList<ActivityToRank>();
-
-    for (int index = 0; index < rabrList.size(); index++) {
-      RoomActivityBeforeRank rabr = rabrList.get(index);
-      StudyEntity studyEntity = rabr.getStudyRoom().getStudyEntity();
-      Long image = studyEntity.getImageFile().getSequence();
-      Integer order = index + 1;
-      String name = studyEntity.getName();
-      Long sumTime = rabr.getSecond();
-
-      ret.add(new ActivityToRank(order, sumTime, name, image));
-    }
-    return ret;
-  }
-
 }
@@ -0,0 +1,440 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
+import com.justudy.backend.GroupCall.service.StudyRoomService;
+import com.justudy.backend.member.domain.QMemberEntity;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.service.LiveRanking;
+import com.justudy.backend.study.exception.StudyNotFound;
+import com.justudy.backend.study.service.StudyService;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.querydsl.core.Tuple;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import javax.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * StudySessionTimer : 화상 스터디 입장/퇴장으로 공부 시간을 재는 클래스
+ * <p>
+ * 방이 열려있는 동안과 참가자가 방에 있는 동안을 메모리에서 잰다. StudyTimerSchedule 이 주기적으로 열려있는 구간을 잘라(체크포인트) 날짜별 합계
+ * (*_daily)에만 더하고, 원본 행(member_activity / room_activity)은 구간이 끝날 때(퇴장, 방 닫힘, 종료) 구간 전체로 한번 저장한다. 서버가
+ * 죽어도 합계에서 잃는 시간은 체크포인트 한 주기 이하다. 자정을 넘긴 구간은 날짜별로 나눠서 쌓는다.
+ **/
+@Slf4j
+@Service
+public class StudySessionTimer {
+
+  private final MemberActivityService memberActivityService;
+  private final RoomActivityService roomActivityService;
+  private final MemberRepository memberRepository;
+  private final StudyService studyService;
+  private final StudyRoomService studyRoomService;
+  //저장이 끝난 시간은 랭킹과 평균에 바로 더한다.
+  private final LiveRanking liveRanking;
+  private final ActivityAverageCache activityAverageCache;
+  private final Clock clock;
+
+  private final Map<MemberKey, Interval> openMembers = new HashMap<>();
+  //닫히는 방과 같은 이름의 새 방이 잠깐 같이 있을 수 있어서 방 수를 센다.
+  private final Map<String, OpenRoom> openRooms = new HashMap<>();
+  //아직 저장하지 않은 시간
+  private Pending pending = new Pending();
+
+  //방 이름(스터디 seq) -> study_room seq, 카테고리. 방이 닫히고 저장까지 끝나면 지운다.
+  private final ConcurrentMap<String, RoomInfo> roomInfos = new ConcurrentHashMap<>();
+
+  @Autowired
+  public StudySessionTimer(MemberActivityService memberActivityService,
+      RoomActivityService roomActivityService, MemberRepository memberRepository,
+      StudyService studyService, StudyRoomService studyRoomService, LiveRanking liveRanking,
+      ActivityAverageCache activityAverageCache) {
+    this(memberActivityService, roomActivityService, memberRepository, studyService,
+        studyRoomService, liveRanking, activityAverageCache, Clock.systemDefaultZone());
+  }
+
+  StudySessionTimer(MemberActivityService memberActivityService,
+      RoomActivityService roomActivityService, MemberRepository memberRepository,
+      StudyService studyService, StudyRoomService studyRoomService, LiveRanking liveRanking,
+      ActivityAverageCache activityAverageCache, Clock clock) {
+    this.memberActivityService = memberActivityService;
+    this.roomActivityService = roomActivityService;
+    this.memberRepository = memberRepository;
+    this.studyService = studyService;
+    this.studyRoomService = studyRoomService;
+    this.liveRanking = liveRanking;
+    this.activityAverageCache = activityAverageCache;
+    this.clock = clock;
+  }
+
+  public synchronized void roomOpened(String roomName) {
+    openRooms.computeIfAbsent(roomName, name -> new OpenRoom(clock.instant())).rooms++;
+  }
+
+  public synchronized void roomClosed(String roomName) {
+    final OpenRoom open = openRooms.get(roomName);
+    if (open == null || --open.rooms > 0) {
+      return;
+    }
+    openRooms.remove(roomName);
+    final Instant now = clock.instant();
+    closeRoom(roomName, open, now);
+    //방이 닫히면서 퇴장을 거치지 못한 참가자도 여기서 끝낸다.
+    openMembers.entrySet().removeIf(entry -> {
+      if (!entry.getKey().roomName.equals(roomName)) {
+        return false;
+      }
+      closeMember(entry.getKey(), entry.getValue(), now);
+      return true;
+    });
+  }
+
+  public synchronized void memberJoined(String nickname, String roomName) {
+    openMembers.putIfAbsent(new MemberKey(nickname, roomName), new Interval(clock.instant()));
+  }
+
+  public synchronized void memberLeft(String nickname, String roomName) {
+    final MemberKey key = new MemberKey(nickname, roomName);
+    final Interval open = openMembers.remove(key);
+    if (open != null) {
+      closeMember(key, open, clock.instant());
+    }
+  }
+
+  /**
+   * 열려있는 구간을 지금까지 잘라서 쌓고, 쌓인 시간을 저장한다. 저장에 실패한 시간은 다시 쌓아서 다음 번에 저장한다. 스터디 방을 찾지 못한 시간은
+   * 버리지만, 찾는 중에 실패하면(DB 연결 등) 다시 쌓아둔다.
+   *
+   * @return 저장한 행 수
+   */
+  public int flush() {
+    final Pending batch;
+    synchronized (this) {
+      checkpoint(clock.instant());
+      batch = pending;
+      pending = new Pending();
+    }
+
+    final Map<String, RoomInfo> infos = new HashMap<>();
+    final Set<String> unresolved = resolveRooms(batch, infos);
+    if (!unresolved.isEmpty()) {
+      restoreRooms(extract(batch.roomRaw, key -> unresolved.contains(key.roomName)),
+          extract(batch.roomDaily, key -> unresolved.contains(key.roomName)));
+      restoreMembers(extract(batch.memberRaw, key -> unresolved.contains(key.roomName)),
+          extract(batch.memberDaily, key -> unresolved.contains(key.roomName)));
+    }
+
+    final int saved = saveRooms(batch, infos) + saveMembers(batch, infos);
+
+    synchronized (this) {
+      roomInfos.keySet().removeIf(roomName -> !openRooms.containsKey(roomName));
+    }
+    return saved;
+  }
+
+  //저장한 행 수. 실패하면 다시 쌓아둔다.
+  private int saveRooms(Pending batch, Map<String, RoomInfo> infos) {
+    try {
+      final List<ActivityRecord> raw = roomRecords(batch.roomRaw, infos);
+      final List<ActivityRecord> daily = roomRecords(batch.roomDaily, infos);
+      if (raw.isEmpty() && daily.isEmpty()) {
+        return 0;
+      }
+      final long flushSeq = roomActivityService.saveRoomSessions(raw, daily);
+      liveRanking.record(RankGroup.GROUP, flushSeq, daily);
+      return raw.size() + daily.size();
+    } catch (RuntimeException e) {
+      log.warn("Could not save room activity, will retry", e);
+      restoreRooms(batch.roomRaw, batch.roomDaily);
+      return 0;
+    }
+  }
+
+  private int saveMembers(Pending batch, Map<String, RoomInfo> infos) {
+    if (batch.memberRaw.isEmpty() && batch.memberDaily.isEmpty()) {
+      return 0;
+    }
+    try {
+      final Map<String, Long> sequences = memberSequences(batch);
+      final List<ActivityRecord> raw = memberRecords(batch.memberRaw, sequences, infos);
+      final List<ActivityRecord> daily = memberRecords(batch.memberDaily, sequences, infos);
+      if (raw.isEmpty() && daily.isEmpty()) {
+        return 0;
+      }
+      final long flushSeq = memberActivityService.saveMemberSessions(raw, daily);
+      activityAverageCache.record(flushSeq, daily);
+      liveRanking.record(RankGroup.PERSON, flushSeq, daily);
+      return raw.size() + daily.size();
+    } catch (RuntimeException e) {
+      log.warn("Could not save member activity, will retry", e);
+      restoreMembers(batch.memberRaw, batch.memberDaily);
+      return 0;
+    }
+  }
+
+  //열려있는 구간을 모두 끝내고 저장한다.
+  @PreDestroy
+  public void shutdown() {
+    synchronized (this) {
+      final Instant now = clock.instant();
+      openRooms.forEach((roomName, open) -> closeRoom(roomName, open, now));
+      openRooms.clear();
+      openMembers.forEach((key, open) -> closeMember(key, open, now));
+      openMembers.clear();
+    }
+    flush();
+  }
+
+  //지난 체크포인트부터 지금까지를 날짜별 합계에 쌓는다.
+  private void checkpoint(Instant now) {
+    openRooms.forEach((roomName, open) -> {
+      addRoom(pending.roomDaily, roomName, open.checkpoint, now);
+      open.checkpoint = now;
+    });
+    openMembers.forEach((key, open) -> {
+      addMember(pending.memberDaily, key, open.checkpoint, now);
+      open.checkpoint = now;
+    });
+  }
+
+  //합계에는 지난 체크포인트 뒤만 더하고, 원본 행은 구간 전체로 쓴다.
+  private void closeRoom(String roomName, Interval open, Instant now) {
+    addRoom(pending.roomDaily, roomName, open.checkpoint, now);
+    addRoom(pending.roomRaw, roomName, open.start, now);
+  }
+
+  private void closeMember(MemberKey key, Interval open, Instant now) {
+    addMember(pending.memberDaily, key, open.checkpoint, now);
+    addMember(pending.memberRaw, key, open.start, now);
+  }
+
+  private void addRoom(Map<RoomDay, Long> sink, String roomName, Instant start, Instant end) {
+    accumulate(start, end, (day, millis) -> sink.merge(new RoomDay(roomName, day), millis,
+        Long::sum));
+  }
+
+  private void addMember(Map<MemberDay, Long> sink, MemberKey key, Instant start,
+      Instant end) {
+    accumulate(start, end, (day, millis) -> sink.merge(
+        new MemberDay(key.nickname, key.roomName, day), millis, Long::sum));
+  }
+
+  //[from, to) 를 자정 기준으로 나눠서 날짜별로 넘긴다.
+  private void accumulate(Instant from, Instant to, BiConsumer<LocalDate, Long> sink) {
+    ZonedDateTime cursor = from.atZone(clock.getZone());
+    final ZonedDateTime end = to.atZone(clock.getZone());
+    while (cursor.isBefore(end)) {
+      final ZonedDateTime midnight = cursor.toLocalDate().plusDays(1)
+          .atStartOfDay(clock.getZone());
+      final ZonedDateTime until = midnight.isBefore(end) ? midnight : end;
+      sink.accept(cursor.toLocalDate(), Duration.between(cursor, until).toMillis());
+      cursor = until;
+    }
+  }
+
+  private synchronized void restoreRooms(Map<RoomDay, Long> raw, Map<RoomDay, Long> daily) {
+    raw.forEach((key, millis) -> pending.roomRaw.merge(key, millis, Long::sum));
+    daily.forEach((key, millis) -> pending.roomDaily.merge(key, millis, Long::sum));
+  }
+
+  private synchronized void restoreMembers(Map<MemberDay, Long> raw,
+      Map<MemberDay, Long> daily) {
+    raw.forEach((key, millis) -> pending.memberRaw.merge(key, millis, Long::sum));
+    daily.forEach((key, millis) -> pending.memberDaily.merge(key, millis, Long::sum));
+  }
+
+  //from 에서 which 에 맞는 시간을 빼서 돌려준다.
+  private static <K> Map<K, Long> extract(Map<K, Long> from, Predicate<K> which) {
+    final Map<K, Long> ret = new HashMap<>();
+    from.entrySet().removeIf(entry -> {
+      if (!which.test(entry.getKey())) {
+        return false;
+      }
+      ret.put(entry.getKey(), entry.getValue());
+      return true;
+    });
+    return ret;
+  }
+
+  //찾은 방은 infos 에 넣고, 찾다가 실패한 방 이름을 돌려준다. (없는 방은 어디에도 넣지 않는다)
+  private Set<String> resolveRooms(Pending batch, Map<String, RoomInfo> infos) {
+    final Set<String> roomNames = new HashSet<>();
+    batch.roomRaw.keySet().forEach(key -> roomNames.add(key.roomName));
+    batch.roomDaily.keySet().forEach(key -> roomNames.add(key.roomName));
+    batch.memberRaw.keySet().forEach(key -> roomNames.add(key.roomName));
+    batch.memberDaily.keySet().forEach(key -> roomNames.add(key.roomName));
+
+    final Set<String> unresolved = new HashSet<>();
+    for (String roomName : roomNames) {
+      try {
+        final RoomInfo info = roomInfo(roomName);
+        if (info != null) {
+          infos.put(roomName, info);
+        }
+      } catch (RuntimeException e) {
+        log.warn("ROOM {}: could not resolve study room, will retry", roomName, e);
+        unresolved.add(roomName);
+      }
+    }
+    return unresolved;
+  }
+
+  private List<ActivityRecord> roomRecords(Map<RoomDay, Long> rooms,
+      Map<String, RoomInfo> infos) {
+    final List<ActivityRecord> records = new ArrayList<>(rooms.size());
+    rooms.forEach((key, millis) -> {
+      final long second = toSeconds(millis);
+      final RoomInfo info = infos.get(key.roomName);
+      if (second > 0 && info != null) {
+        records.add(new ActivityRecord(info.studyRoomSeq, Date.valueOf(key.day), second,
+            info.category));
+      }
+    });
+    return records;
+  }
+
+  private Map<String, Long> memberSequences(Pending batch) {
+    final Set<String> nicknames = new HashSet<>();
+    batch.memberRaw.keySet().forEach(key -> nicknames.add(key.nickname));
+    batch.memberDaily.keySet().forEach(key -> nicknames.add(key.nickname));
+    final Map<String, Long> sequences = new HashMap<>();
+    for (Tuple row : memberRepository.findSequencesByNicknames(nicknames)) {
+      sequences.put(row.get(QMemberEntity.memberEntity.nickname),
+          row.get(QMemberEntity.memberEntity.sequence));
+    }
+    return sequences;
+  }
+
+  private static List<ActivityRecord> memberRecords(Map<MemberDay, Long> members,
+      Map<String, Long> sequences, Map<String, RoomInfo> infos) {
+    final List<ActivityRecord> records = new ArrayList<>(members.size());
+    members.forEach((key, millis) -> {
+      final long second = toSeconds(millis);
+      final Long memberSeq = sequences.get(key.nickname);
+      final RoomInfo info = infos.get(key.roomName);
+      if (second > 0 && memberSeq != null && info != null) {
+        records.add(new ActivityRecord(memberSeq, Date.valueOf(key.day), second, info.category));
+      }
+    });
+    return records;
+  }
+
+  //체크포인트마다 반올림하므로 오차는 한쪽으로 쌓이지 않는다.
+  private static long toSeconds(long millis) {
+    return (millis + 500) / 1000;
+  }
+
+  //스터디나 스터디 방이 없으면 null (그 시간은 버린다). 그 밖의 실패는 그대로 던진다.
+  private RoomInfo roomInfo(String roomName) {
+    final RoomInfo cached = roomInfos.get(roomName);
+    if (cached != null) {
+      return cached;
+    }
+    final long studySeq;
+    try {
+      studySeq = Long.parseLong(roomName);//study seq
+    } catch (NumberFormatException e) {
+      log.info("ROOM {}: not a study room, activity is not saved", roomName);
+      return null;
+    }
+    final String category;
+    try {
+      category = studyService.readStudy(studySeq).getTopCategory();
+    } catch (StudyNotFound e) {
+      log.info("ROOM {}: no study, activity is not saved", roomName);
+      return null;
+    }
+    final StudyRoomResponse studyRoom = studyRoomService.getUUIDStudy(studySeq);
+    if (studyRoom == null) {
+      log.info("ROOM {}: no study room, activity is not saved", roomName);
+      return null;
+    }
+    final RoomInfo info = new RoomInfo(studyRoom.getSequence(), category);
+    roomInfos.put(roomName, info);
+    return info;
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class MemberKey {
+
+    private final String nickname;
+    private final String roomName;
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class MemberDay {
+
+    private final String nickname;
+    private final String roomName;
+    private final LocalDate day;
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class RoomDay {
+
+    private final String roomName;
+    private final LocalDate day;
+  }
+
+  private static class Interval {
+
+    //원본 행에 쓰는 구간의 시작
+    private final Instant start;
+    //날짜별 합계에 여기까지 쌓았다.
+    private Instant checkpoint;
+
+    private Interval(Instant start) {
+      this.start = start;
+      this.checkpoint = start;
+    }
+  }
+
+  private static final class OpenRoom extends Interval {
+
+    private int rooms;
+
+    private OpenRoom(Instant start) {
+      super(start);
+    }
+  }
+
+  //아직 저장하지 않은 시간(ms)
+  private static final class Pending {
+
+    //체크포인트로 자른 시간. 날짜별 합계에만 더한다.
+    private final Map<MemberDay, Long> memberDaily = new HashMap<>();
+    private final Map<RoomDay, Long> roomDaily = new HashMap<>();
+    //끝난 구간 전체. 원본 행으로만 저장한다.
+    private final Map<MemberDay, Long> memberRaw = new HashMap<>();
+    private final Map<RoomDay, Long> roomRaw = new HashMap<>();
+  }
+
+  @RequiredArgsConstructor
+  private static final class RoomInfo {
+
+    private final Long studyRoomSeq;
+    private final String category;
+  }
+}
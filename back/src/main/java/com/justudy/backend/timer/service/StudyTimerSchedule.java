@@ -0,0 +1,39 @@
+package com.justudy.backend.timer.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * StudyTimerSchedule : 공부 시간 저장 스케줄
+ * <p>
+ * 1. 화상 스터디 공부 시간 체크포인트 2. member_activity 쓰기 지연 버퍼 저장
+ **/
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class StudyTimerSchedule {
+
+  private final StudySessionTimer studySessionTimer;
+  private final MemberActivityBuffer memberActivityBuffer;
+
+  //서버가 죽으면 이 주기만큼의 시간을 잃는다.
+  @Scheduled(fixedDelayString = "${groupcall.timer.checkpoint-interval:60000}")
+  public void checkpointStudyTime() {
+    int saved = studySessionTimer.flush();
+    if (saved > 0) {
+      log.debug("Saved {} study time rows", saved);
+    }
+  }
+
+  //flush-size 에 닿지 않아도 이 주기마다 저장한다.
+  @Scheduled(fixedDelayString = "${timer.write-behind.flush-interval:10000}")
+  public void flushMemberActivity() {
+    int flushed = memberActivityBuffer.flush();
+    if (flushed > 0) {
+      log.debug("Flushed {} member activity rows ({} pending)", flushed,
+          memberActivityBuffer.pendingCount());
+    }
+  }
+}
@@ -0,0 +1,299 @@
+-- 엔티티 매핑(ddl-auto: create 가 만들던 스키마)과 같은 초기 스키마.
+-- 이후 스키마 변경은 새 버전 파일(V2__...)로 추가한다. 이미 적용된 파일은 고치지 않는다.
+
+-- GenerationType.AUTO 엔티티가 같이 쓰는 시퀀스 테이블
+create table hibernate_sequence (
+    next_val bigint
+);
+insert into hibernate_sequence values (1);
+
+create table upload_file (
+    upload_file_seq bigint not null,
+    upload_filename varchar(255),
+    store_filename varchar(255),
+    primary key (upload_file_seq)
+);
+
+create table category (
+    category_seq bigint not null,
+    category_key varchar(255),
+    category_value varchar(255),
+    category_level bigint,
+    parent_id bigint,
+    primary key (category_seq)
+);
+
+create table member (
+    member_seq bigint not null,
+    member_user_id varchar(255),
+    member_password varchar(255),
+    member_username varchar(255),
+    member_nickname varchar(255),
+    member_ssafy_id varchar(255),
+    member_phone varchar(255),
+    member_email varchar(255),
+    member_region varchar(255),
+    member_dream varchar(255),
+    member_introduction varchar(255),
+    upload_file_seq bigint,
+    member_role varchar(255),
+    member_status varchar(255),
+    member_level varchar(255),
+    member_mm_id varchar(255),
+    member_mm_valid bit not null,
+    member_badge_count integer,
+    member_is_deleted bit not null,
+    member_is_banned bit not null,
+    member_created_time datetime(6),
+    member_modified_time datetime(6),
+    primary key (member_seq)
+);
+
+create table member_category (
+    sequence bigint not null,
+    member_seq bigint,
+    category_seq bigint,
+    primary key (sequence)
+);
+
+create table community (
+    community_seq bigint not null,
+    member_seq bigint,
+    category_seq bigint,
+    community_title varchar(255),
+    community_content varchar(255),
+    community_view_count integer,
+    community_created_time datetime(6),
+    community_modified_time datetime(6),
+    community_is_deleted boolean,
+    community_is_highlighted boolean,
+    community_week_love_count integer,
+    primary key (community_seq)
+);
+
+create table community_comment (
+    comment_seq bigint not null,
+    member_seq bigint,
+    community_seq bigint,
+    comment_content varchar(255),
+    comment_created_time datetime(6),
+    comment_modified_time datetime(6),
+    comment_is_deleted boolean,
+    comment_group integer,
+    comment_order integer,
+    comment_parent_seq bigint,
+    comment_step integer,
+    comment_child_number integer,
+    primary key (comment_seq)
+);
+
+create table community_love (
+    love_seq bigint not null,
+    member_sequence bigint,
+    community_sequence bigint,
+    created_time datetime(6),
+    primary key (love_seq)
+);
+
+create table community_bookmark (
+    bookmark_seq bigint not null,
+    member_sequence bigint,
+    community_sequence bigint,
+    created_time datetime(6),
+    primary key (bookmark_seq)
+);
+
+create table study (
+    study_seq bigint not null,
+    study_category_seq bigint,
+    study_name varchar(255),
+    study_leader_seq bigint,
+    study_introduction varchar(255),
+    study_population integer,
+    study_level varchar(255),
+    study_online_offline varchar(255),
+    study_is_open boolean,
+    study_github varchar(255),
+    study_notion varchar(255),
+    upload_file_seq bigint,
+    study_created_time datetime(6),
+    study_modified_time datetime(6),
+    study_start_time varchar(255),
+    primary key (study_seq)
+);
+
+create table study_community (
+    study_community_seq bigint not null,
+    primary key (study_community_seq)
+);
+
+create table study_communities (
+    study_entity_study_seq bigint not null,
+    communities_study_community_seq bigint not null,
+    constraint uk_study_communities_community unique (communities_study_community_seq)
+);
+
+create table study_frequency (
+    study_frequency_seq bigint not null,
+    study_seq bigint,
+    study_frequency_week varchar(255),
+    study_frequency_start_time time,
+    study_frequency_end_time time,
+    study_frequency_created_time datetime(6),
+    study_frequency_modified_time datetime(6),
+    primary key (study_frequency_seq)
+);
+
+create table study_member (
+    study_member_seq bigint not null,
+    member_seq bigint,
+    study_member_study_seq bigint,
+    study_member_alarm boolean,
+    study_member_badge integer,
+    study_member_created_time datetime(6),
+    study_member_modified_time datetime(6),
+    primary key (study_member_seq)
+);
+
+create table study_resume (
+    study_resume_seq bigint not null,
+    study_seq bigint,
+    member_seq bigint,
+    content varchar(255),
+    created_time datetime(6),
+    modified_time datetime(6),
+    responded_time datetime(6),
+    respond varchar(255),
+    primary key (study_resume_seq)
+);
+
+create table study_room (
+    room_seq bigint not null,
+    study_seq bigint,
+    study_room_uuid varchar(255),
+    primary key (room_seq)
+);
+
+create table chat_message (
+    chat_message_seq bigint not null,
+    chat_message_room varchar(64) not null,
+    chat_message_name varchar(255) not null,
+    chat_message_content varchar(1000) not null,
+    chat_message_created_time datetime(6) not null,
+    primary key (chat_message_seq)
+);
+
+-- 공부 시간 원본. 쓰기 위주이고 통계는 *_daily 에서 읽는다.
+create table member_activity (
+    member_activity_seq bigint not null auto_increment,
+    member_seq bigint,
+    member_activity_date date,
+    member_activity_time bigint,
+    member_activity_category varchar(255),
+    primary key (member_activity_seq)
+);
+
+create table member_activity_daily (
+    member_activity_daily_seq bigint not null auto_increment,
+    member_seq bigint,
+    member_activity_daily_date date,
+    member_activity_daily_category varchar(255),
+    member_activity_daily_time bigint,
+    primary key (member_activity_daily_seq),
+    constraint uk_member_activity_daily
+        unique (member_seq, member_activity_daily_date, member_activity_daily_category)
+);
+
+create table room_activity (
+    room_activity_seq bigint not null auto_increment,
+    study_room_seq bigint,
+    room_activity_date date,
+    room_activity_time bigint,
+    room_activity_category varchar(255),
+    primary key (room_activity_seq)
+);
+
+create table room_activity_daily (
+    room_activity_daily_seq bigint not null auto_increment,
+    study_room_seq bigint,
+    room_activity_daily_date date,
+    room_activity_daily_category varchar(255),
+    room_activity_daily_time bigint,
+    primary key (room_activity_daily_seq),
+    constraint uk_room_activity_daily
+        unique (study_room_seq, room_activity_daily_date, room_activity_daily_category)
+);
+
+create table ranking (
+    rank_seq bigint not null,
+    rank_group varchar(255),
+    rank_type varchar(255),
+    rank_order integer,
+    rank_name varchar(255),
+    rank_time bigint,
+    rank_image bigint,
+    primary key (rank_seq)
+);
+
+-- 조회가 몰리는 쿼리용 인덱스. 엔티티의 @Table(indexes) 와 이름을 맞춘다.
+-- 회원/방 한 명의 기간 조회는 uk_*_daily 의 앞 두 컬럼을 쓴다. 날짜로 모든 회원/방을 읽는 쿼리(어제 1등, 기간 랭킹, 평균)는
+-- (날짜, 소유자, 시간) 으로 테이블을 읽지 않고 인덱스만 읽는다.
+create index idx_member_activity_member_date on member_activity (member_seq, member_activity_date);
+create index idx_member_activity_daily_date
+    on member_activity_daily (member_activity_daily_date, member_seq, member_activity_daily_time);
+create index idx_room_activity_room_date on room_activity (study_room_seq, room_activity_date);
+create index idx_room_activity_daily_date
+    on room_activity_daily (room_activity_daily_date, study_room_seq, room_activity_daily_time);
+create index idx_ranking_group_type_order on ranking (rank_group, rank_type, rank_order);
+create index idx_community_highlighted on community (community_is_highlighted, community_seq);
+create index idx_community_week_love on community (community_week_love_count);
+create index idx_community_love_community_member
+    on community_love (community_sequence, member_sequence);
+create index idx_community_bookmark_community_member
+    on community_bookmark (community_sequence, member_sequence);
+create index idx_chat_message_room_seq on chat_message (chat_message_room, chat_message_seq);
+
+alter table category add constraint fk_category_parent
+    foreign key (parent_id) references category (category_seq);
+alter table member add constraint fk_member_upload_file
+    foreign key (upload_file_seq) references upload_file (upload_file_seq);
+alter table member_category add constraint fk_member_category_member
+    foreign key (member_seq) references member (member_seq);
+alter table member_category add constraint fk_member_category_category
+    foreign key (category_seq) references category (category_seq);
+alter table community add constraint fk_community_member
+    foreign key (member_seq) references member (member_seq);
+alter table community add constraint fk_community_category
+    foreign key (category_seq) references category (category_seq);
+alter table community_comment add constraint fk_community_comment_member
+    foreign key (member_seq) references member (member_seq);
+alter table community_comment add constraint fk_community_comment_community
+    foreign key (community_seq) references community (community_seq);
+alter table study add constraint fk_study_category
+    foreign key (study_category_seq) references category (category_seq);
+alter table study add constraint fk_study_upload_file
+    foreign key (upload_file_seq) references upload_file (upload_file_seq);
+alter table study_communities add constraint fk_study_communities_study
+    foreign key (study_entity_study_seq) references study (study_seq);
+alter table study_communities add constraint fk_study_communities_community
+    foreign key (communities_study_community_seq) references study_community (study_community_seq);
+alter table study_frequency add constraint fk_study_frequency_study
+    foreign key (study_seq) references study (study_seq);
+alter table study_member add constraint fk_study_member_member
+    foreign key (member_seq) references member (member_seq);
+alter table study_member add constraint fk_study_member_study
+    foreign key (study_member_study_seq) references study (study_seq);
+alter table study_resume add constraint fk_study_resume_study
+    foreign key (study_seq) references study (study_seq);
+alter table study_resume add constraint fk_study_resume_member
+    foreign key (member_seq) references member (member_seq);
+alter table study_room add constraint fk_study_room_study
+    foreign key (study_seq) references study (study_seq);
+alter table member_activity add constraint fk_member_activity_member
+    foreign key (member_seq) references member (member_seq);
+alter table member_activity_daily add constraint fk_member_activity_daily_member
+    foreign key (member_seq) references member (member_seq);
+alter table room_activity add constraint fk_room_activity_study_room
+    foreign key (study_room_seq) references study_room (room_seq);
+alter table room_activity_daily add constraint fk_room_activity_daily_study_room
+    foreign key (study_room_seq) references study_room (room_seq);
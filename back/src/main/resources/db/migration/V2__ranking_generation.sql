@@ -0,0 +1,19 @@
+-- 랭킹 스냅샷을 세대(generation)로 저장한다. 새 세대를 다 넣은 뒤 ranking_generation 의 값만 바꿔서 공개하고, 이전 세대는 그 뒤에 지운다.
+alter table ranking add column rank_generation bigint not null default 0;
+
+create table ranking_generation (
+    rank_generation_seq bigint not null auto_increment,
+    rank_group varchar(255) not null,
+    rank_type varchar(255) not null,
+    rank_generation bigint not null,
+    primary key (rank_generation_seq),
+    constraint uk_ranking_generation unique (rank_group, rank_type)
+);
+
+-- 이미 저장된 랭킹은 0 세대로 공개한다.
+insert into ranking_generation (rank_group, rank_type, rank_generation)
+select distinct rank_group, rank_type, 0 from ranking;
+
+drop index idx_ranking_group_type_order on ranking;
+create index idx_ranking_group_type_generation
+    on ranking (rank_group, rank_type, rank_generation, rank_order);
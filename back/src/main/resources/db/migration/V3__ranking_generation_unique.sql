@@ -0,0 +1,13 @@
+-- 한 세대 안에서 (그룹, 기간, 순위)는 한 행뿐이다. 같은 세대를 두 번 공개하면 여기서 실패한다.
+-- 혹시 남아있는 중복은 먼저 들어간 행만 남긴다.
+delete from ranking
+where rank_seq not in (
+    select kept.rank_seq from (
+        select min(rank_seq) as rank_seq from ranking
+        group by rank_group, rank_type, rank_generation, rank_order
+    ) kept
+);
+
+drop index idx_ranking_group_type_generation on ranking;
+create unique index uk_ranking_group_type_generation_order
+    on ranking (rank_group, rank_type, rank_generation, rank_order);
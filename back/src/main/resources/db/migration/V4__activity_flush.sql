@@ -0,0 +1,10 @@
+-- 공부 시간을 저장할 때마다 같은 트랜잭션에서 1 씩 올린다. 랭킹/평균을 DB 에서 다시 읽을 때 이 값을 같이 읽어서,
+-- 그 뒤에 저장된 것(값이 더 큰 것)만 메모리에 다시 더한다.
+create table activity_flush (
+    flush_name varchar(20) not null,
+    flush_seq bigint not null,
+    primary key (flush_name)
+);
+
+insert into activity_flush (flush_name, flush_seq) values ('member', 0);
+insert into activity_flush (flush_name, flush_seq) values ('room', 0);
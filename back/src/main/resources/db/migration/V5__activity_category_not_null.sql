@@ -0,0 +1,35 @@
+-- 카테고리가 없는 시간은 '' 로 저장한다. null 은 unique 키에서 서로 다르게 취급되어 같은 날 같은 회원/방의 합계가 한 행으로 모이지 않는다.
+-- 이미 null 로 쌓인 합계는 '' 행으로 합친 뒤 지운다.
+insert into member_activity_daily (member_seq, member_activity_daily_date,
+                                   member_activity_daily_category, member_activity_daily_time)
+select member_seq, member_activity_daily_date, '', sum(member_activity_daily_time)
+from member_activity_daily
+where member_activity_daily_category is null
+group by member_seq, member_activity_daily_date
+on duplicate key update member_activity_daily_time =
+    member_activity_daily_time + values(member_activity_daily_time);
+
+delete from member_activity_daily where member_activity_daily_category is null;
+
+insert into room_activity_daily (study_room_seq, room_activity_daily_date,
+                                 room_activity_daily_category, room_activity_daily_time)
+select study_room_seq, room_activity_daily_date, '', sum(room_activity_daily_time)
+from room_activity_daily
+where room_activity_daily_category is null
+group by study_room_seq, room_activity_daily_date
+on duplicate key update room_activity_daily_time =
+    room_activity_daily_time + values(room_activity_daily_time);
+
+delete from room_activity_daily where room_activity_daily_category is null;
+
+update member_activity set member_activity_category = '' where member_activity_category is null;
+update room_activity set room_activity_category = '' where room_activity_category is null;
+
+alter table member_activity_daily
+    modify member_activity_daily_category varchar(255) not null default '';
+alter table room_activity_daily
+    modify room_activity_daily_category varchar(255) not null default '';
+alter table member_activity
+    modify member_activity_category varchar(255) not null default '';
+alter table room_activity
+    modify room_activity_category varchar(255) not null default '';
@@ -0,0 +1,8 @@
+-- 채팅 기록 키를 hibernate_sequence 와 따로 50개씩 받는다. (ChatMessageEntity 의 chat_message_sequence)
+-- pooled 는 읽은 값을 받은 구간의 끝으로 쓴다(값-49 ~ 값). 이미 쓴 키 다음부터 받도록 지금 최대값 + 50 에서 시작한다.
+create table chat_message_sequence (
+    next_val bigint
+);
+
+insert into chat_message_sequence (next_val)
+select coalesce(max(chat_message_seq), 0) + 50 from chat_message;
@@ -0,0 +1,56 @@
+package com.justudy.backend.GroupCall.dto.request;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.IceCandidate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignalMessageTest {
+
+    @Test
+    @DisplayName("채팅 메시지 필드 읽기")
+    void readChat() throws IOException {
+        //given
+        String json = "{\"id\":\"sendChat\",\"name\":\"levi\",\"room\":\"3\",\"message\":\"hi\"}";
+
+        //when
+        SignalMessage message = SignalMessage.from(json);
+
+        //then
+        assertThat(message.getId()).isEqualTo("sendChat");
+        assertThat(message.getName()).isEqualTo("levi");
+        assertThat(message.getRoom()).isEqualTo("3");
+        assertThat(message.getMessage()).isEqualTo("hi");
+        assertThat(message.hasCandidate()).isFalse();
+    }
+
+    @Test
+    @DisplayName("ICE 후보는 중첩 객체에서 바로 읽고, 모르는 필드는 건너뛴다")
+    void readIceCandidate() throws IOException {
+        //given
+        String json = "{\"id\":\"onIceCandidate\",\"extra\":{\"a\":[1,2,{\"b\":null}]},"
+                + "\"candidate\":{\"candidate\":\"candidate:1 1 UDP 2122252543 10.0.0.1 54400 typ host\","
+                + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0,\"usernameFragment\":\"x\"},\"name\":\"levi\"}";
+
+        //when
+        SignalMessage message = SignalMessage.from(json);
+        IceCandidate candidate = message.toIceCandidate();
+
+        //then
+        assertThat(message.getName()).isEqualTo("levi");
+        assertThat(candidate.getCandidate()).startsWith("candidate:1 1 UDP");
+        assertThat(candidate.getSdpMid()).isEqualTo("0");
+        assertThat(candidate.getSdpMLineIndex()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("깨진 메시지는 IOException")
+    void malformed() {
+        assertThatThrownBy(() -> SignalMessage.from("{\"id\":[\"joinRoom\"]}"))
+                .isInstanceOf(IOException.class);
+    }
+}
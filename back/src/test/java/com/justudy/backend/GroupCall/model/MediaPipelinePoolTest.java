@@ -0,0 +1,99 @@
+package com.justudy.backend.GroupCall.model;
+
+import com.justudy.backend.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.Continuation;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaPipelinePoolTest {
+
+    private KurentoClient kurento;
+    private MutableClock clock;
+    private MediaPipelinePool pool;
+
+    @BeforeEach
+    void setUp() {
+        kurento = mock(KurentoClient.class);
+        when(kurento.createMediaPipeline()).thenAnswer(invocation -> mock(MediaPipeline.class));
+        clock = new MutableClock(Instant.parse("2023-02-01T09:00:00Z"), ZoneId.of("UTC"));
+        pool = new MediaPipelinePool(kurento, 2, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    @DisplayName("반납된 파이프라인은 다음 방에서 재사용")
+    void reuseReleasedPipeline() {
+        //given
+        MediaPipeline first = pool.acquire();
+        pool.release(first);
+
+        //when
+        MediaPipeline second = pool.acquire();
+
+        //then
+        assertThat(second).isSameAs(first);
+        verify(kurento, times(1)).createMediaPipeline();
+        verify(first, never()).release(any(Continuation.class));
+    }
+
+    @Test
+    @DisplayName("max-idle 을 넘는 반납은 바로 해제")
+    void releaseOverMaxIdle() {
+        //given
+        MediaPipeline a = pool.acquire();
+        MediaPipeline b = pool.acquire();
+        MediaPipeline c = pool.acquire();
+
+        //when
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+
+        //then
+        assertThat(pool.idleCount()).isEqualTo(2);
+        verify(c).release(any(Continuation.class));
+    }
+
+    @Test
+    @DisplayName("idle-ttl 이 지난 파이프라인만 해제")
+    void evictExpired() {
+        //given
+        MediaPipeline old = pool.acquire();
+        MediaPipeline fresh = pool.acquire();
+        pool.release(old);
+        clock.advance(Duration.ofMinutes(8));
+        pool.release(fresh);
+
+        //when
+        clock.advance(Duration.ofMinutes(3));
+        int evicted = pool.evictExpired();
+
+        //then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(pool.idleCount()).isEqualTo(1);
+        verify(old).release(any(Continuation.class));
+        verify(fresh, never()).release(any(Continuation.class));
+    }
+
+    @Test
+    @DisplayName("pre-warm 은 max-idle 까지만 만든다")
+    void prewarmUpToMaxIdle() {
+        assertThat(pool.prewarm(5)).isEqualTo(2);
+        assertThat(pool.prewarm(5)).isZero();
+        assertThat(pool.idleCount()).isEqualTo(2);
+    }
+}
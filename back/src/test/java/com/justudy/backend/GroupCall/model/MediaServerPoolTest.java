@@ -0,0 +1,115 @@
+package com.justudy.backend.GroupCall.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MediaServerPoolTest {
+
+    private MediaServer first;
+    private MediaServer second;
+    private MediaServerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        first = server("kms-1");
+        second = server("kms-2");
+        pool = new MediaServerPool(List.of(first, second));
+    }
+
+    @Test
+    @DisplayName("새 방은 부하가 가장 적은 서버에 배치")
+    void placeOnLeastLoaded() {
+        //given
+        for (int i = 0; i < 6; i++) {
+            first.endpointCreated();
+        }
+
+        //when
+        MediaServer placed = pool.place("1").getServer();
+
+        //then
+        assertThat(placed).isSameAs(second);
+        assertThat(second.getPipelineCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("닫히는 방과 같은 이름의 새 방은 같은 서버에 두고 파이프라인은 따로 예약한다")
+    void stickyPlacement() {
+        //given
+        MediaServer placed = pool.place("1").getServer();
+        for (int i = 0; i < 20; i++) {
+            placed.endpointCreated();
+        }
+
+        //when
+        MediaServer again = pool.place("1").getServer();
+
+        //then
+        assertThat(again).isSameAs(placed);
+        assertThat(placed.getPipelineCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("먼저 연 방이 늦게 닫혀도 새 방의 배치는 남는다")
+    void releaseKeepsReplacement() {
+        //given
+        MediaServerPool.Placement old = pool.place("1");
+        MediaServerPool.Placement replacement = pool.place("1");
+        MediaPipeline oldPipeline = old.getServer().acquirePipeline();
+
+        //when
+        pool.release(old, oldPipeline);
+
+        //then
+        assertThat(pool.findPlacement("1")).isSameAs(replacement.getServer());
+        assertThat(replacement.getServer().getPipelineCount()).isEqualTo(1);
+
+        pool.release(replacement, null);
+        assertThat(pool.findPlacement("1")).isNull();
+        assertThat(replacement.getServer().getPipelineCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("동시에 열리는 방은 서버에 번갈아 배치")
+    void spreadNewRooms() {
+        //when
+        MediaServer a = pool.place("1").getServer();
+        MediaServer b = pool.place("2").getServer();
+
+        //then
+        assertThat(a).isNotSameAs(b);
+    }
+
+    @Test
+    @DisplayName("방을 닫으면 배치와 부하가 풀린다")
+    void releasePlacement() {
+        //given
+        MediaServerPool.Placement placement = pool.place("1");
+        MediaServer placed = placement.getServer();
+        MediaPipeline pipeline = placed.acquirePipeline();
+
+        //when
+        pool.release(placement, pipeline);
+
+        //then
+        assertThat(pool.findPlacement("1")).isNull();
+        assertThat(placed.getPipelineCount()).isZero();
+        assertThat(placed.getPipelinePool().idleCount()).isEqualTo(1);
+    }
+
+    private MediaServer server(String uri) {
+        KurentoClient kurento = mock(KurentoClient.class);
+        when(kurento.createMediaPipeline()).thenAnswer(invocation -> mock(MediaPipeline.class));
+        return new MediaServer(uri, kurento, new MediaPipelinePool(kurento, 2, Duration.ofMinutes(10)));
+    }
+}
@@ -0,0 +1,147 @@
+package com.justudy.backend.GroupCall.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundMessageQueueTest {
+
+    private Session session;
+    private RemoteEndpoint.Async remote;
+    //closer 에 넘긴 작업. 테스트가 직접 실행한다.
+    private List<Runnable> closes;
+    private OutboundMessageQueue outbound;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Async.class);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.isOpen()).thenReturn(true);
+        closes = new ArrayList<>();
+        outbound = new OutboundMessageQueue("a", session, closes::add);
+    }
+
+    @Test
+    @DisplayName("한 번에 한 건만 보내고, 앞의 전송이 끝나야 다음 메시지를 넣은 순서대로 보낸다")
+    void sendsInOrderOneAtATime() throws IOException {
+        //given
+        outbound.enqueue("1");
+        outbound.enqueue("2");
+        outbound.enqueue("3");
+
+        //when & then
+        verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+        assertThat(outbound.size()).isEqualTo(3);
+
+        complete(1, new SendResult());
+        complete(2, new SendResult());
+
+        InOrder order = inOrder(remote);
+        order.verify(remote).sendText(eq("1"), any(SendHandler.class));
+        order.verify(remote).sendText(eq("2"), any(SendHandler.class));
+        order.verify(remote).sendText(eq("3"), any(SendHandler.class));
+        assertThat(outbound.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 거절하고, 연결은 보내던 스레드가 아니라 closer 에서 끊는다")
+    void overflowEvictsOnCloser() throws IOException {
+        //given
+        for (int i = 0; i < OutboundMessageQueue.MAX_PENDING_MESSAGES; i++) {
+            outbound.enqueue("message" + i);
+        }
+
+        //when
+        assertThatThrownBy(() -> outbound.enqueue("overflow")).isInstanceOf(IOException.class);
+
+        //then
+        verify(session, never()).close(any(CloseReason.class));
+        assertThat(closes).hasSize(1);
+        closes.get(0).run();
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertThat(reason.getValue().getCloseCode()).isEqualTo(CloseCodes.TRY_AGAIN_LATER);
+        assertThatThrownBy(() -> outbound.enqueue("after")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("전송이 실패하면 남은 메시지를 버리고 연결을 한 번만 끊는다")
+    void failedSendEvicts() throws IOException {
+        //given
+        outbound.enqueue("1");
+        outbound.enqueue("2");
+
+        //when
+        complete(1, new SendResult(new IOException("timeout")));
+
+        //then
+        verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+        assertThat(closes).hasSize(1);
+        outbound.close();
+        assertThat(closes).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("sendText 가 바로 예외를 던져도 연결을 끊는다")
+    void sendTextThrowsEvicts() throws IOException {
+        //given
+        doThrow(new IllegalStateException("closed")).when(remote)
+                .sendText(anyString(), any(SendHandler.class));
+
+        //when
+        outbound.enqueue("1");
+
+        //then
+        assertThat(closes).hasSize(1);
+        closes.get(0).run();
+        verify(session).close(any(CloseReason.class));
+    }
+
+    @Test
+    @DisplayName("연결을 끊을 때 이미 닫혔으면 close 를 부르지 않는다")
+    void alreadyClosedSession() throws IOException {
+        //given
+        outbound.enqueue("1");
+        complete(1, new SendResult(new IOException("reset")));
+        when(session.isOpen()).thenReturn(false);
+
+        //when
+        closes.get(0).run();
+
+        //then
+        verify(session, never()).close(any(CloseReason.class));
+    }
+
+    //n 번째로 보낸 메시지의 전송을 끝낸다.
+    private void complete(int n, SendResult result) {
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote, times(n)).sendText(anyString(), handler.capture());
+        handler.getAllValues().get(n - 1).onResult(result);
+    }
+}
@@ -0,0 +1,238 @@
+package com.justudy.backend.GroupCall.model;
+
+import com.justudy.backend.GroupCall.cluster.InMemoryRoomDirectory;
+import com.justudy.backend.GroupCall.cluster.RoomDirectory;
+import com.justudy.backend.GroupCall.exception.RoomUnavailable;
+import com.justudy.backend.timer.service.StudySessionTimer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.websocket.Session;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoomManagerTest {
+
+    private static final int THREADS = 32;
+
+    private final AtomicInteger createdPipelines = new AtomicInteger();
+    private RoomManager roomManager;
+    private MediaServer server;
+    private MediaServerPool mediaServers;
+    private RoomDirectory roomDirectory;
+
+    @BeforeEach
+    void setUp() {
+        KurentoClient kurento = mock(KurentoClient.class);
+        when(kurento.createMediaPipeline()).thenAnswer(invocation -> {
+            createdPipelines.incrementAndGet();
+            Thread.sleep(20); //KMS 왕복 시간 흉내
+            return mock(MediaPipeline.class);
+        });
+        roomManager = new RoomManager();
+        server = new MediaServer("kms-test", kurento,
+                new MediaPipelinePool(kurento, 0, Duration.ofMinutes(10)));
+        mediaServers = new MediaServerPool(List.of(server));
+        ReflectionTestUtils.setField(roomManager, "mediaServers", mediaServers);
+        ReflectionTestUtils.setField(roomManager, "studySessionTimer",
+                mock(StudySessionTimer.class));
+        roomDirectory = spy(new InMemoryRoomDirectory());
+        ReflectionTestUtils.setField(roomManager, "roomDirectory", roomDirectory);
+    }
+
+    @Test
+    @DisplayName("같은 방에 동시에 입장해도 파이프라인은 하나만 만든다")
+    void singleFlightPerRoom() throws Exception {
+        //when
+        List<Room> rooms = joinConcurrently(Collections.nCopies(THREADS, "1"));
+
+        //then
+        Set<Room> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(rooms);
+        assertThat(distinct).hasSize(1);
+        assertThat(createdPipelines.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("여러 방에 동시에 입장하면 방마다 파이프라인 하나")
+    void singleFlightPerRoomName() throws Exception {
+        //given
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            names.add(String.valueOf(i % 8));
+        }
+
+        //when
+        joinConcurrently(names);
+
+        //then
+        assertThat(createdPipelines.get()).isEqualTo(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(roomManager.findRoom(String.valueOf(i))).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("findRoom 은 없는 방을 만들지 않는다")
+    void findRoomNeverCreates() {
+        assertThat(roomManager.findRoom("404")).isNull();
+        assertThat(roomManager.findRoom(null)).isNull();
+        assertThat(createdPipelines.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("마지막 참가자가 나가면 방을 지우고 파이프라인을 돌려준다")
+    void lastLeaveRemovesRoom() throws Exception {
+        //given
+        UserSession user = roomManager.join("1", "a", session());
+        Room room = roomManager.findRoom("1");
+
+        //when
+        roomManager.leave(room, user);
+
+        //then
+        assertThat(roomManager.findRoom("1")).isNull();
+        assertThat(room.isClosed()).isTrue();
+        assertThat(server.getPipelineCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("이미 나간 참가자가 다시 나가도 방은 한번만 정리")
+    void leaveIsIdempotent() throws Exception {
+        //given
+        UserSession first = roomManager.join("1", "a", session());
+        UserSession second = roomManager.join("1", "b", session());
+        Room room = roomManager.findRoom("1");
+        roomManager.leave(room, first);
+
+        //when
+        roomManager.leave(room, first);
+
+        //then
+        assertThat(roomManager.findRoom("1")).isSameAs(room);
+        assertThat(room.getParticipant("b")).isSameAs(second);
+    }
+
+    @Test
+    @DisplayName("닫히는 방을 잡은 입장은 새 방으로 다시 들어간다")
+    void joinRetriesOnRetiredRoom() throws Exception {
+        //given
+        Room retired = roomManager.getRoom("1");
+        assertThat(retired.retireIfEmpty()).isTrue();
+
+        //when
+        UserSession user = roomManager.join("1", "a", session());
+
+        //then
+        Room current = roomManager.findRoom("1");
+        assertThat(current).isNotSameAs(retired);
+        assertThat(current.getParticipant("a")).isSameAs(user);
+        assertThat(createdPipelines.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("다른 인스턴스가 가진 방은 만들지 않는다")
+    void roomOwnedElsewhere() {
+        //given
+        doReturn(false).when(roomDirectory).claim("1");
+
+        //when //then
+        assertThatThrownBy(() -> roomManager.join("1", "a", session()))
+                .isInstanceOf(RoomUnavailable.class);
+        assertThat(roomManager.findRoom("1")).isNull();
+        assertThat(createdPipelines.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("방을 지우면 소유도 놓는다")
+    void removeRoomReleasesClaim() throws Exception {
+        //given
+        UserSession user = roomManager.join("1", "a", session());
+
+        //when
+        roomManager.leave(roomManager.findRoom("1"), user);
+
+        //then
+        verify(roomDirectory).claim("1");
+        verify(roomDirectory).release("1");
+    }
+
+    @Test
+    @DisplayName("닫히던 방이 새 방보다 늦게 지워져도 새 방의 배치, 파이프라인, 소유는 남는다")
+    void lateRemoveKeepsReplacement() throws Exception {
+        //given
+        Room retired = roomManager.getRoom("1");
+        assertThat(retired.retireIfEmpty()).isTrue();
+        UserSession user = roomManager.join("1", "a", session());
+        Room current = roomManager.findRoom("1");
+
+        //when
+        roomManager.removeRoom(retired);
+
+        //then
+        assertThat(roomManager.findRoom("1")).isSameAs(current);
+        assertThat(mediaServers.findPlacement("1")).isSameAs(server);
+        assertThat(server.getPipelineCount()).isEqualTo(1);
+        verify(roomDirectory, never()).release("1");
+
+        //새 방이 닫히면 그때 모두 풀린다.
+        roomManager.leave(current, user);
+        assertThat(mediaServers.findPlacement("1")).isNull();
+        assertThat(server.getPipelineCount()).isZero();
+        verify(roomDirectory).release("1");
+    }
+
+    private Session session() {
+        Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+        when(session.getId()).thenReturn(String.valueOf(System.nanoTime()));
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private List<Room> joinConcurrently(List<String> roomNames) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Room>> futures = new ArrayList<>();
+            for (String roomName : roomNames) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return roomManager.getRoom(roomName);
+                }));
+            }
+            start.countDown();
+
+            List<Room> rooms = new ArrayList<>();
+            for (Future<Room> future : futures) {
+                rooms.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return rooms;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
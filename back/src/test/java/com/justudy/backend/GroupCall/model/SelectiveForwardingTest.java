@@ -0,0 +1,97 @@
+package com.justudy.backend.GroupCall.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectiveForwardingTest {
+
+    private SelectiveForwarding forwarding;
+
+    @BeforeEach
+    void setUp() {
+        forwarding = new SelectiveForwarding(2);
+        for (String name : List.of("a", "b", "c", "d")) {
+            forwarding.join(name);
+        }
+        forwarding.recompute();
+    }
+
+    @Test
+    @DisplayName("처음에는 먼저 들어온 순서로 maxSenders 명만 받는다")
+    void joinOrderByDefault() {
+        assertThat(forwarding.isForwarded("d", "a")).isTrue();
+        assertThat(forwarding.isForwarded("d", "b")).isTrue();
+        assertThat(forwarding.isForwarded("d", "c")).isFalse();
+        assertThat(forwarding.isForwarded("a", "c")).isTrue();
+        assertThat(forwarding.isForwarded("a", "a")).isTrue();
+    }
+
+    @Test
+    @DisplayName("말하는 사람은 모두의 목록에 들어가고, 밀려난 송신자는 dropped 로 알려준다")
+    void activeSpeakerReplacesLeastRelevant() {
+        //when
+        boolean changed = forwarding.speaking("d");
+        Map<String, SelectiveForwarding.Update> updates = byViewer(forwarding.recompute());
+
+        //then
+        assertThat(changed).isTrue();
+        assertThat(updates.get("c").getSenders()).containsExactly("d", "a");
+        assertThat(updates.get("c").getDropped()).containsExactly("b");
+        assertThat(updates).doesNotContainKey("d");
+    }
+
+    @Test
+    @DisplayName("같은 사람이 계속 말하면 다시 계산하지 않는다")
+    void sameSpeakerIsNoop() {
+        forwarding.speaking("d");
+        forwarding.recompute();
+
+        assertThat(forwarding.speaking("d")).isFalse();
+        assertThat(forwarding.recompute()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("고정한 사람이 말하는 사람보다 먼저")
+    void pinnedBeforeSpeaker() {
+        //given
+        forwarding.speaking("d");
+        forwarding.unmuted("b");
+
+        //when
+        forwarding.pin("a", "c");
+        Map<String, SelectiveForwarding.Update> updates = byViewer(forwarding.recompute());
+
+        //then
+        assertThat(updates.get("a").getSenders()).containsExactly("c", "d");
+    }
+
+    @Test
+    @DisplayName("나간 사람은 목록과 고정에서 빠진다")
+    void leaveClearsState() {
+        //given
+        forwarding.pin("c", "a");
+        forwarding.recompute();
+
+        //when
+        forwarding.leave("a");
+        Map<String, SelectiveForwarding.Update> updates = byViewer(forwarding.recompute());
+
+        //then
+        assertThat(updates.get("c").getSenders()).containsExactly("b", "d");
+        assertThat(updates.get("c").getDropped()).containsExactly("a");
+        assertThat(updates).doesNotContainKey("a");
+    }
+
+    private Map<String, SelectiveForwarding.Update> byViewer(List<SelectiveForwarding.Update> updates) {
+        return updates.stream()
+                .collect(Collectors.toMap(SelectiveForwarding.Update::getViewer, Function.identity()));
+    }
+}
@@ -0,0 +1,157 @@
+package com.justudy.backend.GroupCall.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.Continuation;
+import org.kurento.client.IceCandidate;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.ListenerSubscription;
+import org.kurento.client.MediaPipeline;
+import org.kurento.client.WebRtcEndpoint;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSessionTest {
+
+    private MediaServer server;
+    //buildAsync 에 넘어온 continuation. 테스트가 KMS 대신 응답한다.
+    private List<Continuation<WebRtcEndpoint>> builds;
+    private UserSession user;
+
+    @BeforeEach
+    void setUp() {
+        KurentoClient kurento = mock(KurentoClient.class);
+        server = new MediaServer("kms-test", kurento,
+                new MediaPipelinePool(kurento, 0, Duration.ofMinutes(10)));
+        Session session = mock(Session.class);
+        when(session.getAsyncRemote()).thenReturn(mock(RemoteEndpoint.Async.class));
+        builds = new ArrayList<>();
+        user = new UserSession("a", "room", session, mock(MediaPipeline.class), server,
+                (pipeline, continuation) -> builds.add(continuation));
+    }
+
+    @Test
+    @DisplayName("엔드포인트가 만들어지기 전에 온 내 ICE 후보는 만들어진 뒤에 넣는다")
+    void candidateForOutgoingWaitsForEndpoint() throws Exception {
+        //given
+        WebRtcEndpoint outgoing = endpoint(true);
+        IceCandidate candidate = new IceCandidate("candidate", "0", 0);
+
+        //when
+        user.addCandidate(candidate, "a");
+        verify(outgoing, never()).addIceCandidate(any(), any(Continuation.class));
+        builds.get(0).onSuccess(outgoing);
+
+        //then
+        verify(outgoing).addIceCandidate(eq(candidate), any(Continuation.class));
+        assertThat(user.getOutgoingWebRtcPeer()).isCompletedWithValue(outgoing);
+        assertThat(server.getEndpointCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("받는 엔드포인트를 만들기 전에 온 ICE 후보는 들고 있다가 만들 때 넣는다")
+    void earlyCandidateForIncomingIsQueued() throws Exception {
+        //given
+        builds.get(0).onSuccess(endpoint(true));
+        IceCandidate candidate = new IceCandidate("candidate", "0", 0);
+        user.addCandidate(candidate, "b");
+        UserSession sender = mock(UserSession.class);
+        when(sender.getName()).thenReturn("b");
+        when(sender.getOutgoingWebRtcPeer()).thenReturn(new CompletableFuture<>());
+
+        //when
+        user.receiveVideoFrom(sender, "offer");
+        WebRtcEndpoint incoming = endpoint(true);
+        builds.get(1).onSuccess(incoming);
+
+        //then
+        verify(incoming, times(1)).addIceCandidate(eq(candidate), any(Continuation.class));
+        assertThat(user.getIncomingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ICE 리스너를 달지 못하면 만든 엔드포인트를 바로 해제하고, 닫을 때 다시 해제하지 않는다")
+    void releaseWhenListenerFails() throws Exception {
+        //given
+        WebRtcEndpoint outgoing = endpoint(false);
+
+        //when
+        builds.get(0).onSuccess(outgoing);
+        user.close();
+
+        //then
+        verify(outgoing, times(1)).release(any(Continuation.class));
+        assertThat(user.getOutgoingWebRtcPeer()).isCompletedExceptionally();
+        assertThat(server.getEndpointCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("만들어지는 중에 닫으면 만들어지는 즉시 해제한다")
+    void releaseAfterProvisioning() throws Exception {
+        //given
+        WebRtcEndpoint outgoing = endpoint(true);
+        user.close();
+        verify(outgoing, never()).release(any(Continuation.class));
+
+        //when
+        builds.get(0).onSuccess(outgoing);
+
+        //then
+        verify(outgoing, times(1)).release(any(Continuation.class));
+        assertThat(server.getEndpointCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("만들지 못한 엔드포인트는 닫을 때 수만 되돌린다")
+    void failedBuildOnlyCounts() throws Exception {
+        //given
+        builds.get(0).onError(new IllegalStateException("kms down"));
+
+        //when
+        user.close();
+
+        //then
+        assertThat(user.getOutgoingWebRtcPeer()).isCompletedExceptionally();
+        assertThat(server.getEndpointCount()).isZero();
+    }
+
+    //listenerOk 가 false 면 ICE 리스너 등록이 실패한다. release / addIceCandidate 는 바로 성공한다.
+    @SuppressWarnings("unchecked")
+    private static WebRtcEndpoint endpoint(boolean listenerOk) {
+        WebRtcEndpoint endpoint = mock(WebRtcEndpoint.class);
+        doAnswer(invocation -> {
+            Continuation<ListenerSubscription> continuation = invocation.getArgument(1);
+            if (listenerOk) {
+                continuation.onSuccess(mock(ListenerSubscription.class));
+            } else {
+                continuation.onError(new IllegalStateException("listener"));
+            }
+            return null;
+        }).when(endpoint).addIceCandidateFoundListener(any(), any(Continuation.class));
+        doAnswer(invocation -> {
+            invocation.<Continuation<Void>>getArgument(0).onSuccess(null);
+            return null;
+        }).when(endpoint).release(any(Continuation.class));
+        doAnswer(invocation -> {
+            invocation.<Continuation<Void>>getArgument(1).onSuccess(null);
+            return null;
+        }).when(endpoint).addIceCandidate(any(), any(Continuation.class));
+        return endpoint;
+    }
+}
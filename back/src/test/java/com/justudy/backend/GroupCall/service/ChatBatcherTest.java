@@ -0,0 +1,102 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.google.gson.JsonObject;
+import com.justudy.backend.GroupCall.model.Room;
+import com.justudy.backend.GroupCall.model.RoomManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatBatcherTest {
+
+    private Room room;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatBatcher chatBatcher;
+
+    @BeforeEach
+    void setUp() {
+        room = mock(Room.class);
+        RoomManager roomManager = mock(RoomManager.class);
+        when(roomManager.findRoom("1")).thenReturn(room);
+        meterRegistry = new SimpleMeterRegistry();
+        chatBatcher = new ChatBatcher(roomManager, meterRegistry, Duration.ofMillis(30), 1, 3, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatBatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("창 안에 들어온 채팅은 한 프레임으로 묶어서 한번만 보낸다")
+    void coalesceWithinWindow() {
+        //when
+        chatBatcher.submit("1", "a", "a", "hi");
+        chatBatcher.submit("1", "b", "b", "hello");
+        chatBatcher.submit("1", "a", "a", "again");
+
+        //then
+        ArgumentCaptor<JsonObject> frame = ArgumentCaptor.forClass(JsonObject.class);
+        verify(room, timeout(1000).times(1)).broadcast(frame.capture());
+        assertThat(frame.getValue().get("id").getAsString()).isEqualTo("receiveChatMessages");
+        assertThat(frame.getValue().getAsJsonArray("messages")).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("한 줄이면 기존 receiveChatMessage 형식 그대로")
+    void singleMessageKeepsLegacyFrame() {
+        //when
+        chatBatcher.submit("1", "a", "a", "hi");
+
+        //then
+        ArgumentCaptor<JsonObject> frame = ArgumentCaptor.forClass(JsonObject.class);
+        verify(room, timeout(1000)).broadcast(frame.capture());
+        assertThat(frame.getValue().get("id").getAsString()).isEqualTo("receiveChatMessage");
+        assertThat(frame.getValue().get("message").getAsString()).isEqualTo("hi");
+    }
+
+    @Test
+    @DisplayName("burst 를 넘는 채팅은 버린다")
+    void rateLimitPerSender() {
+        //when
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (chatBatcher.submit("1", "spammer", "spammer", "spam " + i)) {
+                accepted++;
+            }
+        }
+        boolean other = chatBatcher.submit("1", "b", "b", "hello");
+
+        //then
+        assertThat(accepted).isEqualTo(3);
+        assertThat(other).isTrue();
+        assertThat(meterRegistry.get("groupcall.chat.dropped").tag("reason", "rate-limit").counter().count())
+                .isEqualTo(7);
+        verify(room, after(200).times(1)).broadcast(any(JsonObject.class));
+    }
+
+    @Test
+    @DisplayName("열려있지 않은 방의 채팅은 받지 않는다")
+    void rejectUnknownRoom() {
+        //when
+        boolean accepted = chatBatcher.submit("404", "a", "a", "hi");
+
+        //then
+        assertThat(accepted).isFalse();
+        verify(room, after(200).never()).broadcast(any(JsonObject.class));
+    }
+}
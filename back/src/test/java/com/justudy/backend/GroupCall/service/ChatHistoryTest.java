@@ -0,0 +1,118 @@
+package com.justudy.backend.GroupCall.service;
+
+import com.google.gson.JsonArray;
+import com.justudy.backend.GroupCall.domain.ChatMessageEntity;
+import com.justudy.backend.GroupCall.dto.response.ChatMessageResponse;
+import com.justudy.backend.GroupCall.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatHistoryTest {
+
+    private ChatMessageRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatHistory chatHistory;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ChatMessageRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        chatHistory = new ChatHistory(repository, meterRegistry, 3, 10, 2);
+    }
+
+    @Test
+    @DisplayName("처음 입장하면 warmer 스레드에서 DB 의 최근 채팅을 읽어 오래된 것부터 준다")
+    void warmFromDatabase() {
+        //given
+        LocalDateTime now = LocalDateTime.now();
+        AtomicReference<String> loadedOn = new AtomicReference<>();
+        when(repository.findPageByRoom(eq("1"), isNull(), eq(3))).thenAnswer(invocation -> {
+            loadedOn.set(Thread.currentThread().getName());
+            return List.of(
+                    new ChatMessageResponse(2L, "b", "second", now),
+                    new ChatMessageResponse(1L, "a", "first", now));
+        });
+
+        //when
+        JsonArray history = chatHistory.recent("1").join();
+        CompletableFuture<JsonArray> cached = chatHistory.recent("1");
+
+        //then
+        assertThat(history).hasSize(2);
+        assertThat(loadedOn.get()).isEqualTo("chat-history-warm");
+        assertThat(cached).isCompleted();
+        assertThat(history.get(0).getAsJsonObject().get("message").getAsString()).isEqualTo("first");
+        verify(repository, times(1)).findPageByRoom(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("링 버퍼는 최근 history-size 개만 들고 있다")
+    void ringKeepsLatest() {
+        //given
+        when(repository.findPageByRoom(any(), any(), anyInt())).thenReturn(List.of());
+        chatHistory.recent("1").join();
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            chatHistory.append("1", "a", "m" + i);
+        }
+
+        //then
+        JsonArray history = chatHistory.recent("1").join();
+        assertThat(history).hasSize(3);
+        assertThat(history.get(0).getAsJsonObject().get("message").getAsString()).isEqualTo("m2");
+    }
+
+    @Test
+    @DisplayName("append 는 DB 에 쓰지 않고, flush 가 모아서 한번에 저장한다")
+    void flushPersistsInBatch() {
+        //given
+        chatHistory.append("1", "a", "hi");
+        chatHistory.append("1", "b", "hello");
+        verify(repository, never()).saveAll(any());
+
+        //when
+        int flushed = chatHistory.flush(100);
+
+        //then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChatMessageEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).saveAll(batch.capture());
+        assertThat(flushed).isEqualTo(2);
+        assertThat(batch.getValue()).extracting(ChatMessageEntity::getMessage)
+                .containsExactly("hi", "hello");
+    }
+
+    @Test
+    @DisplayName("저장 큐가 가득 차면 막히지 않고 버린다")
+    void fullQueueDrops() {
+        //when
+        chatHistory.append("1", "a", "1");
+        chatHistory.append("1", "a", "2");
+        chatHistory.append("1", "a", "3");
+
+        //then
+        assertThat(chatHistory.pendingCount()).isEqualTo(2);
+        assertThat(meterRegistry.counter("groupcall.chat.dropped", "reason", "persist-queue-full")
+                .count()).isEqualTo(1);
+    }
+}
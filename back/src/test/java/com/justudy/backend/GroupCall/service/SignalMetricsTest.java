@@ -0,0 +1,53 @@
+package com.justudy.backend.GroupCall.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SignalMetrics signalMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        signalMetrics = new SignalMetrics(meterRegistry);
+        signalMetrics.register(Set.of("joinRoom", "onIceCandidate"));
+    }
+
+    @Test
+    @DisplayName("메시지 id 별로 건수와 처리 시간을 기록")
+    void recordPerId() {
+        //when
+        signalMetrics.record("onIceCandidate", TimeUnit.MILLISECONDS.toNanos(2));
+        signalMetrics.record("onIceCandidate", TimeUnit.MILLISECONDS.toNanos(4));
+        signalMetrics.record("joinRoom", TimeUnit.MILLISECONDS.toNanos(30));
+
+        //then
+        assertThat(meterRegistry.get("groupcall.signal").tag("id", "onIceCandidate").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("groupcall.signal").tag("id", "joinRoom").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("등록되지 않은 id 는 unknown 으로 모은다")
+    void unknownIdsShareOneTag() {
+        //when
+        signalMetrics.record("whatever-1", 1);
+        signalMetrics.record("whatever-2", 1);
+        signalMetrics.record(null, 1);
+
+        //then
+        assertThat(meterRegistry.get("groupcall.signal").tag("id", SignalMetrics.UNKNOWN).timer().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.find("groupcall.signal").timers()).hasSize(3);
+    }
+}
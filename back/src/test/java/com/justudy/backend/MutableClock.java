@@ -0,0 +1,45 @@
+package com.justudy.backend;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * 테스트에서 시간을 직접 옮기는 Clock
+ * <p>
+ * Clock 을 받는 생성자(패키지 전용)에 넘기고 advance / set 으로 시간을 바꾼다.
+ */
+public final class MutableClock extends Clock {
+
+    private final ZoneId zone;
+    private Instant now;
+
+    public MutableClock(Instant now, ZoneId zone) {
+        this.now = now;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    public void set(Instant instant) {
+        now = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(now, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
@@ -0,0 +1,35 @@
+package com.justudy.backend;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 호출 하나가 DB 에 보낸 쿼리 수를 하이버네이트 통계로 세고, 예산을 넘으면 실패한다.
+ * <p>
+ * hibernate.generate_statistics=true 로 띄운 EntityManagerFactory 가 필요하다. 지연 로딩(N+1)으로 늘어난 쿼리도 센다.
+ */
+public final class QueryBudget {
+
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled())
+                .as("hibernate.generate_statistics must be enabled")
+                .isTrue();
+    }
+
+    public <T> T within(long budget, Supplier<T> call) {
+        statistics.clear();
+        T ret = call.get();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("queries sent by the call")
+                .isLessThanOrEqualTo(budget);
+        return ret;
+    }
+}
@@ -0,0 +1,258 @@
+package com.justudy.backend;
+
+import com.justudy.backend.GroupCall.repository.ChatMessageRepository;
+import com.justudy.backend.GroupCall.repository.StudyRoomRepository;
+import com.justudy.backend.community.dto.request.CommunitySearch;
+import com.justudy.backend.community.exception.ImportBoardFail;
+import com.justudy.backend.community.repository.CommunityBookmarkRepository;
+import com.justudy.backend.community.repository.CommunityLoveRepository;
+import com.justudy.backend.community.repository.CommunityRepository;
+import com.justudy.backend.config.QueryDslConfig;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.repository.RankGenerationRepository;
+import com.justudy.backend.rank.repository.RankRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.justudy.backend.timer.repository.RoomActivityRepository;
+import com.justudy.backend.util.PagingUtil;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 마이그레이션(db/migration)을 적용한 H2(MySQL 모드)에서 조회가 몰리는 저장소 메서드를 실행하고, 하이버네이트가 실제로 보낸 SQL 을 EXPLAIN 한다.
+ * <p>
+ * 인덱스를 지우거나 QueryDSL 조건이 바뀌어 전체 스캔(tableScan)이 되면 실패한다. 파라미터는 EXPLAIN 할 때 타입에 맞는 값으로 채운다.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-index;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaIndexTest {
+
+    private static final Date TODAY = Date.valueOf("2023-02-14");
+    private static final Date WEEK_AGO = Date.valueOf("2023-02-07");
+    private static final Date MONTH_AGO = Date.valueOf("2023-01-14");
+
+    @Autowired
+    private StatementCapture statementCapture;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+    @Autowired
+    private MemberActivityRepository memberActivityRepository;
+    @Autowired
+    private RoomActivityRepository roomActivityRepository;
+    @Autowired
+    private RankRepository rankRepository;
+    @Autowired
+    private RankGenerationRepository rankGenerationRepository;
+    @Autowired
+    private CommunityRepository communityRepository;
+    @Autowired
+    private CommunityLoveRepository communityLoveRepository;
+    @Autowired
+    private CommunityBookmarkRepository communityBookmarkRepository;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    //Swagger 등 웹 설정 없이 JPA 와 QueryDSL 만 띄우고, 하이버네이트가 보내는 SQL 을 모은다.
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = BackendApplication.class)
+    @Import({QueryDslConfig.class, PagingUtil.class})
+    static class JpaOnly {
+
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(StatementCapture statementCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    statementCapture);
+        }
+    }
+
+    static class StatementCapture implements StatementInspector {
+
+        private final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    interface HotQuery {
+
+        void run(SchemaIndexTest test);
+    }
+
+    @BeforeEach
+    void setUp() {
+        //달력 쿼리의 DATE_FORMAT 은 MySQL 함수라서 H2 에 같은 이름으로 만들어 둔다.
+        jdbcTemplate.execute("create alias if not exists DATE_FORMAT for '"
+                + SchemaIndexTest.class.getName() + ".dateFormat'");
+    }
+
+    public static String dateFormat(Date date, String pattern) {
+        return String.valueOf(date);
+    }
+
+    /*
+     * MemberActivityRepository.findTopTimeByYesterday 는 회원 엔티티를 고르고 member_seq 로만 묶어서
+     * (MySQL 은 기본 키로 묶였으니 허용) H2 가 문법 오류로 거절한다. 날짜로 훑는 경로는 기간 랭킹/평균이 같은 인덱스를 탄다.
+     */
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                //기간 랭킹 / 평균
+                hotQuery("회원 기간 랭킹", test -> test.memberActivityRepository
+                        .findDailyTimesByPeriod(WEEK_AGO, TODAY)),
+                hotQuery("회원 기간 평균", test -> test.memberActivityRepository
+                        .findMemberTimesByPeriod(WEEK_AGO, TODAY)),
+                hotQuery("스터디 기간 랭킹", test -> test.roomActivityRepository
+                        .findDailyTimesByPeriod(WEEK_AGO, TODAY)),
+                //회원 한 명의 주간 / 과목 / 달력
+                hotQuery("회원 주간", test -> test.memberActivityRepository
+                        .findTimeByPeriodAndMember(WEEK_AGO, TODAY,
+                                test.memberRepository.getReferenceById(1L))),
+                hotQuery("회원 과목", test -> test.memberActivityRepository
+                        .findTimeByCategoryAndMember(test.memberRepository.getReferenceById(1L))),
+                hotQuery("회원 달력", test -> test.memberActivityRepository
+                        .findCalendarById(MONTH_AGO, TODAY,
+                                test.memberRepository.getReferenceById(1L))),
+                //여러 회원 요약
+                hotQuery("여러 회원 주간/월간", test -> test.memberActivityRepository
+                        .sumWeekAndMonthByMembers(List.of(1L, 2L, 3L), WEEK_AGO, MONTH_AGO, TODAY)),
+                hotQuery("여러 회원 과목", test -> test.memberActivityRepository
+                        .findTimeByCategoryAndMembers(List.of(1L, 2L, 3L))),
+                hotQuery("여러 회원 달력", test -> test.memberActivityRepository
+                        .findCalendarByMembers(List.of(1L, 2L, 3L), MONTH_AGO, TODAY)),
+                //스터디 달력
+                hotQuery("스터디 달력", test -> test.roomActivityRepository
+                        .findCalendarById(MONTH_AGO, TODAY,
+                                test.studyRoomRepository.getReferenceById(1L))),
+                //랭킹 조회 / 교체
+                hotQuery("랭킹 페이지", test -> test.rankRepository
+                        .findAllByGroupAndType(RankGroup.PERSON, RankType.WEEK, 0, 10)),
+                hotQuery("랭킹 수", test -> test.rankRepository
+                        .countByGroupAndType(RankGroup.PERSON, RankType.WEEK)),
+                hotQuery("랭킹 세대", test -> test.rankGenerationRepository
+                        .findByRankGroupAndRankType(RankGroup.PERSON, RankType.WEEK)),
+                //공지 + 게시글 목록
+                hotQuery("게시글 목록", test -> {
+                    try {
+                        test.communityRepository.getAllList(
+                                new CommunitySearch(1L, 20L, null, null, null, null));
+                    } catch (ImportBoardFail e) {
+                        //글이 없으면 던진다. 보낸 쿼리만 보면 된다.
+                    }
+                }),
+                //좋아요 / 북마크 여부
+                hotQuery("좋아요 여부", test -> test.communityLoveRepository.findLove(1L, 1L)),
+                hotQuery("북마크 여부", test -> test.communityBookmarkRepository.findBookmark(1L, 1L)),
+                //채팅 기록
+                hotQuery("채팅 기록", test -> test.chatMessageRepository
+                        .findPageByRoom("room", 100L, 50))
+        );
+    }
+
+    private static Arguments hotQuery(String name, HotQuery query) {
+        return Arguments.of(name, query);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("자주 쓰는 조회는 전체 스캔을 하지 않는다")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndex(String name, HotQuery query) {
+        //given
+        statementCapture.statements.clear();
+
+        //when
+        query.run(this);
+
+        //then
+        assertThat(statementCapture.statements).as("statements sent by " + name).isNotEmpty();
+        for (String sql : statementCapture.statements) {
+            assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                bindSamples(statement);
+                try (ResultSet rs = statement.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                }
+            }
+        });
+    }
+
+    //H2 는 컬럼과 비교하는 파라미터에 그 컬럼의 타입을 알려준다. 모르는 것(limit 등)은 숫자로도 문자로도 읽히는 1 로 채운다.
+    private static void bindSamples(PreparedStatement statement) throws SQLException {
+        ParameterMetaData meta = statement.getParameterMetaData();
+        for (int i = 1; i <= meta.getParameterCount(); i++) {
+            switch (meta.getParameterType(i)) {
+                case Types.DATE:
+                    statement.setDate(i, TODAY);
+                    break;
+                case Types.TIMESTAMP:
+                    statement.setTimestamp(i, Timestamp.valueOf("2023-02-14 00:00:00"));
+                    break;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                    statement.setString(i, "1");
+                    break;
+                case Types.BOOLEAN:
+                    statement.setBoolean(i, true);
+                    break;
+                default:
+                    statement.setLong(i, 1L);
+            }
+        }
+    }
+}
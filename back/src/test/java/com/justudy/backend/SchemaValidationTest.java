@@ -0,0 +1,142 @@
+package com.justudy.backend;
+
+import com.justudy.backend.GroupCall.domain.ChatMessageEntity;
+import com.justudy.backend.GroupCall.repository.ChatMessageRepository;
+import com.justudy.backend.config.QueryDslConfig;
+import com.justudy.backend.util.PagingUtil;
+import org.flywaydb.core.Flyway;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 운영과 같이 마이그레이션(db/migration)을 모두 적용한 뒤 ddl-auto=validate 로 띄운다. 엔티티와 스키마가 어긋나면 컨텍스트가 뜨지 않는다.
+ * <p>
+ * 방언도 운영(application.yml)과 같은 MySQL 방언을 써야 GenerationType.AUTO 가 hibernate_sequence 테이블을 찾는다.
+ * validate 는 NOT NULL 과 auto_increment 는 보지 않으므로 엔티티 매핑에서 읽어 따로 확인한다.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-validation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=mysql",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQL5InnoDBDialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaValidationTest {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    //Swagger 등 웹 설정 없이 JPA 와 QueryDSL 만 띄운다.
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = BackendApplication.class)
+    @Import({QueryDslConfig.class, PagingUtil.class})
+    static class JpaOnly {
+    }
+
+    @Test
+    @DisplayName("마이그레이션을 모두 적용한 스키마가 엔티티 매핑과 맞는다")
+    void migrationsMatchEntities() {
+        //then
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(entityManagerFactory.getMetamodel().getEntities()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("nullable = false 컬럼은 NOT NULL 이고, IDENTITY 키는 auto_increment 다")
+    void nullabilityAndIdentityMatch() {
+        //given
+        List<String> notNull = new ArrayList<>();
+        List<String> identity = new ArrayList<>();
+        for (EntityPersister persister : entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersisters().values()) {
+            AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+            boolean[] nullability = entity.getPropertyNullability();
+            for (int i = 0; i < nullability.length; i++) {
+                if (!nullability[i]) {
+                    for (String column : entity.getPropertyColumnNames(i)) {
+                        notNull.add(entity.getTableName() + "." + column);
+                    }
+                }
+            }
+            if (entity.getIdentifierGenerator() instanceof IdentityGenerator) {
+                identity.add(entity.getTableName() + "." + entity.getIdentifierColumnNames()[0]);
+            }
+        }
+
+        //when & then
+        assertThat(identity).isNotEmpty();
+        for (String column : notNull) {
+            assertThat(columnInfo(column, "IS_NULLABLE")).as(column).isEqualTo("NO");
+        }
+        for (String column : identity) {
+            assertThat(columnInfo(column, "IS_AUTOINCREMENT")).as(column).isEqualTo("YES");
+        }
+    }
+
+    @Test
+    @DisplayName("채팅 기록 키는 chat_message_sequence 에서 50개씩 한 번에 받는다")
+    void chatMessageKeysArePooled() {
+        //when
+        List<ChatMessageEntity> saved = chatMessageRepository.saveAllAndFlush(List.of(
+                chatMessage("1"), chatMessage("2"), chatMessage("3")));
+
+        //then
+        long first = saved.get(0).getSequence();
+        assertThat(saved).extracting(ChatMessageEntity::getSequence)
+                .containsExactly(first, first + 1, first + 2);
+        assertThat(jdbcTemplate.queryForObject("select next_val from chat_message_sequence",
+                Long.class)).isEqualTo(first + 49 + 50);
+    }
+
+    private static ChatMessageEntity chatMessage(String message) {
+        return ChatMessageEntity.builder()
+                .room("room")
+                .name("a")
+                .message(message)
+                .createdTime(LocalDateTime.of(2023, 2, 14, 0, 0))
+                .build();
+    }
+
+    //tableAndColumn : "테이블.컬럼". 없는 컬럼이면 null
+    private String columnInfo(String tableAndColumn, String field) {
+        String[] names = tableAndColumn.split("\\.");
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData meta = connection.getMetaData();
+            String table = meta.storesUpperCaseIdentifiers() ? names[0].toUpperCase() : names[0];
+            String column = meta.storesUpperCaseIdentifiers() ? names[1].toUpperCase() : names[1];
+            try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table, column)) {
+                return rs.next() ? rs.getString(field) : null;
+            }
+        });
+    }
+}
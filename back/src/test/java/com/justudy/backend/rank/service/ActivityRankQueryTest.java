@@ -0,0 +1,169 @@
+package com.justudy.backend.rank.service;
+
+import com.justudy.backend.BackendApplication;
+import com.justudy.backend.GroupCall.repository.StudyRoomRepository;
+import com.justudy.backend.QueryBudget;
+import com.justudy.backend.config.QueryDslConfig;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.dto.response.RankPageResponse;
+import com.justudy.backend.rank.dto.response.RankResponse;
+import com.justudy.backend.rank.repository.RankGenerationRepository;
+import com.justudy.backend.rank.repository.RankRepository;
+import com.justudy.backend.timer.dto.response.ActivityToRank;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.justudy.backend.timer.repository.RoomActivityRepository;
+import com.justudy.backend.util.PagingUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 랭킹을 읽는 경로가 쿼리 예산(QueryBudget) 안에서 끝나는지 확인한다.
+ * <p>
+ * 마이그레이션을 적용한 H2 에 회원/스터디를 넣고 LiveRanking 을 DB 에서 한번 읽은 뒤, 순위에 붙는 이름과 이미지를 읽는 쿼리를 센다.
+ * 행마다 지연 로딩하면 쿼리가 늘어나 실패한다.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ActivityRankQueryTest {
+
+    private static final int RANKERS = 12;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private MemberActivityRepository memberActivityRepository;
+    @Autowired
+    private RoomActivityRepository roomActivityRepository;
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+    @Autowired
+    private RankRepository rankRepository;
+    @Autowired
+    private RankGenerationRepository rankGenerationRepository;
+
+    private QueryBudget queryBudget;
+    private LiveRanking liveRanking;
+
+    //Swagger 등 웹 설정 없이 JPA 와 QueryDSL 만 띄운다.
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = BackendApplication.class)
+    @Import({QueryDslConfig.class, PagingUtil.class})
+    static class JpaOnly {
+    }
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(entityManagerFactory);
+        for (long seq = 1; seq <= RANKERS; seq++) {
+            jdbcTemplate.update("insert into upload_file (upload_file_seq, upload_filename,"
+                    + " store_filename) values (?, ?, ?)", seq, "image" + seq, "store" + seq);
+            jdbcTemplate.update("insert into member (member_seq, member_nickname, upload_file_seq,"
+                    + " member_mm_valid, member_is_deleted, member_is_banned)"
+                    + " values (?, ?, ?, false, false, false)", seq, "member" + seq, seq);
+            jdbcTemplate.update("insert into study (study_seq, study_name, upload_file_seq)"
+                    + " values (?, ?, ?)", seq, "study" + seq, seq);
+            jdbcTemplate.update("insert into study_room (room_seq, study_seq, study_room_uuid)"
+                    + " values (?, ?, ?)", seq, seq, "uuid" + seq);
+            for (int day = 0; day < 3; day++) {
+                Date date = Date.valueOf(TODAY.minusDays(day));
+                jdbcTemplate.update("insert into member_activity_daily (member_seq,"
+                        + " member_activity_daily_date, member_activity_daily_category,"
+                        + " member_activity_daily_time) values (?, ?, 'backend', ?)",
+                        seq, date, seq * 10);
+                jdbcTemplate.update("insert into room_activity_daily (study_room_seq,"
+                        + " room_activity_daily_date, room_activity_daily_category,"
+                        + " room_activity_daily_time) values (?, ?, 'backend', ?)",
+                        seq, date, seq * 20);
+            }
+        }
+        liveRanking = new LiveRanking(memberActivityRepository, roomActivityRepository,
+                memberRepository, studyRoomRepository, new ActivityJdbcRepository(jdbcTemplate),
+                transactionManager);
+        liveRanking.rebuild();
+    }
+
+    @Test
+    @DisplayName("회원 랭킹 한 페이지의 이름과 이미지는 쿼리 하나로 읽고, 다시 읽을 때는 DB 에 가지 않는다")
+    void memberPageInOneQuery() {
+        //when
+        List<ActivityToRank> ranks = queryBudget.within(1,
+                () -> liveRanking.range(RankGroup.PERSON, RankType.WEEK, 0, 10));
+        List<ActivityToRank> again = queryBudget.within(0,
+                () -> liveRanking.range(RankGroup.PERSON, RankType.WEEK, 0, 10));
+
+        //then
+        assertThat(ranks).hasSize(10);
+        assertThat(ranks.get(0).getOrder()).isEqualTo(1);
+        assertThat(ranks.get(0).getName()).isEqualTo("member12");
+        assertThat(ranks.get(0).getImage()).isEqualTo(12L);
+        assertThat(ranks.get(0).getSecond()).isEqualTo(360L);
+        assertThat(again).hasSize(10);
+        assertThat(again.get(0).getName()).isEqualTo("member12");
+    }
+
+    @Test
+    @DisplayName("내 순위의 스터디 이름과 이미지는 쿼리 하나로 읽는다")
+    void rankOfInOneQuery() {
+        //when
+        ActivityToRank mine = queryBudget.within(1,
+                () -> liveRanking.rankOf(RankGroup.GROUP, RankType.WEEK, 3L));
+
+        //then
+        assertThat(mine.getOrder()).isEqualTo(10);
+        assertThat(mine.getName()).isEqualTo("study3");
+        assertThat(mine.getImage()).isEqualTo(3L);
+        assertThat(mine.getSecond()).isEqualTo(180L);
+    }
+
+    @Test
+    @DisplayName("랭킹 페이지 API 는 쿼리 하나로 한 페이지를 만든다")
+    void readPageInOneQuery() {
+        //given
+        RankService rankService = new RankService(rankRepository, rankGenerationRepository,
+                liveRanking);
+
+        //when
+        RankPageResponse page = queryBudget.within(1,
+                () -> rankService.readPage(RankGroup.GROUP, RankType.WEEK, 1, 5));
+
+        //then
+        assertThat(page.getRanks()).extracting(RankResponse::getNickName)
+                .containsExactly("study7", "study6", "study5", "study4", "study3");
+        assertThat(page.getRanks().get(0).getOrder()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,237 @@
+package com.justudy.backend.rank.service;
+
+import com.justudy.backend.GroupCall.repository.StudyRoomRepository;
+import com.justudy.backend.MutableClock;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.dto.response.RankProfile;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.dto.response.ActivityToRank;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.justudy.backend.timer.repository.RoomActivityRepository;
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiveRankingTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final LocalDate TODAY = LocalDate.of(2023, 2, 15);
+
+    private MemberActivityRepository memberActivityRepository;
+    private MemberRepository memberRepository;
+    private ActivityJdbcRepository activityJdbcRepository;
+    private MutableClock clock;
+    private LiveRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        memberActivityRepository = mock(MemberActivityRepository.class);
+        RoomActivityRepository roomActivityRepository = mock(RoomActivityRepository.class);
+        memberRepository = mock(MemberRepository.class);
+        when(memberRepository.findRankProfiles(anyCollection())).thenReturn(List.of(
+                new RankProfile(1L, "one", 10L), new RankProfile(2L, "two", 20L)));
+        activityJdbcRepository = mock(ActivityJdbcRepository.class);
+        clock = new MutableClock(noon(TODAY), ZONE);
+        ranking = new LiveRanking(memberActivityRepository, roomActivityRepository,
+                memberRepository, mock(StudyRoomRepository.class), activityJdbcRepository,
+                TransactionOperations.withoutTransaction(), clock);
+    }
+
+    @Test
+    @DisplayName("DB 에서 읽은 날짜별 합계를 기간마다 나눠서 순위를 만든다")
+    void rebuildFromDailyTimes() {
+        //given
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any())).thenReturn(List.of(
+                row(1L, TODAY, 100L),
+                row(2L, TODAY.minusDays(1), 300L),
+                row(1L, TODAY.minusDays(10), 500L)));
+
+        //when
+        ranking.rebuild();
+
+        //then
+        assertThat(ranking.isLoaded()).isTrue();
+        assertThat(ranking.top(RankGroup.PERSON, RankType.YESTERDAY, 10))
+                .extracting(ActivityToRank::getName).containsExactly("two");
+        assertThat(ranking.top(RankGroup.PERSON, RankType.WEEK, 10))
+                .extracting(ActivityToRank::getSecond).containsExactly(300L, 100L);
+        List<ActivityToRank> month = ranking.top(RankGroup.PERSON, RankType.MONTH, 10);
+        assertThat(month).extracting(ActivityToRank::getName).containsExactly("one", "two");
+        assertThat(month.get(0).getOrder()).isEqualTo(1);
+        assertThat(month.get(0).getSecond()).isEqualTo(600L);
+        assertThat(month.get(0).getImage()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("저장된 공부 시간은 다시 읽지 않아도 바로 순위에 반영된다")
+    void recordUpdatesImmediately() {
+        //given
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any()))
+                .thenReturn(List.of(row(1L, TODAY, 100L)));
+        ranking.rebuild();
+
+        //when
+        ranking.record(RankGroup.PERSON, 1L, List.of(record(2L, TODAY, 150L)));
+
+        //then
+        assertThat(ranking.top(RankGroup.PERSON, RankType.WEEK, 10))
+                .extracting(ActivityToRank::getName).containsExactly("two", "one");
+        assertThat(ranking.top(RankGroup.PERSON, RankType.YESTERDAY, 10)).isEmpty();
+        verify(memberActivityRepository, times(1)).findDailyTimesByPeriod(any(), any());
+    }
+
+    @Test
+    @DisplayName("다시 읽을 때의 저장 순번 이하는 이미 합계에 들어있으므로 더하지 않는다")
+    void ignoreRecordsAlreadyRead() {
+        //given
+        when(activityJdbcRepository.readFlushSeq(ActivityJdbcRepository.MEMBER_FLUSH))
+                .thenReturn(5L);
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any()))
+                .thenReturn(List.of(row(1L, TODAY, 100L)));
+        ranking.rebuild();
+
+        //when
+        ranking.record(RankGroup.PERSON, 5L, List.of(record(1L, TODAY, 100L)));
+        ranking.record(RankGroup.PERSON, 6L, List.of(record(2L, TODAY, 50L)));
+
+        //then
+        assertThat(ranking.top(RankGroup.PERSON, RankType.WEEK, 10))
+                .extracting(ActivityToRank::getSecond).containsExactly(100L, 50L);
+    }
+
+    @Test
+    @DisplayName("다시 읽는 동안 저장된 시간은 읽은 순번보다 뒤의 것만 다시 더한다")
+    void replayOnlyAfterWatermark() {
+        //given
+        when(activityJdbcRepository.readFlushSeq(ActivityJdbcRepository.MEMBER_FLUSH))
+                .thenReturn(4L);
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any())).thenAnswer(call -> {
+            //4 번은 읽은 합계에 들어있고, 5 번은 읽은 뒤에 저장됐다.
+            ranking.record(RankGroup.PERSON, 4L, List.of(record(1L, TODAY, 100L)));
+            ranking.record(RankGroup.PERSON, 5L, List.of(record(2L, TODAY, 50L)));
+            return List.of(row(1L, TODAY, 100L));
+        });
+
+        //when
+        ranking.rebuild();
+
+        //then
+        List<ActivityToRank> week = ranking.top(RankGroup.PERSON, RankType.WEEK, 10);
+        assertThat(week).extracting(ActivityToRank::getName).containsExactly("one", "two");
+        assertThat(week).extracting(ActivityToRank::getSecond).containsExactly(100L, 50L);
+    }
+
+    @Test
+    @DisplayName("자정이 지나면 오늘은 어제가 되고 기간이 지난 날은 빠진다")
+    void slidingWindow() {
+        //given
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any())).thenReturn(List.of(
+                row(1L, TODAY, 100L),
+                row(2L, TODAY.minusDays(6), 300L)));
+        ranking.rebuild();
+
+        //when
+        clock.set(noon(TODAY.plusDays(1)));
+
+        //then
+        assertThat(ranking.top(RankGroup.PERSON, RankType.YESTERDAY, 10))
+                .extracting(ActivityToRank::getName).containsExactly("one");
+        assertThat(ranking.top(RankGroup.PERSON, RankType.WEEK, 10))
+                .extracting(ActivityToRank::getName).containsExactly("one");
+        assertThat(ranking.top(RankGroup.PERSON, RankType.MONTH, 10))
+                .extracting(ActivityToRank::getName).containsExactly("two", "one");
+    }
+
+    @Test
+    @DisplayName("처음 읽기 전에는 비어있다")
+    void emptyBeforeLoad() {
+        //when
+        ranking.record(RankGroup.PERSON, 1L, List.of(record(1L, TODAY, 100L)));
+
+        //then
+        assertThat(ranking.isLoaded()).isFalse();
+        assertThat(ranking.top(RankGroup.PERSON, RankType.WEEK, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("페이지와 내 순위를 실시간 랭킹에서 바로 찾는다")
+    void rangeAndRankOf() {
+        //given
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any())).thenReturn(List.of(
+                row(1L, TODAY, 100L),
+                row(2L, TODAY, 300L),
+                row(3L, TODAY, 200L)));
+        ranking.rebuild();
+
+        //when
+        List<ActivityToRank> page = ranking.range(RankGroup.PERSON, RankType.WEEK, 1, 5);
+        ActivityToRank mine = ranking.rankOf(RankGroup.PERSON, RankType.WEEK, 1L);
+
+        //then
+        assertThat(ranking.size(RankGroup.PERSON, RankType.WEEK)).isEqualTo(3);
+        assertThat(page).extracting(ActivityToRank::getOrder).containsExactly(2, 3);
+        assertThat(page.get(1).getName()).isEqualTo("one");
+        assertThat(mine.getOrder()).isEqualTo(3);
+        assertThat(mine.getSecond()).isEqualTo(100L);
+        assertThat(mine.getImage()).isEqualTo(10L);
+        assertThat(ranking.rankOf(RankGroup.PERSON, RankType.YESTERDAY, 1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("공부 시간이 들어오거나 날짜가 바뀌면 버전이 바뀐다")
+    void versionChangesWithRanking() {
+        //given
+        when(memberActivityRepository.findDailyTimesByPeriod(any(), any()))
+                .thenReturn(List.of(row(1L, TODAY, 100L)));
+        assertThat(ranking.getVersion(RankGroup.PERSON)).isEqualTo(-1);
+        ranking.rebuild();
+        long loaded = ranking.getVersion(RankGroup.PERSON);
+
+        //when
+        long unchanged = ranking.getVersion(RankGroup.PERSON);
+        ranking.record(RankGroup.PERSON, 1L, List.of(record(2L, TODAY, 150L)));
+        long recorded = ranking.getVersion(RankGroup.PERSON);
+        clock.set(noon(TODAY.plusDays(1)));
+        long rolled = ranking.getVersion(RankGroup.PERSON);
+
+        //then
+        assertThat(unchanged).isEqualTo(loaded);
+        assertThat(recorded).isGreaterThan(loaded);
+        assertThat(rolled).isGreaterThan(recorded);
+    }
+
+    private static Tuple row(Long seq, LocalDate day, Long second) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get(0, Long.class)).thenReturn(seq);
+        when(tuple.get(1, Date.class)).thenReturn(Date.valueOf(day));
+        when(tuple.get(2, Long.class)).thenReturn(second);
+        return tuple;
+    }
+
+    private static ActivityRecord record(Long seq, LocalDate day, Long second) {
+        return new ActivityRecord(seq, Date.valueOf(day), second, "backend");
+    }
+
+    private static Instant noon(LocalDate day) {
+        return day.atTime(12, 0).atZone(ZONE).toInstant();
+    }
+}
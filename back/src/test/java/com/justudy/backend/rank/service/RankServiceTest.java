@@ -0,0 +1,131 @@
+package com.justudy.backend.rank.service;
+
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.common.RankType;
+import com.justudy.backend.rank.domain.RankEntity;
+import com.justudy.backend.rank.domain.RankGenerationEntity;
+import com.justudy.backend.rank.dto.response.RankResponse;
+import com.justudy.backend.rank.repository.RankGenerationRepository;
+import com.justudy.backend.rank.repository.RankRepository;
+import com.justudy.backend.timer.dto.response.ActivityToRank;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankServiceTest {
+
+    private RankRepository rankRepository;
+    private RankGenerationRepository rankGenerationRepository;
+    private LiveRanking liveRanking;
+    private RankService rankService;
+
+    @BeforeEach
+    void setUp() {
+        rankRepository = mock(RankRepository.class);
+        rankGenerationRepository = mock(RankGenerationRepository.class);
+        liveRanking = mock(LiveRanking.class);
+        rankService = new RankService(rankRepository, rankGenerationRepository, liveRanking);
+    }
+
+    @Test
+    @DisplayName("랭킹이 바뀌지 않았으면 만들어둔 순위를 그대로 준다")
+    void readFromCache() {
+        //given
+        when(liveRanking.getVersion(RankGroup.PERSON)).thenReturn(3L);
+        when(liveRanking.top(RankGroup.PERSON, RankType.WEEK, RankService.TOP_SIZE))
+                .thenReturn(List.of(new ActivityToRank(1, 100L, "one", 10L)));
+
+        //when
+        List<RankResponse> first =
+                rankService.readAllByGroupAndType(RankGroup.PERSON, RankType.WEEK);
+        List<RankResponse> second =
+                rankService.readAllByGroupAndType(RankGroup.PERSON, RankType.WEEK);
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(first).extracting(RankResponse::getNickName).containsExactly("one");
+        assertThatThrownBy(() -> first.add(new RankResponse(2, "two", 50L, 20L)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        verify(liveRanking, times(1)).top(RankGroup.PERSON, RankType.WEEK, RankService.TOP_SIZE);
+    }
+
+    @Test
+    @DisplayName("버전이 바뀌면 순위를 다시 만든다")
+    void rereadWhenVersionChanges() {
+        //given
+        when(liveRanking.getVersion(RankGroup.PERSON)).thenReturn(3L, 4L);
+        when(liveRanking.top(RankGroup.PERSON, RankType.WEEK, RankService.TOP_SIZE))
+                .thenReturn(List.of(new ActivityToRank(1, 100L, "one", 10L)))
+                .thenReturn(List.of(new ActivityToRank(1, 200L, "two", 20L)));
+
+        //when
+        rankService.readAllByGroupAndType(RankGroup.PERSON, RankType.WEEK);
+        List<RankResponse> ranks =
+                rankService.readAllByGroupAndType(RankGroup.PERSON, RankType.WEEK);
+
+        //then
+        assertThat(ranks).extracting(RankResponse::getNickName).containsExactly("two");
+    }
+
+    @Test
+    @DisplayName("실시간 랭킹을 읽기 전에는 공개된 세대를 한번만 읽는다")
+    void readStoredBeforeLoad() {
+        //given
+        when(liveRanking.getVersion(RankGroup.GROUP)).thenReturn(-1L);
+        when(rankRepository.findAllByGroupAndType(RankGroup.GROUP, RankType.MONTH, 0,
+                RankService.TOP_SIZE))
+                .thenReturn(List.of(new RankResponse(1, "study", 100L, 10L)));
+
+        //when
+        rankService.readAllByGroupAndType(RankGroup.GROUP, RankType.MONTH);
+        List<RankResponse> ranks =
+                rankService.readAllByGroupAndType(RankGroup.GROUP, RankType.MONTH);
+
+        //then
+        assertThat(ranks).extracting(RankResponse::getNickName).containsExactly("study");
+        verify(rankRepository, times(1)).findAllByGroupAndType(RankGroup.GROUP, RankType.MONTH, 0,
+                RankService.TOP_SIZE);
+        verify(liveRanking, never()).top(RankGroup.GROUP, RankType.MONTH, RankService.TOP_SIZE);
+    }
+
+    @Test
+    @DisplayName("새 세대로 저장한 뒤 ranking_generation 을 새 세대로 바꾼다")
+    void publishNextGeneration() {
+        //given
+        RankGenerationEntity pointer =
+                new RankGenerationEntity(RankGroup.PERSON, RankType.WEEK, 4L);
+        when(rankGenerationRepository.findByRankGroupAndRankType(RankGroup.PERSON, RankType.WEEK))
+                .thenReturn(Optional.of(pointer));
+
+        //when
+        long generation = rankService.publishRank(RankGroup.PERSON, RankType.WEEK, List.of(
+                new ActivityToRank(1, 100L, "one", 10L),
+                new ActivityToRank(2, 50L, "two", 20L)));
+
+        //then
+        InOrder order = inOrder(rankGenerationRepository);
+        order.verify(rankGenerationRepository).insertIfAbsent("PERSON", "WEEK");
+        order.verify(rankGenerationRepository)
+                .findByRankGroupAndRankType(RankGroup.PERSON, RankType.WEEK);
+        ArgumentCaptor<RankEntity> saved = ArgumentCaptor.forClass(RankEntity.class);
+        verify(rankRepository, times(2)).save(saved.capture());
+        assertThat(generation).isEqualTo(5L);
+        assertThat(saved.getAllValues()).extracting(RankEntity::getRankGeneration)
+                .containsOnly(5L);
+        assertThat(pointer.getGeneration()).isEqualTo(5L);
+    }
+}
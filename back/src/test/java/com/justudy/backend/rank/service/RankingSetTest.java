@@ -0,0 +1,92 @@
+package com.justudy.backend.rank.service;
+
+import com.justudy.backend.rank.service.RankingSet.Ranker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankingSetTest {
+
+    @Test
+    @DisplayName("몇 등인지와 offset 부터 limit 명을 준다")
+    void rankOfAndRange() {
+        //given
+        RankingSet set = new RankingSet();
+        set.add(1L, 100L);
+        set.add(2L, 300L);
+        set.add(3L, 200L);
+        set.add(4L, 200L);
+
+        //when
+        set.add(1L, 250L);
+
+        //then
+        assertThat(set.rankOf(1L)).isEqualTo(1);
+        assertThat(set.rankOf(2L)).isEqualTo(2);
+        assertThat(set.rankOf(3L)).isEqualTo(3);
+        assertThat(set.rankOf(4L)).isEqualTo(4);
+        assertThat(set.rankOf(5L)).isZero();
+        assertThat(set.range(1, 2)).extracting(Ranker::getOwner).containsExactly(2L, 3L);
+        assertThat(set.range(3, 10)).extracting(Ranker::getOwner).containsExactly(4L);
+        assertThat(set.range(10, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("0 이하가 되면 랭킹에서 빠지고 뒷사람이 한칸씩 올라간다")
+    void removeWhenNotPositive() {
+        //given
+        RankingSet set = new RankingSet();
+        set.add(1L, 100L);
+        set.add(2L, 50L);
+
+        //when
+        set.add(1L, -100L);
+
+        //then
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.rankOf(1L)).isZero();
+        assertThat(set.rankOf(2L)).isEqualTo(1);
+        assertThat(set.top(10)).extracting(Ranker::getOwner).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("점수가 계속 바뀌어도 전체를 정렬한 순서와 같다")
+    void matchesFullSort() {
+        //given
+        Random random = new Random(7);
+        RankingSet set = new RankingSet();
+        Map<Long, Long> scores = new HashMap<>();
+
+        //when
+        for (int i = 0; i < 50000; i++) {
+            long owner = random.nextInt(2000);
+            long second = random.nextInt(200) - 60;
+            set.add(owner, second);
+            long after = scores.getOrDefault(owner, 0L) + second;
+            if (after > 0) {
+                scores.put(owner, after);
+            } else {
+                scores.remove(owner);
+            }
+        }
+
+        //then
+        List<Long> sorted = new ArrayList<>(scores.keySet());
+        sorted.sort(Comparator.comparing((Long owner) -> -scores.get(owner))
+                .thenComparing(owner -> owner));
+        assertThat(set.size()).isEqualTo(sorted.size());
+        for (int index = 0; index < sorted.size(); index++) {
+            assertThat(set.rankOf(sorted.get(index))).isEqualTo(index + 1);
+        }
+        assertThat(set.range(100, 50)).extracting(Ranker::getOwner)
+                .containsExactlyElementsOf(sorted.subList(100, 150));
+    }
+}
@@ -0,0 +1,84 @@
+package com.justudy.backend.timer.repository;
+
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 마이그레이션(db/migration)을 적용한 H2(MySQL 모드)에서 저장 SQL 을 실제로 실행해 본다.
+ * <p>
+ * 같은 날 같은 회원/방/카테고리의 시간이 합계 한 행에 더해지는지, 카테고리가 없어도 그런지 확인한다.
+ */
+class ActivityJdbcRepositoryMigrationTest {
+
+    private static final Date DAY = Date.valueOf("2023-02-01");
+
+    private JdbcTemplate jdbcTemplate;
+    private ActivityJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:activity-jdbc;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new ActivityJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("같은 날 같은 카테고리의 시간은 합계 한 행에 더해진다")
+    void memberDailyAccumulates() {
+        //when
+        long first = repository.insertMemberActivities(
+                List.of(new ActivityRecord(1L, DAY, 60L, "backend")));
+        long second = repository.insertMemberActivities(
+                List.of(new ActivityRecord(1L, DAY, 30L, "backend")));
+
+        //then
+        List<Map<String, Object>> daily = jdbcTemplate.queryForList(
+                "select member_activity_daily_time as time from member_activity_daily"
+                        + " where member_seq = 1");
+        assertThat(daily).hasSize(1);
+        assertThat(((Number) daily.get(0).get("time")).longValue()).isEqualTo(90L);
+        assertThat(count("member_activity")).isEqualTo(2);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    @DisplayName("카테고리가 없는 시간도 '' 로 저장되어 합계 한 행에 더해진다")
+    void missingCategoryAccumulates() {
+        //when
+        repository.saveRoomSessions(List.of(),
+                List.of(new ActivityRecord(100L, DAY, 60L, null)));
+        repository.saveRoomSessions(List.of(new ActivityRecord(100L, DAY, 120L, null)),
+                List.of(new ActivityRecord(100L, DAY, 60L, null)));
+
+        //then
+        List<Map<String, Object>> daily = jdbcTemplate.queryForList(
+                "select room_activity_daily_category as category,"
+                        + " room_activity_daily_time as time from room_activity_daily"
+                        + " where study_room_seq = 100");
+        assertThat(daily).hasSize(1);
+        assertThat(daily.get(0).get("category")).isEqualTo("");
+        assertThat(((Number) daily.get(0).get("time")).longValue()).isEqualTo(120L);
+        assertThat(jdbcTemplate.queryForObject(
+                "select room_activity_category from room_activity", String.class)).isEqualTo("");
+    }
+
+    private int count(String table) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+}
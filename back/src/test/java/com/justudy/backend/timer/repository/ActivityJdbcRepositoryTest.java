@@ -0,0 +1,127 @@
+package com.justudy.backend.timer.repository;
+
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ActivityJdbcRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ActivityJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new ActivityJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("원본 행을 넣고 같은 값으로 날짜별 합계에 더한다")
+    void insertThenRollUp() {
+        //given
+        List<ActivityRecord> records = List.of(
+                new ActivityRecord(1L, Date.valueOf("2023-02-01"), 60L, "backend"),
+                new ActivityRecord(2L, Date.valueOf("2023-02-01"), 30L, "frontend"));
+        when(jdbcTemplate.queryForObject(ActivityJdbcRepository.READ_FLUSH, Long.class,
+                ActivityJdbcRepository.MEMBER_FLUSH)).thenReturn(7L);
+
+        //when
+        long seq = repository.insertMemberActivities(records);
+
+        //then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> raw = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> daily = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.INSERT_MEMBER),
+                raw.capture());
+        order.verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.UPSERT_MEMBER_DAILY),
+                daily.capture());
+        order.verify(jdbcTemplate).update(ActivityJdbcRepository.BUMP_FLUSH,
+                ActivityJdbcRepository.MEMBER_FLUSH);
+        assertThat(seq).isEqualTo(7L);
+        assertThat(raw.getValue()).hasSize(2);
+        assertThat(daily.getValue()).isSameAs(raw.getValue());
+        assertThat(raw.getValue().get(0)).containsExactly(1L, Date.valueOf("2023-02-01"), 60L,
+                "backend");
+    }
+
+    @Test
+    @DisplayName("스터디 방 시간도 원본과 합계를 같이 쓴다")
+    void roomRollUp() {
+        //when
+        repository.insertRoomActivities(
+                List.of(new ActivityRecord(100L, Date.valueOf("2023-02-01"), 60L, "backend")));
+
+        //then
+        verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.INSERT_ROOM), anyList());
+        verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.UPSERT_ROOM_DAILY), anyList());
+        verify(jdbcTemplate).update(ActivityJdbcRepository.BUMP_FLUSH,
+                ActivityJdbcRepository.ROOM_FLUSH);
+    }
+
+    @Test
+    @DisplayName("빈 목록이면 DB 에 가지 않는다")
+    void emptyIsNoop() {
+        //when
+        long seq = repository.insertMemberActivities(List.of());
+
+        //then
+        assertThat(seq).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("화상 스터디 체크포인트는 날짜별 합계에만 더하고 원본 행은 쓰지 않는다")
+    void sessionCheckpointOnlyRollsUp() {
+        //given
+        List<ActivityRecord> daily = List.of(
+                new ActivityRecord(100L, Date.valueOf("2023-02-01"), 60L, "backend"));
+
+        //when
+        repository.saveRoomSessions(List.of(), daily);
+
+        //then
+        verify(jdbcTemplate, never()).batchUpdate(eq(ActivityJdbcRepository.INSERT_ROOM),
+                anyList());
+        verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.UPSERT_ROOM_DAILY), anyList());
+        verify(jdbcTemplate).update(ActivityJdbcRepository.BUMP_FLUSH,
+                ActivityJdbcRepository.ROOM_FLUSH);
+    }
+
+    @Test
+    @DisplayName("끝난 구간은 원본 행으로만 쓴다")
+    void closedSessionOnlyInsertsRaw() {
+        //given
+        List<ActivityRecord> raw = List.of(
+                new ActivityRecord(1L, Date.valueOf("2023-02-01"), 180L, "backend"));
+
+        //when
+        repository.saveMemberSessions(raw, List.of());
+
+        //then
+        verify(jdbcTemplate).batchUpdate(eq(ActivityJdbcRepository.INSERT_MEMBER), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(eq(ActivityJdbcRepository.UPSERT_MEMBER_DAILY),
+                anyList());
+        verify(jdbcTemplate).update(ActivityJdbcRepository.BUMP_FLUSH,
+                ActivityJdbcRepository.MEMBER_FLUSH);
+    }
+}
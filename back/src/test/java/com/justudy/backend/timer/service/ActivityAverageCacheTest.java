@@ -0,0 +1,121 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.timer.domain.QMemberActivityDailyEntity;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.justudy.backend.timer.service.ActivityAverageCache.Period;
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActivityAverageCacheTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final LocalDate TODAY = LocalDate.of(2023, 2, 15);
+    private static final QMemberActivityDailyEntity Q =
+            QMemberActivityDailyEntity.memberActivityDailyEntity;
+
+    private MemberActivityRepository repository;
+    private ActivityJdbcRepository activityJdbcRepository;
+    private ActivityAverageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MemberActivityRepository.class);
+        activityJdbcRepository = mock(ActivityJdbcRepository.class);
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZONE).toInstant(), ZONE);
+        cache = new ActivityAverageCache(repository, activityJdbcRepository,
+                TransactionOperations.withoutTransaction(), clock);
+    }
+
+    @Test
+    @DisplayName("한번 계산한 평균은 요청마다 DB 에 가지 않는다")
+    void servedFromCache() {
+        //given
+        when(repository.findMemberTimesByPeriod(any(), any()))
+                .thenReturn(List.of(row(1L, 100L), row(2L, 300L)));
+
+        //when
+        Long first = cache.getAverage(Period.WEEK);
+        Long second = cache.getAverage(Period.WEEK);
+        cache.getAverage(Period.MONTH);
+
+        //then
+        assertThat(first).isEqualTo(200L);
+        assertThat(second).isEqualTo(200L);
+        verify(repository, times(Period.values().length)).findMemberTimesByPeriod(any(), any());
+    }
+
+    @Test
+    @DisplayName("새로 저장된 시간은 기간 안이면 바로 더하고 버전을 올린다")
+    void recordIncrementally() {
+        //given
+        when(repository.findMemberTimesByPeriod(any(), any())).thenReturn(List.of(row(1L, 100L)));
+        cache.refresh();
+        long version = cache.getVersion();
+
+        //when
+        cache.record(1L, List.of(
+                new ActivityRecord(2L, Date.valueOf(TODAY), 300L, "backend"),
+                new ActivityRecord(1L, Date.valueOf(TODAY.minusDays(20)), 1000L, "backend")));
+
+        //then
+        assertThat(cache.getAverage(Period.WEEK)).isEqualTo(200L);
+        assertThat(cache.getAverage(Period.MONTH)).isEqualTo(700L);
+        assertThat(cache.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    @DisplayName("계산하는 동안 저장된 시간은 계산에 쓴 순번보다 뒤의 것만 다시 더한다")
+    void replayOnlyAfterWatermark() {
+        //given
+        when(activityJdbcRepository.readFlushSeq(ActivityJdbcRepository.MEMBER_FLUSH))
+                .thenReturn(4L);
+        when(repository.findMemberTimesByPeriod(any(), any())).thenAnswer(call -> {
+            //4 번은 읽은 합계에 들어있고, 5 번은 읽은 뒤에 저장됐다.
+            cache.record(4L, List.of(new ActivityRecord(1L, Date.valueOf(TODAY), 100L, "backend")));
+            cache.record(5L, List.of(new ActivityRecord(2L, Date.valueOf(TODAY), 300L, "backend")));
+            return List.of(row(1L, 100L));
+        });
+
+        //when
+        cache.refresh();
+        cache.record(4L, List.of(new ActivityRecord(1L, Date.valueOf(TODAY), 100L, "backend")));
+
+        //then
+        assertThat(cache.getAverage(Period.WEEK)).isEqualTo(200L);
+    }
+
+    @Test
+    @DisplayName("기록이 없으면 0")
+    void emptyIsZero() {
+        //given
+        when(repository.findMemberTimesByPeriod(any(), any())).thenReturn(List.of());
+
+        //then
+        assertThat(cache.getAverage(Period.MONTH)).isZero();
+    }
+
+    private static Tuple row(Long memberSeq, Long second) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get(Q.member.sequence)).thenReturn(memberSeq);
+        when(tuple.get(Q.time.sum())).thenReturn(second);
+        return tuple;
+    }
+}
@@ -0,0 +1,184 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.rank.common.RankGroup;
+import com.justudy.backend.rank.service.LiveRanking;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberActivityBufferTest {
+
+    private static final Date TODAY = Date.valueOf("2023-02-01");
+
+    @TempDir
+    Path spillDir;
+
+    private ActivityJdbcRepository activityJdbcRepository;
+    private ActivityAverageCache averageCache;
+    private LiveRanking liveRanking;
+    private MemberActivityBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        activityJdbcRepository = mock(ActivityJdbcRepository.class);
+        averageCache = mock(ActivityAverageCache.class);
+        liveRanking = mock(LiveRanking.class);
+        buffer = new MemberActivityBuffer(activityJdbcRepository, averageCache, liveRanking, 3,
+                spillDir.toString());
+    }
+
+    @Test
+    @DisplayName("같은 (회원, 날짜, 카테고리) 는 합쳐서 한 행으로 저장한다")
+    void aggregatePerKey() {
+        //given
+        buffer.add(1L, TODAY, "backend", 60L);
+        buffer.add(1L, TODAY, "backend", 30L);
+        buffer.add(1L, TODAY, "frontend", 10L);
+        when(activityJdbcRepository.insertMemberActivities(anyList())).thenReturn(7L);
+
+        //when
+        int flushed = buffer.flush();
+
+        //then
+        assertThat(flushed).isEqualTo(2);
+        assertThat(captureBatch()).extracting(ActivityRecord::getSecond)
+                .containsExactlyInAnyOrder(90L, 10L);
+        assertThat(buffer.pendingCount()).isZero();
+        verify(averageCache).record(eq(7L), anyList());
+        verify(liveRanking).record(eq(RankGroup.PERSON), eq(7L), anyList());
+    }
+
+    @Test
+    @DisplayName("키가 flush-size 개 쌓이면 요청 스레드를 막지 않고 바로 저장한다")
+    void sizeTrigger() {
+        //when
+        buffer.add(1L, TODAY, "backend", 1L);
+        buffer.add(2L, TODAY, "backend", 1L);
+        buffer.add(3L, TODAY, "backend", 1L);
+
+        //then
+        verify(activityJdbcRepository, timeout(1000)).insertMemberActivities(anyList());
+    }
+
+    @Test
+    @DisplayName("저장에 실패하면 다시 쌓아두고, 종료할 때도 실패하면 파일로 남겼다가 다음 기동 때 다시 읽는다")
+    void spillAndRecover() throws Exception {
+        //given
+        doThrow(new DataAccessResourceFailureException("db down"))
+                .when(activityJdbcRepository).insertMemberActivities(anyList());
+        buffer.add(1L, TODAY, "backend", 60L);
+        assertThat(buffer.flush()).isZero();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        //when
+        buffer.shutdown();
+
+        //then
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).hasSize(1);
+        }
+        ActivityJdbcRepository recovered = mock(ActivityJdbcRepository.class);
+        MemberActivityBuffer next = new MemberActivityBuffer(recovered,
+                mock(ActivityAverageCache.class), mock(LiveRanking.class), 3, spillDir.toString());
+        next.recoverSpill();
+        assertThat(next.pendingCount()).isEqualTo(1);
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+        next.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> batch = ArgumentCaptor.forClass(List.class);
+        verify(recovered).insertMemberActivities(batch.capture());
+        ActivityRecord row = batch.getValue().get(0);
+        assertThat(row.getOwnerSeq()).isEqualTo(1L);
+        assertThat(row.getDate()).isEqualTo(TODAY);
+        assertThat(row.getSecond()).isEqualTo(60L);
+        assertThat(row.getCategory()).isEqualTo("backend");
+    }
+
+    @Test
+    @DisplayName("batch 가 실패하면 한 행씩 다시 저장하고, DB 가 거절한 행만 버린다")
+    void dropRejectedRowOnly() throws Exception {
+        //given
+        doThrow(new DataIntegrityViolationException("Data too long for column"))
+                .when(activityJdbcRepository).insertMemberActivities(argThat(rows -> rows.size() > 1
+                        || "x".repeat(300).equals(rows.get(0).getCategory())));
+        buffer.add(1L, TODAY, "backend", 60L);
+        buffer.add(2L, TODAY, "x".repeat(300), 30L);
+
+        //when
+        int flushed = buffer.flush();
+
+        //then
+        assertThat(flushed).isEqualTo(1);
+        assertThat(buffer.pendingCount()).isZero();
+        buffer.shutdown();
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(averageCache).record(anyLong(), recorded.capture());
+        assertThat(recorded.getValue()).extracting(ActivityRecord::getOwnerSeq).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("한 행씩 저장하다 DB 가 끊기면 남은 행은 다시 쌓아둔다")
+    void restoreRestOnTransientFailure() {
+        //given
+        doThrow(new DataAccessResourceFailureException("db down"))
+                .when(activityJdbcRepository).insertMemberActivities(anyList());
+        buffer.add(1L, TODAY, "backend", 60L);
+        buffer.add(2L, TODAY, "backend", 30L);
+
+        //when
+        int flushed = buffer.flush();
+
+        //then
+        assertThat(flushed).isZero();
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        verify(averageCache, never()).record(anyLong(), anyList());
+    }
+
+    @Test
+    @DisplayName("0초 이하는 저장하지 않는다")
+    void ignoreEmpty() {
+        //when
+        buffer.add(1L, TODAY, "backend", 0L);
+
+        //then
+        assertThat(buffer.flush()).isZero();
+        verify(activityJdbcRepository, never()).insertMemberActivities(anyList());
+    }
+
+    private List<ActivityRecord> captureBatch() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> batch = ArgumentCaptor.forClass(List.class);
+        verify(activityJdbcRepository).insertMemberActivities(batch.capture());
+        return batch.getValue();
+    }
+}
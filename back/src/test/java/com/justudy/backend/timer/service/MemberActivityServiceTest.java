@@ -0,0 +1,123 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.category.repository.CategoryRepository;
+import com.justudy.backend.exception.InvalidRequest;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.timer.dto.request.ActivityRequest;
+import com.justudy.backend.timer.dto.request.ActivitySummaryStat;
+import com.justudy.backend.timer.dto.response.ActivitySummaryResponse;
+import com.justudy.backend.timer.repository.ActivityJdbcRepository;
+import com.justudy.backend.timer.repository.MemberActivityRepository;
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberActivityServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 2, 15);
+
+    private MemberActivityRepository repository;
+    private MemberActivityBuffer buffer;
+    private CategoryRepository categoryRepository;
+    private MemberActivityService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MemberActivityRepository.class);
+        buffer = mock(MemberActivityBuffer.class);
+        categoryRepository = mock(CategoryRepository.class);
+        service = new MemberActivityService(mock(MemberRepository.class), repository,
+                buffer, mock(ActivityJdbcRepository.class), mock(ActivityAverageCache.class),
+                categoryRepository);
+    }
+
+    @Test
+    @DisplayName("여러 회원의 통계를 통계 종류마다 한번씩만 읽는다")
+    void oneQueryPerStat() {
+        //given
+        when(repository.sumWeekAndMonthByMembers(any(), any(), any(), any()))
+                .thenReturn(List.of(row(1L, 100L, 300L), row(3L, 0L, 50L)));
+        when(repository.findTimeByCategoryAndMembers(any()))
+                .thenReturn(List.of(row(1L, "알고리즘", 200L), row(1L, "CS", 100L)));
+        when(repository.findCalendarByMembers(any(), any(), any()))
+                .thenReturn(List.of(row(3L, "02", 50L)));
+
+        //when
+        List<ActivitySummaryResponse> summaries = service.getSummaries(List.of(3L, 1L, 2L),
+                EnumSet.allOf(ActivitySummaryStat.class), TODAY, TODAY.withDayOfMonth(1));
+
+        //then
+        assertThat(summaries).extracting(ActivitySummaryResponse::getSeq)
+                .containsExactly(3L, 1L, 2L);
+        assertThat(summaries.get(0).getMonth()).isEqualTo(50L);
+        assertThat(summaries.get(0).getCalendar()).hasSize(1);
+        assertThat(summaries.get(1).getWeek()).isEqualTo(100L);
+        assertThat(summaries.get(1).getCategory()).hasSize(2);
+        //기록이 없는 회원은 0 과 빈 목록
+        assertThat(summaries.get(2).getWeek()).isZero();
+        assertThat(summaries.get(2).getCategory()).isEmpty();
+        verify(repository, times(1)).sumWeekAndMonthByMembers(any(), any(), any(), any());
+        verify(repository, times(1)).findTimeByCategoryAndMembers(any());
+        verify(repository, times(1)).findCalendarByMembers(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("요청하지 않은 통계는 읽지 않고 null 로 둔다")
+    void onlyRequestedStats() {
+        //given
+        when(repository.sumWeekAndMonthByMembers(any(), any(), any(), any()))
+                .thenReturn(List.of(row(1L, 100L, 300L)));
+
+        //when
+        List<ActivitySummaryResponse> summaries = service.getSummaries(List.of(1L),
+                EnumSet.of(ActivitySummaryStat.WEEK), TODAY, TODAY.withDayOfMonth(1));
+
+        //then
+        assertThat(summaries.get(0).getWeek()).isEqualTo(100L);
+        assertThat(summaries.get(0).getMonth()).isNull();
+        assertThat(summaries.get(0).getCategory()).isNull();
+        verify(repository, never()).findTimeByCategoryAndMembers(any());
+        verify(repository, never()).findCalendarByMembers(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("없는 카테고리의 공부 시간은 버퍼에 넣지 않고 거절한다")
+    void rejectUnknownCategory() {
+        //given
+        when(categoryRepository.findByKey("x".repeat(40))).thenReturn(Optional.empty());
+        ActivityRequest request = new ActivityRequest(60L, "x".repeat(40));
+
+        //when //then
+        assertThatThrownBy(() -> service.saveMemberAcitivity(request, 1L, Date.valueOf(TODAY)))
+                .isInstanceOf(InvalidRequest.class);
+        verify(buffer, never()).add(any(), any(), any(), any());
+    }
+
+    private Tuple row(Long seq, Object key, Long second) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get(0, Long.class)).thenReturn(seq);
+        if (key instanceof String) {
+            when(tuple.get(1, String.class)).thenReturn((String) key);
+        } else {
+            when(tuple.get(1, Long.class)).thenReturn((Long) key);
+        }
+        when(tuple.get(2, Long.class)).thenReturn(second);
+        return tuple;
+    }
+}
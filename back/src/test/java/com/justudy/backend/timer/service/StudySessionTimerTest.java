@@ -0,0 +1,267 @@
+package com.justudy.backend.timer.service;
+
+import com.justudy.backend.GroupCall.dto.response.StudyRoomResponse;
+import com.justudy.backend.GroupCall.service.StudyRoomService;
+import com.justudy.backend.MutableClock;
+import com.justudy.backend.member.domain.QMemberEntity;
+import com.justudy.backend.member.repository.MemberRepository;
+import com.justudy.backend.rank.service.LiveRanking;
+import com.justudy.backend.study.dto.response.StudyDetailResponse;
+import com.justudy.backend.study.exception.StudyNotFound;
+import com.justudy.backend.study.service.StudyService;
+import com.justudy.backend.timer.dto.request.ActivityRecord;
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudySessionTimerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    private MemberActivityService memberActivityService;
+    private RoomActivityService roomActivityService;
+    private StudyService studyService;
+    private StudyRoomService studyRoomService;
+    private MutableClock clock;
+    private StudySessionTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        memberActivityService = mock(MemberActivityService.class);
+        roomActivityService = mock(RoomActivityService.class);
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        studyService = mock(StudyService.class);
+        studyRoomService = mock(StudyRoomService.class);
+
+        StudyDetailResponse study = mock(StudyDetailResponse.class);
+        when(study.getTopCategory()).thenReturn("backend");
+        when(studyService.readStudy(1L)).thenReturn(study);
+        StudyRoomResponse studyRoom = mock(StudyRoomResponse.class);
+        when(studyRoom.getSequence()).thenReturn(100L);
+        when(studyRoomService.getUUIDStudy(1L)).thenReturn(studyRoom);
+
+        Tuple member = mock(Tuple.class);
+        when(member.get(QMemberEntity.memberEntity.nickname)).thenReturn("a");
+        when(member.get(QMemberEntity.memberEntity.sequence)).thenReturn(7L);
+        when(memberRepository.findSequencesByNicknames(anyCollection())).thenReturn(List.of(member));
+
+        clock = new MutableClock(LocalDate.of(2023, 2, 1).atTime(10, 0).atZone(ZONE).toInstant(),
+                ZONE);
+        timer = new StudySessionTimer(memberActivityService, roomActivityService, memberRepository,
+                studyService, studyRoomService, mock(LiveRanking.class),
+                mock(ActivityAverageCache.class), clock);
+    }
+
+    @Test
+    @DisplayName("입장부터 퇴장까지의 시간을 참가자와 방의 원본 행과 날짜별 합계에 저장한다")
+    void joinToLeave() {
+        //given
+        timer.roomOpened("1");
+        timer.memberJoined("a", "1");
+        clock.advance(Duration.ofMinutes(30));
+        timer.memberLeft("a", "1");
+        timer.roomClosed("1");
+
+        //when
+        timer.flush();
+
+        //then
+        List<List<ActivityRecord>> member = memberSessions(1).get(0);
+        ActivityRecord raw = single(member.get(RAW));
+        assertThat(raw.getOwnerSeq()).isEqualTo(7L);
+        assertThat(raw.getSecond()).isEqualTo(1800L);
+        assertThat(raw.getCategory()).isEqualTo("backend");
+        assertThat(single(member.get(DAILY)).getSecond()).isEqualTo(1800L);
+        List<List<ActivityRecord>> room = roomSessions(1).get(0);
+        assertThat(single(room.get(RAW)).getOwnerSeq()).isEqualTo(100L);
+        assertThat(single(room.get(RAW)).getSecond()).isEqualTo(1800L);
+        assertThat(single(room.get(DAILY)).getSecond()).isEqualTo(1800L);
+    }
+
+    @Test
+    @DisplayName("체크포인트는 날짜별 합계에만 잘라서 더하고, 원본 행은 구간이 끝날 때 한번만 쓴다")
+    void checkpointOnlyRollsUp() {
+        //given
+        timer.roomOpened("1");
+        timer.memberJoined("a", "1");
+        clock.advance(Duration.ofMinutes(1));
+        timer.flush();
+        clock.advance(Duration.ofMinutes(2));
+        timer.flush();
+
+        //when
+        timer.memberLeft("a", "1");
+        timer.flush();
+
+        //then
+        List<List<List<ActivityRecord>>> batches = memberSessions(3);
+        assertThat(batches.get(0).get(RAW)).isEmpty();
+        assertThat(single(batches.get(0).get(DAILY)).getSecond()).isEqualTo(60L);
+        assertThat(batches.get(1).get(RAW)).isEmpty();
+        assertThat(single(batches.get(1).get(DAILY)).getSecond()).isEqualTo(120L);
+        assertThat(single(batches.get(2).get(RAW)).getSecond()).isEqualTo(180L);
+        assertThat(batches.get(2).get(DAILY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("자정을 넘긴 구간은 날짜별로 나눠서 저장한다")
+    void splitAtMidnight() {
+        //given
+        clock.set(LocalDate.of(2023, 2, 1).atTime(23, 50).atZone(ZONE).toInstant());
+        timer.roomOpened("1");
+        clock.advance(Duration.ofMinutes(20));
+        timer.roomClosed("1");
+
+        //when
+        timer.flush();
+
+        //then
+        List<List<ActivityRecord>> room = roomSessions(1).get(0);
+        for (List<ActivityRecord> records : room) {
+            assertThat(records)
+                    .extracting(ActivityRecord::getDate, ActivityRecord::getSecond)
+                    .containsExactlyInAnyOrder(
+                            tuple(Date.valueOf("2023-02-01"), 600L),
+                            tuple(Date.valueOf("2023-02-02"), 600L));
+        }
+    }
+
+    @Test
+    @DisplayName("닫히는 방과 같은 이름의 새 방이 열려있으면 방 시간은 계속 잰다")
+    void overlappingRoomsKeepTiming() {
+        //given
+        timer.roomOpened("1");
+        timer.roomOpened("1");
+        clock.advance(Duration.ofMinutes(1));
+        timer.roomClosed("1");
+        clock.advance(Duration.ofMinutes(1));
+
+        //when
+        timer.flush();
+
+        //then
+        List<List<ActivityRecord>> room = roomSessions(1).get(0);
+        assertThat(room.get(RAW)).isEmpty();
+        assertThat(single(room.get(DAILY)).getSecond()).isEqualTo(120L);
+    }
+
+    @Test
+    @DisplayName("저장에 실패한 시간은 다음 체크포인트에 다시 저장한다")
+    void retryAfterFailure() {
+        //given
+        timer.roomOpened("1");
+        clock.advance(Duration.ofMinutes(1));
+        timer.roomClosed("1");
+        doThrow(new IllegalStateException("db down")).doReturn(1L)
+                .when(roomActivityService).saveRoomSessions(any(), any());
+        timer.flush();
+
+        //when
+        timer.flush();
+
+        //then
+        assertThat(single(roomSessions(2).get(1).get(RAW)).getSecond()).isEqualTo(60L);
+        verify(memberActivityService, never()).saveMemberSessions(any(), any());
+    }
+
+    @Test
+    @DisplayName("스터디 방을 찾다가 DB 오류가 나면 시간을 버리지 않고 다음 체크포인트에 다시 저장한다")
+    void retryWhenRoomLookupFails() {
+        //given
+        StudyRoomResponse studyRoom = mock(StudyRoomResponse.class);
+        when(studyRoom.getSequence()).thenReturn(100L);
+        when(studyRoomService.getUUIDStudy(1L))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(studyRoom);
+        timer.roomOpened("1");
+        timer.memberJoined("a", "1");
+        clock.advance(Duration.ofMinutes(1));
+        timer.memberLeft("a", "1");
+        timer.roomClosed("1");
+        timer.flush();
+
+        //when
+        timer.flush();
+
+        //then
+        assertThat(single(roomSessions(1).get(0).get(RAW)).getSecond()).isEqualTo(60L);
+        assertThat(single(memberSessions(1).get(0).get(RAW)).getSecond()).isEqualTo(60L);
+    }
+
+    @Test
+    @DisplayName("스터디가 없는 방의 시간은 버린다")
+    void dropUnknownStudy() {
+        //given
+        when(studyService.readStudy(2L)).thenThrow(new StudyNotFound());
+        timer.roomOpened("2");
+        clock.advance(Duration.ofMinutes(1));
+        timer.roomClosed("2");
+        timer.flush();
+
+        //when
+        timer.flush();
+
+        //then
+        verify(roomActivityService, never()).saveRoomSessions(any(), any());
+        verify(studyService, times(1)).readStudy(2L);
+    }
+
+    private static final int RAW = 0;
+    private static final int DAILY = 1;
+
+    //저장 호출마다 [원본 행, 날짜별 합계]
+    private List<List<List<ActivityRecord>>> memberSessions(int count) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> raw = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> daily = ArgumentCaptor.forClass(List.class);
+        verify(memberActivityService, times(count)).saveMemberSessions(raw.capture(),
+                daily.capture());
+        return zip(raw.getAllValues(), daily.getAllValues());
+    }
+
+    private List<List<List<ActivityRecord>>> roomSessions(int count) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> raw = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActivityRecord>> daily = ArgumentCaptor.forClass(List.class);
+        verify(roomActivityService, times(count)).saveRoomSessions(raw.capture(),
+                daily.capture());
+        return zip(raw.getAllValues(), daily.getAllValues());
+    }
+
+    private static List<List<List<ActivityRecord>>> zip(List<List<ActivityRecord>> raw,
+            List<List<ActivityRecord>> daily) {
+        List<List<List<ActivityRecord>>> ret = new ArrayList<>();
+        for (int i = 0; i < raw.size(); i++) {
+            ret.add(List.of(raw.get(i), daily.get(i)));
+        }
+        return ret;
+    }
+
+    private static ActivityRecord single(List<ActivityRecord> records) {
+        assertThat(records).hasSize(1);
+        return records.get(0);
+    }
+}
@@ -69,6 +69,8 @@ const moduleWebRTC = {
         chatData: [],
         exitURL: '/',
         webSockUrl: '',
+        // 방이 다른 서버에 있어서 거절당한 뒤 다시 연결한 횟수
+        rejoinCnt: 0,
         audioState: true,
         screenState: true,
         mainParents: null,
@@ -76,6 +78,8 @@ const moduleWebRTC = {
         personName: 'UNKNOWN'+Math.random().toString(36).substring(2, 12),
         roomName: 'UNKNOWN'+Math.random().toString(36).substring(2, 12),
         participants: {},
+        // 선택 전달 모드에서 영상을 받을 참가자 목록 (null 이면 모든 참가자)
+        forwardingSet: null,
         settingValue: {
             maxWidth: 640,
             maxFrameRate: 15,
@@ -174,6 +178,7 @@ const moduleWebRTC = {
             state.personName = 'UNKNOWN'+Math.random().toString(36).substring(2, 12);
             state.roomName = 'UNKNOWN'+Math.random().toString(36).substring(2, 12);
             state.participants = {};
+            state.forwardingSet = null;
             state.settingValue = {
                 maxWidth: 640,
                 maxFrameRate: 15,
@@ -302,8 +307,16 @@ const moduleWebRTC = {
             commit('SET_MAIN_PARENTS', el);
         },
         //뮤트 기능
-        isSetAudio({commit}, on) {
+        isSetAudio({commit, dispatch, state}, on) {
             commit('SET_AUDIO', on);
+            // 선택 전달 모드에서 음소거를 푼 사람을 우선해서 보여주기 위해 서버에 알린다
+            if (state.webSock && state.webSock.readyState === WebSocket.OPEN) {
+                dispatch('sendMessage', {id: 'audioState', value: String(on)});
+            }
+        },
+        //선택 전달 모드에서 항상 볼 참가자 고정 (name 이 없으면 해제)
+        pinParticipant({dispatch}, name) {
+            dispatch('sendMessage', {id: 'pin', name: name || ''});
         },
         //스크린 기능
         isSetScreen({commit}, on) {
@@ -338,7 +351,8 @@ const moduleWebRTC = {
         //////////////통신 제어 관련 시작///////////////
         open({state, dispatch, commit}, {url, person, room}) {
             commit('SET_WEBSOCKET_URL', url);
-            commit('SET_WEBSOCK', new WebSocket(url));
+            // 로드밸런서가 방 이름으로 서버를 고를 수 있게 연결 주소에 방을 넣는다
+            commit('SET_WEBSOCK', new WebSocket(url + '?room=' + encodeURIComponent(room)));
             dispatch('setEventListener');
 
             console.log(state.webSock);
@@ -535,7 +549,7 @@ const moduleWebRTC = {
         필요한 응답이 있으면 말해주시면, "sendMessage로 보낼 데이터와,setEventListener로 받을 데이터"를 생각해주세요
     */
         //응답에 대한 리스너 함수
-        setEventListener({state, dispatch}) {
+        setEventListener({state, commit, dispatch}) {
             state.webSock.onmessage = message => {
                 let parsedMessage = JSON.parse(message.data);
                 console.info('Received message: ' + message.data);
@@ -551,6 +565,9 @@ const moduleWebRTC = {
                     case 'participantLeft':
                         dispatch('onParticipantLeft', parsedMessage);
                         break;
+                    case 'forwardingSet':
+                        dispatch('onForwardingSet', parsedMessage);
+                        break;
                     case 'receiveVideoAnswer':
                         dispatch('receiveVideoResponse', parsedMessage);
                         break;
@@ -569,10 +586,20 @@ const moduleWebRTC = {
                     case 'receiveChatMessage':
                         dispatch('receiveChatMessage', parsedMessage);
                         break;
+                    case 'receiveChatMessages': // 서버가 짧은 시간 동안 모아서 보낸 채팅
+                        parsedMessage.messages.forEach(chat => dispatch('receiveChatMessage', chat));
+                        break;
+                    case 'chatHistory': // 입장 직후 existingParticipants 다음에 오는 최근 채팅
+                        // 처음 들어왔을 때만 채운다 (화면 공유로 다시 들어올 때는 이미 있음)
+                        if (state.chatData.length === 0) {
+                            parsedMessage.messages.forEach(line => commit('ADD_CHAT_DATA', {name: line.name, message: line.message}));
+                        }
+                        break;
                     case 'iceCandidate': //receiveChatMessage
                         console.log('iceCandidate');
                         console.log(parsedMessage);
                         console.log(state.participants);
+                        if (!state.participants[parsedMessage.name]) break; // 전달 목록에서 빠진 참가자
                         state.participants[parsedMessage.name].rtcPeer.addIceCandidate(parsedMessage.candidate, function (error) {
                             if (error) {
                                 console.error('Error adding candidate: ' + error);
@@ -592,13 +619,38 @@ const moduleWebRTC = {
                     case 'changeName':
                         dispatch('changeName', parsedMessage);
                         break;
+                    case 'roomUnavailable': // 방이 다른 서버에 있다 (서버가 늘거나 줄어든 직후)
+                        dispatch('onRoomUnavailable');
+                        break;
                     default:
                         console.error('Unrecognized message', parsedMessage);
                 }
             };
         },
+        //입장을 거절당했을 때 : 연결을 끊고 잠시 뒤 다시 연결한다. 방이 옮겨질 때까지 몇 번만 시도한다.
+        onRoomUnavailable({dispatch, state, commit}) {
+            for (let key in state.participants) {
+                state.participants[key].dispose();
+            }
+            state.participants = {};
+            state.webSock.close();
+            if (state.rejoinCnt >= 5) {
+                commit('SET_ALARM_VIEW', true);
+                commit('SET_ALARM_TEXT', '지금은 방에 들어갈 수 없습니다. 잠시 후 다시 시도해주세요.');
+                return;
+            }
+            state.rejoinCnt = state.rejoinCnt + 1;
+            setTimeout(() => {
+                dispatch('open', {
+                    url: state.webSockUrl,
+                    person: state.personName,
+                    room: state.roomName
+                });
+            }, 3000);
+        },
         //그룹 통화방에 들어갔을 때
         onExistingParticipants({dispatch, state, commit}, msg) {
+            state.rejoinCnt = 0;
             const receiveCallback = function (error, offerSdp, wp) {
                 if (error) return console.error('sdp offer error');
                 console.log('Invoking SDP offer callback function');
@@ -670,12 +722,16 @@ const moduleWebRTC = {
                 }
 
                 this.generateOffer(participant.offerToReceiveVideo.bind(participant));
+                if (msg.selective) dispatch('watchSpeaking', this.getLocalStream());
             };
 
             participant.rtcPeer = new window.kurentoUtils.WebRtcPeer.WebRtcPeerSendrecv(options, errFunction);
 
             dispatch('makeMainScreen', participant);
-            msg.data.forEach(function (sender) {
+            // 선택 전달 모드면 바로 뒤에 오는 forwardingSet 의 참가자만 받는다
+            state.forwardingSet = msg.selective ? [] : null;
+            const senders = msg.selective ? [] : msg.data;
+            senders.forEach(function (sender) {
                 const receiveCallback2 = function (error, offerSdp, wp) {
                     if (error) return console.error('sdp offer error');
                     console.log('Invoking SDP offer callback function');
@@ -730,13 +786,52 @@ const moduleWebRTC = {
             });
         },
         //그룹 통화에 참가자가 들어왔을 때
-        onNewParticipant({dispatch}, request) {
+        onNewParticipant({dispatch, state}, request) {
+            if (state.forwardingSet !== null) return; // 선택 전달 모드는 forwardingSet 을 따른다
             dispatch('receiveVideo', request.name);
         },
+        //선택 전달 모드에서 영상을 받을 참가자 목록이 바뀌었을 때
+        onForwardingSet({dispatch, state}, request) {
+            state.forwardingSet = request.names;
+            for (let key in state.participants) {
+                if (key !== state.personName && !request.names.includes(key)) {
+                    state.participants[key].dispose();
+                    delete state.participants[key];
+                }
+            }
+            request.names.forEach(function (name) {
+                if (!state.participants[name]) dispatch('receiveVideo', name);
+            });
+        },
+        //선택 전달 모드 : 내 마이크 소리가 커지면 서버에 말하는 중이라고 알린다 (2초에 한번까지만)
+        watchSpeaking({dispatch, state}, stream) {
+            if (!stream || !window.AudioContext) return;
+            const context = new window.AudioContext();
+            const analyser = context.createAnalyser();
+            context.createMediaStreamSource(stream).connect(analyser);
+            const samples = new Uint8Array(analyser.fftSize);
+            let lastSent = 0;
+            const timerId = setInterval(() => {
+                if (!state.webSock || state.webSock.readyState !== WebSocket.OPEN) {
+                    clearInterval(timerId);
+                    context.close();
+                    return;
+                }
+                analyser.getByteTimeDomainData(samples);
+                let peak = 0;
+                samples.forEach(v => (peak = Math.max(peak, Math.abs(v - 128))));
+                const now = Date.now();
+                if (state.audioState && peak > 20 && now - lastSent > 2000) {
+                    lastSent = now;
+                    dispatch('sendMessage', {id: 'speaking'});
+                }
+            }, 300);
+        },
         //그룹 통화 참가자가 나갔을 때
         onParticipantLeft({state}, request) {
             console.log('Participant ' + request.name + ' left');
             let participant = state.participants[request.name];
+            if (!participant) return; // 선택 전달 모드에서 받고 있지 않던 참가자
             participant.dispose();
             delete state.participants[request.name];
         },
@@ -746,6 +841,7 @@ const moduleWebRTC = {
             console.log(result.name);
             console.log('participants');
             console.log(state.participants);
+            if (!state.participants[result.name]) return; // 응답 전에 전달 목록에서 빠진 참가자
             state.participants[result.name].rtcPeer.processAnswer(result.sdpAnswer, function (error) {
                 if (error) return console.error(error);
             });